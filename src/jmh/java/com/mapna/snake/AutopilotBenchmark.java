@@ -0,0 +1,63 @@
+package com.mapna.snake;
+
+import com.mapna.snake.solver.Autopilot;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decisions per second for {@link Autopilot} on the default board, with the snake laid along the
+ * fixture cycle and food on the farthest free cell ahead of it, so every decision runs a full search.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutopilotBenchmark {
+  @Param({"3", "50", "200", "390"})
+  public int snakeLength;
+
+  private GameState state;
+  private Autopilot pathfinding;
+  private Autopilot hamiltonian;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Snake snake = BenchmarkFixtures.cycleSnake(snakeLength);
+    state = BenchmarkFixtures.runningState(snake);
+    Position food = snake.getHead();
+    for (int i = snakeLength; i < BenchmarkFixtures.CELLS; i++) {
+      food = switch (BenchmarkFixtures.cycleDirection(food)) {
+        case UP -> new Position(food.x(), food.y() - 1);
+        case DOWN -> new Position(food.x(), food.y() + 1);
+        case LEFT -> new Position(food.x() - 1, food.y());
+        case RIGHT -> new Position(food.x() + 1, food.y());
+      };
+    }
+    state.setFood(food);
+    pathfinding = Autopilot.pathfinding(BenchmarkFixtures.WIDTH, BenchmarkFixtures.HEIGHT);
+    hamiltonian = Autopilot.hamiltonian(BenchmarkFixtures.WIDTH, BenchmarkFixtures.HEIGHT);
+  }
+
+  @Benchmark
+  public Direction pathfinding() {
+    return pathfinding.choose(state);
+  }
+
+  @Benchmark
+  public Direction hamiltonian() {
+    return hamiltonian.choose(state);
+  }
+}
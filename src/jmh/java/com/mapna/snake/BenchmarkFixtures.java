@@ -0,0 +1,64 @@
+package com.mapna.snake;
+
+/**
+ * Builds snakes laid along a Hamiltonian cycle of the default board, so a benchmark can steer
+ * them forever without dying: row 0 runs right, rows 1..n-1 zigzag over columns 1..n-1, and
+ * column 0 climbs back to the start.
+ */
+final class BenchmarkFixtures {
+  static final int WIDTH = BoardConfig.PIXEL_WIDTH;
+  static final int HEIGHT = BoardConfig.PIXEL_HEIGHT;
+  static final int CELLS = WIDTH * HEIGHT;
+  /** Food that no head can ever reach, so the snake keeps a fixed length. */
+  static final Position UNREACHABLE_FOOD = new Position(-1, -1);
+
+  private static final Direction[] CYCLE = buildCycle();
+
+  private BenchmarkFixtures() {
+  }
+
+  /** Direction to take from the given cell to stay on the cycle. */
+  static Direction cycleDirection(Position cell) {
+    return CYCLE[cell.y() * WIDTH + cell.x()];
+  }
+
+  /** Returns a snake of the given length whose head is about to follow the cycle. */
+  static Snake cycleSnake(int length) {
+    Snake snake = Snake.createFixed(0, 2);
+    while (snake.getBody().size() < length) {
+      snake.move(nextOnCycle(snake), true);
+    }
+    return snake;
+  }
+
+  static Position nextOnCycle(Snake snake) {
+    return snake.nextHead(cycleDirection(snake.getHead()));
+  }
+
+  static GameState runningState(Snake snake) {
+    GameState state = new GameState();
+    state.setSnake(snake);
+    state.setDirection(cycleDirection(snake.getBody().get(1)));
+    state.setFood(UNREACHABLE_FOOD);
+    state.setMode(GameMode.RUNNING);
+    return state;
+  }
+
+  private static Direction[] buildCycle() {
+    Direction[] cycle = new Direction[CELLS];
+    for (int x = 0; x < WIDTH - 1; x++) {
+      cycle[x] = Direction.RIGHT;
+    }
+    cycle[WIDTH - 1] = Direction.DOWN;
+    for (int y = 1; y < HEIGHT; y++) {
+      boolean leftward = y % 2 == 1;
+      for (int x = 1; x < WIDTH; x++) {
+        boolean rowEnd = leftward ? x == 1 : x == WIDTH - 1;
+        Direction along = leftward ? Direction.LEFT : Direction.RIGHT;
+        cycle[y * WIDTH + x] = rowEnd ? (y == HEIGHT - 1 ? Direction.LEFT : Direction.DOWN) : along;
+      }
+      cycle[y * WIDTH] = Direction.UP;
+    }
+    return cycle;
+  }
+}
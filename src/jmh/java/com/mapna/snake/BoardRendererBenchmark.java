@@ -0,0 +1,58 @@
+package com.mapna.snake;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardRendererBenchmark {
+  @Param({"RUNNING", "PAUSED", "GAME_OVER", "WON"})
+  public GameMode mode;
+
+  @Param({"3", "200"})
+  public int snakeLength;
+
+  private final BoardRenderer renderer = new BoardRenderer();
+  private BufferedImage image;
+  private Graphics2D graphics;
+  private GameState state;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    image = new BufferedImage(BoardConfig.BOARD_WIDTH, BoardConfig.COMPONENT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    graphics = image.createGraphics();
+    state = BenchmarkFixtures.runningState(BenchmarkFixtures.cycleSnake(snakeLength));
+    state.setFood(new Position(0, 0));
+    state.setHighScore(1234);
+    state.setMode(mode);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    graphics.dispose();
+  }
+
+  @Benchmark
+  public BufferedImage paint() {
+    renderer.paint(graphics, state);
+    return image;
+  }
+}
@@ -0,0 +1,76 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost the event stream adds to a tick: no bus, a bus nobody listens to, a subscriber that
+ * only counts, and the file sink in each format. Every tick publishes one move.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBenchmark {
+  @Param({"none", "idle", "counting", "binary", "ndjson"})
+  public String events;
+
+  private GameEngine engine;
+  private GameState state;
+  private EventFileSink sink;
+  private Path file;
+  private long counted;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    engine = new GameEngine(new Random(42L));
+    state = BenchmarkFixtures.runningState(BenchmarkFixtures.cycleSnake(50));
+    EventBus bus = new EventBus();
+    switch (events) {
+      case "none" -> bus = null;
+      case "idle" -> { }
+      case "counting" -> bus.subscribe((b, from, to) -> counted += to - from);
+      case "binary", "ndjson" -> {
+        file = Files.createTempFile("snake-events", "." + events);
+        sink = EventFileSink.open(file, EventFileSink.Format.forPath(file));
+        bus.subscribe(sink);
+      }
+      default -> throw new IllegalArgumentException("Unknown events: " + events);
+    }
+    engine.setEvents(bus);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    if (sink != null) {
+      sink.close();
+      System.out.printf("%n%s: %d bytes written, %d events dropped%n", events, sink.bytesSubmitted(), sink.droppedEvents());
+      Files.delete(file);
+    }
+  }
+
+  @Benchmark
+  public GameState tick() {
+    engine.requestDirection(state, BenchmarkFixtures.cycleDirection(state.getSnake().getHead()));
+    engine.tick(state);
+    return state;
+  }
+}
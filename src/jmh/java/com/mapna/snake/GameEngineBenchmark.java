@@ -0,0 +1,69 @@
+package com.mapna.snake;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEngineBenchmark {
+
+  @State(Scope.Thread)
+  public static class TickState {
+    @Param({"3", "50", "200", "390"})
+    public int snakeLength;
+
+    GameEngine engine;
+    GameState state;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      engine = new GameEngine(new Random(42L));
+      state = BenchmarkFixtures.runningState(BenchmarkFixtures.cycleSnake(snakeLength));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class SpawnState {
+    /** Share of the board covered by the snake. */
+    @Param({"0.5", "0.9", "0.99"})
+    public double fill;
+
+    GameEngine engine;
+    GameState state;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      engine = new GameEngine(new Random(42L));
+      int length = Math.min(BenchmarkFixtures.CELLS - 1, (int) (BenchmarkFixtures.CELLS * fill));
+      state = BenchmarkFixtures.runningState(BenchmarkFixtures.cycleSnake(length));
+    }
+  }
+
+  @Benchmark
+  public GameState tick(TickState s) {
+    s.engine.requestDirection(s.state, BenchmarkFixtures.cycleDirection(s.state.getSnake().getHead()));
+    s.engine.tick(s.state);
+    return s.state;
+  }
+
+  @Benchmark
+  public Position spawnFood(SpawnState s) {
+    s.engine.spawnFood(s.state);
+    return s.state.getFood();
+  }
+}
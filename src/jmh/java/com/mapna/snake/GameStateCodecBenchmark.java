@@ -0,0 +1,66 @@
+package com.mapna.snake;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Snapshots per second for {@link GameStateCodec}; the {@code bytes} column is the size of one snapshot. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateCodecBenchmark {
+  @Param({"3", "50", "200", "390"})
+  public int snakeLength;
+
+  private GameState state;
+  private final GameState restored = new GameState();
+  private ByteBuffer buffer;
+  private ByteBuffer encoded;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    state = BenchmarkFixtures.runningState(BenchmarkFixtures.cycleSnake(snakeLength));
+    buffer = ByteBuffer.allocateDirect(GameStateCodec.encodedSize(state));
+    encoded = ByteBuffer.allocateDirect(GameStateCodec.encodedSize(state));
+    GameStateCodec.encode(state, encoded);
+    encoded.flip();
+  }
+
+  /** Reports the snapshot size alongside the throughput score. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Size {
+    public long bytes;
+  }
+
+  @Benchmark
+  public ByteBuffer encode(Size size) {
+    buffer.clear();
+    GameStateCodec.encode(state, buffer);
+    size.bytes = buffer.position();
+    return buffer;
+  }
+
+  @Benchmark
+  public GameState decode(Size size) {
+    encoded.rewind();
+    GameStateCodec.decodeInto(encoded, restored);
+    size.bytes = encoded.position();
+    return restored;
+  }
+}
@@ -0,0 +1,79 @@
+package com.mapna.snake;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of finding what lies under the head as items pile up on a 1000x1000 board: raw
+ * {@link ItemMap} lookups at random cells, and a full tick of a snake running up a column the
+ * items keep clear of.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemBenchmark {
+  private static final int SIZE = 1000;
+  private static final int PROBES = 1024;
+
+  @Param({"1", "10000"})
+  public int items;
+
+  private final int[] probes = new int[PROBES];
+  private GameEngine engine;
+  private GameState state;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    BoardConfig config = BoardConfig.of(SIZE, SIZE);
+    engine = new GameEngine(config, new Random(42L));
+    state = new GameState();
+    state.setSnake(Snake.createFixed(config, 0, 0));
+    state.setFood(BenchmarkFixtures.UNREACHABLE_FOOD);
+    state.setMode(GameMode.RUNNING);
+    Random random = new Random(7L);
+    ItemType[] types = ItemType.values();
+    while (state.getItems().size() < items) {
+      int cell = random.nextInt(SIZE * SIZE);
+      if (cell % SIZE != 0) {
+        state.getItems().put(cell, types[random.nextInt(types.length)]);
+      }
+    }
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = random.nextInt(SIZE * SIZE);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public int lookup() {
+    ItemMap map = state.getItems();
+    int found = 0;
+    for (int cell : probes) {
+      found += map.typeAt(cell) != null ? 1 : 0;
+    }
+    return found;
+  }
+
+  @Benchmark
+  public GameState tick() {
+    engine.tick(state);
+    state.getChanges().clear();
+    return state;
+  }
+}
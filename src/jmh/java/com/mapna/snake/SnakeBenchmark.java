@@ -0,0 +1,58 @@
+package com.mapna.snake;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnakeBenchmark {
+  @Param({"3", "50", "200", "390"})
+  public int snakeLength;
+
+  private Snake snake;
+  private Position probeHit;
+  private Position probeMiss;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    snake = BenchmarkFixtures.cycleSnake(snakeLength);
+    probeHit = snake.getBody().get(snakeLength / 2);
+    probeMiss = BenchmarkFixtures.nextOnCycle(snake);
+  }
+
+  @Benchmark
+  public Snake move() {
+    snake.move(BenchmarkFixtures.nextOnCycle(snake), false);
+    return snake;
+  }
+
+  @Benchmark
+  public boolean containsHit() {
+    return snake.contains(probeHit);
+  }
+
+  @Benchmark
+  public boolean containsMiss() {
+    return snake.contains(probeMiss);
+  }
+
+  @Benchmark
+  public boolean eatingSelf() {
+    return snake.eatingSelf();
+  }
+}
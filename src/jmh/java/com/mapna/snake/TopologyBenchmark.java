@@ -0,0 +1,112 @@
+package com.mapna.snake;
+
+import com.mapna.snake.solver.Autopilot;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of moving on each {@link Topology}: a chain of neighbour lookups along a random walk,
+ * the same walk with the modulo arithmetic {@link Snake#nextHead} used before the tables,
+ * and one pathfinding decision from the top-left corner to food in the far corner.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TopologyBenchmark {
+  private static final int STEPS = 1024;
+
+  @Param({"torus", "walled", "masked"})
+  public String topology;
+
+  private final int[] directions = new int[STEPS];
+  private Topology board;
+  private GameState state;
+  private Autopilot autopilot;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    int width = BenchmarkFixtures.WIDTH;
+    int height = BenchmarkFixtures.HEIGHT;
+    board = switch (topology) {
+      case "torus" -> Topology.torus(width, height);
+      case "walled" -> Topology.walled(width, height);
+      case "masked" -> Topology.walled(width, height).withMask(barriers(width, height));
+      default -> throw new IllegalArgumentException("Unknown topology: " + topology);
+    };
+    Random random = new Random(1L);
+    for (int i = 0; i < STEPS; i++) {
+      directions[i] = random.nextInt(4);
+    }
+
+    state = new GameState();
+    state.setSnake(Snake.createFixed(BoardConfig.of(width, height), 1, 1));
+    state.setDirection(Direction.UP);
+    state.setFood(Position.of(width - 2, height - 2));
+    state.setMode(GameMode.RUNNING);
+    autopilot = Autopilot.pathfinding(board);
+  }
+
+  /** Walks a random route, stepping back to the start cell whenever a move hits a wall. */
+  @Benchmark
+  @OperationsPerInvocation(STEPS)
+  public int neighbour() {
+    int start = board.columns() + 1;
+    int cell = start;
+    for (int direction : directions) {
+      int next = board.neighbour(cell, direction);
+      cell = next == Topology.WALL ? start : next;
+    }
+    return cell;
+  }
+
+  /** The same walk on a torus with division and modulo per step, as a baseline for the tables. */
+  @Benchmark
+  @OperationsPerInvocation(STEPS)
+  public int modulo() {
+    int width = board.columns();
+    int height = board.rows();
+    int cell = width + 1;
+    for (int direction : directions) {
+      int x = cell % width;
+      int y = cell / width;
+      cell = switch (direction) {
+        case 0 -> (y + 1) % height * width + x;
+        case 1 -> (y - 1 + height) % height * width + x;
+        case 2 -> y * width + (x - 1 + width) % width;
+        default -> y * width + (x + 1) % width;
+      };
+    }
+    return cell;
+  }
+
+  @Benchmark
+  public Direction pathfinding() {
+    return autopilot.choose(state);
+  }
+
+  /** Two horizontal walls with a gap at each end, so the far corner stays reachable. */
+  private static Bitboard barriers(int width, int height) {
+    Bitboard walls = new Bitboard(width, height);
+    for (int x = 3; x < width - 3; x++) {
+      walls.set(x, height / 3);
+      walls.set(x, 2 * height / 3);
+    }
+    return walls;
+  }
+}
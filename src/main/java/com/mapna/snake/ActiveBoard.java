@@ -0,0 +1,143 @@
+package com.mapna.snake;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferStrategy;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+
+/**
+ * Canvas driven by a {@link GameLoop} on its own thread, rendering through a page-flipped
+ * {@link BufferStrategy} instead of Swing repaints. With a separate render thread, the loop
+ * only simulates and publishes {@link Frame}s, and the render thread paints the latest one.
+ */
+public class ActiveBoard extends Canvas {
+  /** How often the render thread looks for a new frame. */
+  private static final long RENDER_POLL_NANOS = GameLoop.FRAME_NANOS / 8;
+  private final transient BoardRenderer renderer;
+  private final transient GameState state = new GameState();
+  private final transient GameLoop loop;
+  private final transient GameMetrics metrics = GameMetrics.global();
+  private final transient FrameBuffer frames;
+  private transient Thread loopThread;
+  private transient Thread renderThread;
+  private volatile boolean rendering;
+
+  public ActiveBoard(BoardConfig config) {
+    this(config, false);
+  }
+
+  /** @param renderThread paint published frames on a render thread instead of the loop thread */
+  public ActiveBoard(BoardConfig config, boolean renderThread) {
+    this(config, renderThread, null);
+  }
+
+  /**
+   * @param renderThread paint published frames on a render thread instead of the loop thread
+   * @param events bus for the engine's events, dispatched on the loop thread, or null for none
+   */
+  public ActiveBoard(BoardConfig config, boolean renderThread, EventBus events) {
+    this.renderer = new BoardRenderer(config);
+    GameEngine engine = new GameEngine(config, new Random());
+    engine.setEvents(events);
+    this.loop = new GameLoop(config, engine, state,
+        new AsyncHighScoreStore(BoardConfig.HIGHSCORE_FILE).closeOnShutdown(), () -> render(null),
+        () -> SwingUtilities.invokeLater(() -> SwingUtilities.getWindowAncestor(this).dispose()),
+        metrics);
+    this.frames = renderThread ? new FrameBuffer() : null;
+    if (frames != null) {
+      loop.publishTo(frames);
+    }
+    setPreferredSize(new Dimension(config.boardWidth(), config.componentHeight()));
+    setBackground(Color.BLACK);
+    setIgnoreRepaint(true);
+    setFocusable(true);
+    addKeyListener(new KeyAdapter() {
+      @Override
+      public void keyPressed(KeyEvent e) {
+        loop.post(e.getKeyCode());
+      }
+    });
+  }
+
+  @Override
+  public void addNotify() {
+    super.addNotify();
+    createBufferStrategy(2);
+    loopThread = new Thread(loop, "snake-game-loop");
+    loopThread.setDaemon(true);
+    loopThread.start();
+    if (frames != null) {
+      rendering = true;
+      renderThread = new Thread(this::renderLoop, "snake-render");
+      renderThread.setDaemon(true);
+      renderThread.start();
+    }
+  }
+
+  @Override
+  public void removeNotify() {
+    loop.stop();
+    rendering = false;
+    join(loopThread);
+    join(renderThread);
+    super.removeNotify();
+  }
+
+  private static void join(Thread thread) {
+    if (thread != null && thread != Thread.currentThread()) {
+      try {
+        thread.join(1_000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Paints each newly published frame once; never touches the loop's state. */
+  private void renderLoop() {
+    long painted = 0;
+    while (rendering) {
+      Frame frame = frames.latest();
+      if (frame.sequence() != painted) {
+        long paintStart = System.nanoTime();
+        render(frame);
+        metrics.paintFinished(paintStart);
+        painted = frame.sequence();
+      }
+      LockSupport.parkNanos(RENDER_POLL_NANOS);
+    }
+  }
+
+  /** Paints {@code frame}, or the loop's state when called by the loop itself with null. */
+  private void render(Frame frame) {
+    BufferStrategy strategy = getBufferStrategy();
+    if (strategy == null) {
+      return;
+    }
+    do {
+      do {
+        Graphics g = strategy.getDrawGraphics();
+        try {
+          g.setColor(Color.BLACK);
+          g.fillRect(0, 0, getWidth(), getHeight());
+          if (frame != null) {
+            renderer.paint(g, frame);
+          } else {
+            renderer.paint(g, state);
+          }
+        } finally {
+          g.dispose();
+        }
+      } while (strategy.contentsRestored());
+      strategy.show();
+    } while (strategy.contentsLost());
+    Toolkit.getDefaultToolkit().sync();
+  }
+}
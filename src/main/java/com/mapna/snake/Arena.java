@@ -0,0 +1,433 @@
+package com.mapna.snake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Many snakes on one torus board, all moving in the same tick.
+ *
+ * <p>The board is a shared owner grid ({@code snake + 1} per cell, 0 when empty) plus a food
+ * grid. A tick runs in phases over chunks of snakes, spread over a thread pool:
+ * <ol>
+ *   <li>propose: each snake picks a direction and claims its next cell with a CAS; a cell
+ *       claimed twice is marked contested,</li>
+ *   <li>resolve: a snake dies on a contested cell (head-to-head) or on a cell that stays
+ *       occupied after this tick (head-to-body); tails of snakes that are not growing count as
+ *       free,</li>
+ *   <li>vacate: dying snakes clear their bodies and moving snakes clear their tails,</li>
+ *   <li>advance: survivors write their new heads and eat food.</li>
+ * </ol>
+ * Each phase only reads what earlier phases wrote, and within a phase every snake writes cells
+ * no other snake writes, so the grid needs no locks. Resolution only uses the state at the start
+ * of the tick, which keeps the outcome independent of the thread count. Food eaten in a tick
+ * and, when enabled, dead snakes are respawned sequentially afterwards from the arena's seed.
+ */
+public final class Arena implements AutoCloseable {
+  private static final int INITIAL_LENGTH = 3;
+  private static final int PARALLEL_THRESHOLD = 64;
+  private static final int CHUNKS_PER_THREAD = 4;
+  private static final int CONTESTED = -1;
+  private static final int RANDOM_ATTEMPTS = 64;
+  private final int width;
+  private final int height;
+  private final Topology topology;
+  private final int[] owners;
+  private final boolean[] food;
+  private final AtomicIntegerArray claims;
+  private final ArenaSnake[] snakes;
+  private final int foodTarget;
+  private final Random random;
+  private final ExecutorService pool;
+  private final List<List<Callable<Void>>> phases = new ArrayList<>();
+  private ArenaPolicy policy;
+  private boolean respawn;
+  private int foodCount;
+  private int alive;
+  private long ticks;
+  private long deaths;
+
+  /**
+   * Creates an arena with {@code snakeCount} snakes and {@code foodCount} food items placed from
+   * {@code seed}; ticks run on {@code threads} threads.
+   */
+  public Arena(BoardConfig config, int snakeCount, int foodCount, long seed, int threads) {
+    this.width = config.columns();
+    this.height = config.rows();
+    this.topology = Topology.torus(width, height);
+    int cells = config.cellCount();
+    if ((long) snakeCount * INITIAL_LENGTH + foodCount > cells / 2) {
+      throw new IllegalArgumentException("Board too small for " + snakeCount + " snakes and " + foodCount + " food");
+    }
+    this.owners = new int[cells];
+    this.food = new boolean[cells];
+    this.claims = new AtomicIntegerArray(cells);
+    this.snakes = new ArenaSnake[snakeCount];
+    this.foodTarget = foodCount;
+    this.random = new Random(seed);
+    for (int i = 0; i < snakeCount; i++) {
+      snakes[i] = new ArenaSnake();
+      spawn(i);
+    }
+    spawnFood();
+
+    boolean parallel = threads > 1 && snakeCount >= PARALLEL_THRESHOLD;
+    this.pool = parallel ? Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = new Thread(r, "snake-arena-worker");
+      thread.setDaemon(true);
+      return thread;
+    }) : null;
+    int chunks = parallel ? Math.min(snakeCount, threads * CHUNKS_PER_THREAD) : 1;
+    phases.add(chunked(chunks, this::propose));
+    phases.add(chunked(chunks, this::resolve));
+    phases.add(chunked(chunks, this::vacate));
+    phases.add(chunked(chunks, this::advance));
+  }
+
+  /** Dead snakes come back on a random free cell at the end of the tick. */
+  public void setRespawn(boolean respawn) {
+    this.respawn = respawn;
+  }
+
+  public int columns() {
+    return width;
+  }
+
+  public int rows() {
+    return height;
+  }
+
+  public int snakeCount() {
+    return snakes.length;
+  }
+
+  public int aliveCount() {
+    return alive;
+  }
+
+  public long ticks() {
+    return ticks;
+  }
+
+  public long deaths() {
+    return deaths;
+  }
+
+  public int foodCount() {
+    return foodCount;
+  }
+
+  public boolean isAlive(int snake) {
+    return snakes[snake].alive;
+  }
+
+  public int length(int snake) {
+    return snakes[snake].length;
+  }
+
+  public Direction direction(int snake) {
+    return snakes[snake].direction;
+  }
+
+  /** Packed head cell ({@code y * columns + x}). */
+  public int head(int snake) {
+    ArenaSnake s = snakes[snake];
+    return s.cells[s.headIndex];
+  }
+
+  /** Packed cell the snake's head would enter moving in {@code direction}. */
+  public int nextCell(int snake, Direction direction) {
+    return topology.neighbour(head(snake), direction);
+  }
+
+  public boolean isOccupied(int cell) {
+    return owners[cell] != 0;
+  }
+
+  /** Snake covering the cell, or -1. */
+  public int ownerAt(int cell) {
+    return owners[cell] - 1;
+  }
+
+  public boolean hasFood(int cell) {
+    return food[cell];
+  }
+
+  /** Turns a snake; reversing onto its own neck is ignored. */
+  public void steer(int snake, Direction requested) {
+    ArenaSnake s = snakes[snake];
+    if (!s.direction.isOpposite(requested)) {
+      s.direction = requested;
+    }
+  }
+
+  /** Advances every snake one step; {@code policy} may be null to keep current directions. */
+  public void tick(ArenaPolicy tickPolicy) {
+    policy = tickPolicy;
+    for (List<Callable<Void>> phase : phases) {
+      run(phase);
+    }
+    policy = null;
+    int eaten = 0;
+    for (int i = 0; i < snakes.length; i++) {
+      ArenaSnake s = snakes[i];
+      if (s.ate) {
+        eaten++;
+        s.ate = false;
+      }
+      if (s.dying) {
+        s.dying = false;
+        s.alive = false;
+        alive--;
+        deaths++;
+      }
+    }
+    foodCount -= eaten;
+    if (respawn) {
+      for (int i = 0; i < snakes.length; i++) {
+        if (!snakes[i].alive) {
+          spawn(i);
+        }
+      }
+    }
+    spawnFood();
+    ticks++;
+  }
+
+  /** Replaces a snake's body with {@code cells}, head first; for setting up exact positions. */
+  void place(int snake, Direction direction, int... cells) {
+    ArenaSnake s = snakes[snake];
+    if (s.alive) {
+      for (int k = 0; k < s.length; k++) {
+        owners[s.cells[(s.headIndex + k) & (s.cells.length - 1)]] = 0;
+      }
+    } else {
+      s.alive = true;
+      alive++;
+    }
+    s.length = 0;
+    s.headIndex = 0;
+    for (int k = cells.length - 1; k >= 0; k--) {
+      s.push(cells[k]);
+      owners[cells[k]] = snake + 1;
+    }
+    s.pendingGrowth = 0;
+    s.direction = direction;
+  }
+
+  void putFood(int cell) {
+    if (!food[cell]) {
+      food[cell] = true;
+      foodCount++;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+  }
+
+  private void propose(int from, int to) {
+    ArenaPolicy current = policy;
+    for (int i = from; i < to; i++) {
+      ArenaSnake s = snakes[i];
+      if (!s.alive) {
+        continue;
+      }
+      if (current != null) {
+        steer(i, current.choose(this, i));
+      }
+      int cell = nextCell(i, s.direction);
+      s.proposed = cell;
+      s.growing = s.pendingGrowth > 0 || food[cell];
+      if (claims.compareAndExchange(cell, 0, i + 1) != 0) {
+        claims.set(cell, CONTESTED);
+      }
+    }
+  }
+
+  private void resolve(int from, int to) {
+    for (int i = from; i < to; i++) {
+      ArenaSnake s = snakes[i];
+      if (!s.alive) {
+        continue;
+      }
+      int cell = s.proposed;
+      if (claims.get(cell) == CONTESTED) {
+        s.dying = true;
+        continue;
+      }
+      int occupant = owners[cell] - 1;
+      if (occupant >= 0) {
+        ArenaSnake other = snakes[occupant];
+        s.dying = other.growing || other.tail() != cell;
+      }
+    }
+  }
+
+  private void vacate(int from, int to) {
+    for (int i = from; i < to; i++) {
+      ArenaSnake s = snakes[i];
+      if (!s.alive) {
+        continue;
+      }
+      if (s.dying) {
+        for (int k = 0; k < s.length; k++) {
+          owners[s.cells[(s.headIndex + k) & (s.cells.length - 1)]] = 0;
+        }
+      } else if (!s.growing) {
+        owners[s.tail()] = 0;
+        s.length--;
+      }
+    }
+  }
+
+  private void advance(int from, int to) {
+    for (int i = from; i < to; i++) {
+      ArenaSnake s = snakes[i];
+      if (!s.alive) {
+        continue;
+      }
+      int cell = s.proposed;
+      claims.set(cell, 0);
+      if (s.dying) {
+        continue;
+      }
+      s.push(cell);
+      owners[cell] = i + 1;
+      if (food[cell]) {
+        food[cell] = false;
+        s.ate = true;
+        s.pendingGrowth++;
+      }
+      if (s.growing) {
+        s.pendingGrowth--;
+      }
+    }
+  }
+
+  /** Places a snake as one cell that grows to full length over its first moves. */
+  private void spawn(int snake) {
+    int cell = randomFreeCell();
+    if (cell < 0) {
+      return;
+    }
+    ArenaSnake s = snakes[snake];
+    s.length = 0;
+    s.headIndex = 0;
+    s.push(cell);
+    s.pendingGrowth = INITIAL_LENGTH - 1;
+    s.direction = Direction.values()[random.nextInt(4)];
+    s.alive = true;
+    owners[cell] = snake + 1;
+    alive++;
+  }
+
+  private void spawnFood() {
+    while (foodCount < foodTarget) {
+      int cell = randomFreeCell();
+      if (cell < 0) {
+        return;
+      }
+      food[cell] = true;
+      foodCount++;
+    }
+  }
+
+  /** Random empty cell, or -1 when the board is full. */
+  private int randomFreeCell() {
+    for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+      int cell = random.nextInt(owners.length);
+      if (owners[cell] == 0 && !food[cell]) {
+        return cell;
+      }
+    }
+    int start = random.nextInt(owners.length);
+    for (int k = 0; k < owners.length; k++) {
+      int cell = (start + k) % owners.length;
+      if (owners[cell] == 0 && !food[cell]) {
+        return cell;
+      }
+    }
+    return -1;
+  }
+
+  private void run(List<Callable<Void>> phase) {
+    if (pool == null) {
+      try {
+        phase.get(0).call();
+      } catch (Exception e) {
+        throw new IllegalStateException("Arena tick failed", e);
+      }
+      return;
+    }
+    try {
+      for (Future<Void> done : pool.invokeAll(phase)) {
+        done.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Arena tick interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Arena tick failed", e.getCause());
+    }
+  }
+
+  private List<Callable<Void>> chunked(int chunks, RangeAction action) {
+    List<Callable<Void>> tasks = new ArrayList<>(chunks);
+    for (int c = 0; c < chunks; c++) {
+      int from = (int) ((long) snakes.length * c / chunks);
+      int to = (int) ((long) snakes.length * (c + 1) / chunks);
+      tasks.add(() -> {
+        action.run(from, to);
+        return null;
+      });
+    }
+    return List.copyOf(tasks);
+  }
+
+  @FunctionalInterface
+  private interface RangeAction {
+    void run(int from, int to);
+  }
+
+  /** Body ring buffer and per-tick scratch for one arena snake. */
+  private static final class ArenaSnake {
+    private int[] cells = new int[16];
+    private int headIndex;
+    private int length;
+    private int pendingGrowth;
+    private Direction direction = Direction.UP;
+    private boolean alive;
+    private int proposed;
+    private boolean growing;
+    private boolean dying;
+    private boolean ate;
+
+    int tail() {
+      return cells[(headIndex + length - 1) & (cells.length - 1)];
+    }
+
+    void push(int cell) {
+      if (length == cells.length) {
+        int[] grown = new int[cells.length << 1];
+        for (int i = 0; i < length; i++) {
+          grown[i] = cells[(headIndex + i) & (cells.length - 1)];
+        }
+        cells = grown;
+        headIndex = 0;
+      }
+      headIndex = (headIndex - 1) & (cells.length - 1);
+      cells[headIndex] = cell;
+      length++;
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.mapna.snake;
+
+/**
+ * Chooses a snake's direction in an {@link Arena}. Called from several threads at once during
+ * the propose phase, so implementations must only read the arena.
+ */
+@FunctionalInterface
+public interface ArenaPolicy {
+  Direction choose(Arena arena, int snake);
+
+  /** Keeps going straight unless the next cell is taken, then tries the two turns. */
+  static ArenaPolicy avoiding() {
+    return (arena, snake) -> {
+      Direction current = arena.direction(snake);
+      if (!arena.isOccupied(arena.nextCell(snake, current))) {
+        return current;
+      }
+      for (Direction turn : Direction.values()) {
+        if (turn != current && !turn.isOpposite(current) && !arena.isOccupied(arena.nextCell(snake, turn))) {
+          return turn;
+        }
+      }
+      return current;
+    };
+  }
+}
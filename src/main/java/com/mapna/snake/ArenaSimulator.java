@@ -0,0 +1,58 @@
+package com.mapna.snake;
+
+/**
+ * Runs one shared {@link Arena} headlessly and reports how long its ticks take against the
+ * board's tick budget, to size how many snakes an arena can hold at a fixed tick rate.
+ */
+public final class ArenaSimulator {
+
+  private ArenaSimulator() {
+  }
+
+  public static void main(String[] args) {
+    int snakes = 500;
+    int food = 500;
+    int columns = 400;
+    int rows = 400;
+    int ticks = 2_000;
+    int threads = Runtime.getRuntime().availableProcessors();
+    long seed = 1L;
+    for (String arg : args) {
+      String[] kv = arg.split("=", 2);
+      String value = kv.length > 1 ? kv[1] : "";
+      switch (kv[0]) {
+        case "--snakes" -> snakes = Integer.parseInt(value);
+        case "--food" -> food = Integer.parseInt(value);
+        case "--columns" -> columns = Integer.parseInt(value);
+        case "--rows" -> rows = Integer.parseInt(value);
+        case "--ticks" -> ticks = Integer.parseInt(value);
+        case "--threads" -> threads = Integer.parseInt(value);
+        case "--seed" -> seed = Long.parseLong(value);
+        default -> {
+          System.err.println("Usage: ArenaSimulator [--snakes=N] [--food=F] [--columns=W] [--rows=H] [--ticks=T]"
+              + " [--threads=K] [--seed=S]");
+          System.exit(2);
+        }
+      }
+    }
+    BoardConfig config = BoardConfig.of(columns, rows);
+    LatencyHistogram tickNanos = new LatencyHistogram();
+    ArenaPolicy policy = ArenaPolicy.avoiding();
+    try (Arena arena = new Arena(config, snakes, food, seed, threads)) {
+      arena.setRespawn(true);
+      long start = System.nanoTime();
+      for (int t = 0; t < ticks; t++) {
+        long tickStart = System.nanoTime();
+        arena.tick(policy);
+        tickNanos.record(System.nanoTime() - tickStart);
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      LatencySnapshot snapshot = tickNanos.snapshot(1e6);
+      System.out.printf("%d snakes on %dx%d, %d threads: %d ticks in %.2f s (%.0f ticks/s, %d deaths)%n",
+          snakes, columns, rows, threads, ticks, seconds, ticks / seconds, arena.deaths());
+      System.out.printf("tick ms p50/p90/p99/max: %.3f/%.3f/%.3f/%.3f against a %d ms budget%n",
+          snapshot.getP50(), snapshot.getP90(), snapshot.getP99(), snapshot.getMax(), config.delayMs(0));
+    }
+  }
+}
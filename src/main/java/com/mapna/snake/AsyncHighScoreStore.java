@@ -0,0 +1,93 @@
+package com.mapna.snake;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind high score store: the file is read once, answers come from memory, and new
+ * highs are written on a background thread. Saves that arrive while a write is pending are
+ * coalesced into one write of the latest value, made through a {@link LockingHighScoreStore} so
+ * other processes sharing the file cannot lose it. {@link #close()} flushes outstanding writes.
+ */
+public class AsyncHighScoreStore implements HighScoreStore, AutoCloseable {
+  private static final int NONE = Integer.MIN_VALUE;
+  private final LockingHighScoreStore file;
+  private final AtomicInteger cached;
+  private final AtomicInteger pending = new AtomicInteger(NONE);
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final AtomicInteger writes = new AtomicInteger();
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "snake-highscore-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public AsyncHighScoreStore(String fileName) {
+    this.file = new LockingHighScoreStore(fileName);
+    this.cached = new AtomicInteger(file.load());
+  }
+
+  /** Flushes pending writes when the JVM exits; returns this store. */
+  public AsyncHighScoreStore closeOnShutdown() {
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close, "snake-highscore-flush"));
+    return this;
+  }
+
+  @Override
+  public int load() {
+    return cached.get();
+  }
+
+  @Override
+  public int saveIfHigher(int score) {
+    int previous = cached.getAndAccumulate(score, Math::max);
+    if (score <= previous) {
+      return previous;
+    }
+    pending.accumulateAndGet(score, Math::max);
+    if (scheduled.compareAndSet(false, true)) {
+      writer.execute(this::writePending);
+    }
+    return score;
+  }
+
+  /** Blocks until every save made so far has reached the disk. */
+  public void flush() {
+    try {
+      writer.submit(this::writePending).get(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      System.err.println("Failed to flush high score: " + e);
+    } catch (RejectedExecutionException e) {
+      // Already closed; the final flush has happened.
+    }
+  }
+
+  @Override
+  public void close() {
+    flush();
+    writer.shutdown();
+  }
+
+  int writeCount() {
+    return writes.get();
+  }
+
+  private void writePending() {
+    scheduled.set(false);
+    int value = pending.getAndSet(NONE);
+    if (value == NONE) {
+      return;
+    }
+    // Another process may have saved a higher score in the meantime; adopt it.
+    cached.accumulateAndGet(file.saveIfHigher(value), Math::max);
+    writes.incrementAndGet();
+  }
+}
@@ -0,0 +1,130 @@
+package com.mapna.snake;
+
+import java.util.Arrays;
+
+/**
+ * One bit per board cell, each row packed into its own run of {@code long} words so a row
+ * starts on a word boundary. Single cells are one shift and mask; whole-board queries walk
+ * words with {@link Long#bitCount} and {@link Long#numberOfTrailingZeros} instead of cells.
+ * Results are packed cell indices ({@code y * columns + x}), like the rest of the model.
+ */
+public final class Bitboard {
+  private final int columns;
+  private final int rows;
+  private final int wordsPerRow;
+  /** Valid bits of each row's last word; padding past the last column is always zero. */
+  private final long lastWordMask;
+  private final long[] words;
+
+  public Bitboard(int columns, int rows) {
+    if (columns <= 0 || rows <= 0) {
+      throw new IllegalArgumentException("Board must be at least 1x1: " + columns + "x" + rows);
+    }
+    this.columns = columns;
+    this.rows = rows;
+    this.wordsPerRow = (columns + 63) >>> 6;
+    this.lastWordMask = (columns & 63) == 0 ? -1L : (1L << columns) - 1;
+    this.words = new long[Math.multiplyExact(wordsPerRow, rows)];
+  }
+
+  public int columns() {
+    return columns;
+  }
+
+  public int rows() {
+    return rows;
+  }
+
+  /** Words per row, as stored; {@link Level} files use the same packing. */
+  int wordsPerRow() {
+    return wordsPerRow;
+  }
+
+  /** Word {@code column} of row {@code y}. */
+  long word(int y, int column) {
+    return words[y * wordsPerRow + column];
+  }
+
+  public boolean get(int x, int y) {
+    return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+  }
+
+  /** Sets the cell; returns false if it was already set. */
+  public boolean set(int x, int y) {
+    int i = y * wordsPerRow + (x >>> 6);
+    long bit = 1L << x;
+    if ((words[i] & bit) != 0) {
+      return false;
+    }
+    words[i] |= bit;
+    return true;
+  }
+
+  /** Clears the cell; returns false if it was already clear. */
+  public boolean clear(int x, int y) {
+    int i = y * wordsPerRow + (x >>> 6);
+    long bit = 1L << x;
+    if ((words[i] & bit) == 0) {
+      return false;
+    }
+    words[i] &= ~bit;
+    return true;
+  }
+
+  public void clearAll() {
+    Arrays.fill(words, 0);
+  }
+
+  /** Number of set cells. */
+  public int count() {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /** Number of set cells in row {@code y}. */
+  public int countRow(int y) {
+    int count = 0;
+    for (int i = y * wordsPerRow, end = i + wordsPerRow; i < end; i++) {
+      count += Long.bitCount(words[i]);
+    }
+    return count;
+  }
+
+  /** First set cell at or after {@code (x, y)} in row-major order, wrapping past the end; -1 if none. */
+  public int nextSet(int x, int y) {
+    return next(x, y, 0L);
+  }
+
+  /** First clear cell at or after {@code (x, y)} in row-major order, wrapping past the end; -1 if none. */
+  public int nextClear(int x, int y) {
+    return next(x, y, -1L);
+  }
+
+  /** Scans words XOR {@code flip}, so set bits are the cells being looked for. */
+  private int next(int x, int y, long flip) {
+    int column = x >>> 6;
+    long word = (words[y * wordsPerRow + column] ^ flip) & mask(column) & (-1L << x);
+    int row = y;
+    // One pass over every word, then the start word again for the bits before x.
+    for (int step = 0; step <= words.length; step++) {
+      if (word != 0) {
+        return row * columns + (column << 6) + Long.numberOfTrailingZeros(word);
+      }
+      if (++column == wordsPerRow) {
+        column = 0;
+        if (++row == rows) {
+          row = 0;
+        }
+      }
+      word = (words[row * wordsPerRow + column] ^ flip) & mask(column);
+    }
+    return -1;
+  }
+
+  private long mask(int column) {
+    return column == wordsPerRow - 1 ? lastWordMask : -1L;
+  }
+}
@@ -3,72 +3,219 @@ package com.mapna.snake;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
 public class Board extends JPanel implements ActionListener {
-  private final Timer timer = new Timer(BoardConfig.TICK_RATE_MS, this);
-  private final GameEngine engine = new GameEngine();
+  /** System property naming a directory to write a replay of every finished game into. */
+  public static final String REPLAY_DIR_PROPERTY = "snake.replay.dir";
+  private final BoardConfig config;
+  private final EventBus events;
+  private final Timer timer;
+  private final Random seeds = new Random();
+  private final GameMetrics metrics = GameMetrics.global();
+  private long lastTickNanos;
+  private ReplayRecorder recorder;
   private final GameState state = new GameState();
-  private final BoardRenderer renderer = new BoardRenderer();
-  private final HighScoreStore highScoreStore = new FileHighScoreStore(BoardConfig.HIGHSCORE_FILE);
+  private final BoardRenderer renderer;
+  private final RenderMode renderMode;
+  private final BufferedImage backBuffer;
+  private final Graphics2D backGraphics;
+  private final AsyncHighScoreStore highScoreStore = new AsyncHighScoreStore(BoardConfig.HIGHSCORE_FILE);
+  private final ExecutorService replayWriter = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "snake-replay-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+  /** Flushes this board's writers if the JVM exits while it is still showing; removed in {@link #removeNotify}. */
+  private final Thread flushOnExit = new Thread(this::flushWriters, "snake-board-flush");
   private boolean highScoreSaved;
 
   public Board() {
+    this(BoardConfig.DEFAULT, RenderMode.INCREMENTAL, null);
+  }
+
+  public Board(BoardConfig config, RenderMode renderMode) {
+    this(config, renderMode, null);
+  }
+
+  /** @param events bus for the engine's events, dispatched on the EDT, or null for none */
+  public Board(BoardConfig config, RenderMode renderMode, EventBus events) {
+    this.config = config;
+    this.events = events;
+    this.timer = new Timer(config.tickRateMs(), this);
+    this.renderer = new BoardRenderer(config);
+    this.renderMode = renderMode;
+    if (renderMode == RenderMode.INCREMENTAL) {
+      backBuffer = new BufferedImage(config.boardWidth(), config.componentHeight(), BufferedImage.TYPE_INT_RGB);
+      backGraphics = backBuffer.createGraphics();
+    } else {
+      backBuffer = null;
+      backGraphics = null;
+    }
     addKeyListener(new DirectionAdapter());
-    setPreferredSize(new Dimension(BoardConfig.BOARD_WIDTH, BoardConfig.COMPONENT_HEIGHT));
+    setPreferredSize(new Dimension(config.boardWidth(), config.componentHeight()));
     setBackground(Color.BLACK);
     setFocusable(true);
+    Runtime.getRuntime().addShutdownHook(flushOnExit);
 
     initBoard();
   }
 
   private void initBoard() {
-    engine.reset(state);
+    recorder = new ReplayRecorder(config, seeds.nextLong());
+    recorder.engine().setInputLatency(metrics.inputToMoveNanos());
+    recorder.engine().setEvents(events);
+    recorder.reset(state);
     state.setHighScore(highScoreStore.load());
     highScoreSaved = false;
-    timer.setDelay(BoardConfig.TICK_RATE_MS);
+    timer.setDelay(config.tickRateMs());
     timer.start();
+    lastTickNanos = 0;
+    present();
   }
 
   @Override
   public void actionPerformed(ActionEvent e) {
-    engine.tick(state);
-    timer.setDelay(BoardConfig.tickRateMs(state.getSnake().growth()));
+    long now = System.nanoTime();
+    if (lastTickNanos != 0) {
+      long expected = TimeUnit.MILLISECONDS.toNanos(timer.getDelay());
+      metrics.ticksMissed((now - lastTickNanos) / expected - 1);
+    }
+    lastTickNanos = now;
+    long tickStart = metrics.tickStarted();
+    recorder.tick(state);
+    metrics.tickFinished(tickStart);
+    timer.setDelay(state.tickDelayMs(config));
     if (state.getMode() == GameMode.PAUSED || state.getMode() == GameMode.GAME_OVER || state.getMode() == GameMode.WON) {
       timer.stop();
     }
     if ((state.getMode() == GameMode.GAME_OVER || state.getMode() == GameMode.WON) && !highScoreSaved) {
+      long saveStart = System.nanoTime();
       state.setHighScore(highScoreStore.saveIfHigher(state.getSnake().growth()));
+      metrics.highScoreSaved(saveStart);
       highScoreSaved = true;
+      saveReplay();
     }
-    repaint();
+    present();
+  }
+
+  /** Copies the recording on the EDT and writes it to disk on the replay writer thread. */
+  private void saveReplay() {
+    String dir = System.getProperty(REPLAY_DIR_PROPERTY);
+    if (dir == null) {
+      return;
+    }
+    byte[] recording = recorder.finish(state);
+    String name = "replay-" + System.currentTimeMillis() + ".snkr";
+    replayWriter.execute(() -> {
+      try {
+        Path directory = Files.createDirectories(Path.of(dir));
+        Files.write(directory.resolve(name), recording);
+      } catch (IOException e) {
+        System.err.println("Failed to save replay: " + e.getMessage());
+      }
+    });
+  }
+
+  /** Stops the game and releases the writer threads once the board leaves its window. */
+  @Override
+  public void removeNotify() {
+    timer.stop();
+    try {
+      Runtime.getRuntime().removeShutdownHook(flushOnExit);
+      flushWriters();
+    } catch (IllegalStateException e) {
+      // The JVM is already exiting and the hook does the flushing.
+    }
+    super.removeNotify();
+  }
+
+  /** Lets replays and the high score already handed to the writers reach the disk, then stops them. */
+  private void flushWriters() {
+    replayWriter.shutdown();
+    try {
+      if (!replayWriter.awaitTermination(5, TimeUnit.SECONDS)) {
+        System.err.println("Failed to save replay: timed out on exit");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    highScoreStore.close();
+  }
+
+  /** Pushes the engine's latest changes to the screen according to the render mode. */
+  private void present() {
+    TickChanges changes = state.getChanges();
+    if (renderMode == RenderMode.FULL) {
+      changes.clear();
+      repaint();
+      return;
+    }
+    long paintStart = System.nanoTime();
+    if (changes.isFullRedraw() || state.getMode() != GameMode.RUNNING) {
+      backGraphics.setPaint(Color.BLACK);
+      backGraphics.fillRect(0, 0, backBuffer.getWidth(), backBuffer.getHeight());
+      renderer.paint(backGraphics, state);
+      changes.clear();
+      repaint();
+      metrics.paintFinished(paintStart);
+      return;
+    }
+    renderer.paintChanges(backGraphics, state);
+    // Paint each rectangle now; a deferred repaint() would be coalesced into their bounding box.
+    int size = config.pixelSize();
+    for (int i = 0; i < changes.cellCount(); i++) {
+      paintImmediately(changes.cellX(i) * size, changes.cellY(i) * size, size, size);
+    }
+    if (changes.isScoreChanged()) {
+      paintImmediately(0, config.boardHeight(), config.boardWidth(), config.hudRows() * size);
+    }
+    changes.clear();
+    metrics.paintFinished(paintStart);
   }
 
   @Override
   public void paintComponent(Graphics g) {
+    if (renderMode == RenderMode.INCREMENTAL) {
+      g.drawImage(backBuffer, 0, 0, null);
+      return;
+    }
+    long paintStart = System.nanoTime();
     super.paintComponent(g);
     renderer.paint(g, state);
+    metrics.paintFinished(paintStart);
   }
 
   private class DirectionAdapter extends KeyAdapter {
     @Override
     public void keyPressed(KeyEvent e) {
       switch (e.getKeyCode()) {
-        case KeyEvent.VK_DOWN, KeyEvent.VK_S -> engine.requestDirection(state, Direction.DOWN);
-        case KeyEvent.VK_UP, KeyEvent.VK_W -> engine.requestDirection(state, Direction.UP);
-        case KeyEvent.VK_LEFT, KeyEvent.VK_A -> engine.requestDirection(state, Direction.LEFT);
-        case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> engine.requestDirection(state, Direction.RIGHT);
+        case KeyEvent.VK_DOWN, KeyEvent.VK_S -> recorder.requestDirection(state, Direction.DOWN);
+        case KeyEvent.VK_UP, KeyEvent.VK_W -> recorder.requestDirection(state, Direction.UP);
+        case KeyEvent.VK_LEFT, KeyEvent.VK_A -> recorder.requestDirection(state, Direction.LEFT);
+        case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> recorder.requestDirection(state, Direction.RIGHT);
         case KeyEvent.VK_P -> {
-          engine.togglePause(state);
+          recorder.togglePause(state);
           if (state.getMode() == GameMode.RUNNING) {
+            lastTickNanos = 0;
             timer.start();
           }
+          present();
         }
         case KeyEvent.VK_R -> {
           if (state.getMode() == GameMode.GAME_OVER || state.getMode() == GameMode.WON) {
@@ -1,6 +1,21 @@
 package com.mapna.snake;
 
-public final class BoardConfig {
+/**
+ * Board geometry and pacing. The static constants describe the classic 20x20 board and back
+ * {@link #DEFAULT}; other sizes are built at runtime with {@link #of(int, int)} and passed to the
+ * engine, snake and renderer.
+ *
+ * @param columns board width in cells
+ * @param rows board height in cells
+ * @param pixelSize on-screen size of one cell
+ * @param hudRows height of the score strip below the board, in cells
+ * @param tickRateMs starting delay between ticks
+ * @param minTickRateMs fastest delay the game speeds up to
+ * @param speedupThreshold growth after which every meal shortens the delay
+ * @param speedStepMs delay removed per meal past the threshold
+ */
+public record BoardConfig(int columns, int rows, int pixelSize, int hudRows,
+                          int tickRateMs, int minTickRateMs, int speedupThreshold, int speedStepMs) {
   public static final int TICK_RATE_MS = 80;
   public static final int MIN_TICK_RATE_MS = 40;
   public static final int SPEEDUP_THRESHOLD = 10;
@@ -15,11 +30,73 @@ public final class BoardConfig {
   public static final int BORDERED_PIXEL_SIZE = PIXEL_SIZE - 1;
   public static final String HIGHSCORE_FILE = "highscore.txt";
 
-  private BoardConfig() {
+  public static final BoardConfig DEFAULT = new BoardConfig(PIXEL_WIDTH, PIXEL_HEIGHT, PIXEL_SIZE, HUD_ROWS,
+      TICK_RATE_MS, MIN_TICK_RATE_MS, SPEEDUP_THRESHOLD, SPEED_STEP_MS);
+
+  public BoardConfig {
+    if (columns < 1 || rows < 4) {
+      throw new IllegalArgumentException("Board must be at least 1x4 cells, got " + columns + "x" + rows);
+    }
+    if ((long) columns * rows > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Board has more cells than fit in an int: " + columns + "x" + rows);
+    }
+    if (pixelSize < 2 || hudRows < 0) {
+      throw new IllegalArgumentException("Invalid pixel size " + pixelSize + " or HUD rows " + hudRows);
+    }
+    if (minTickRateMs < 1 || tickRateMs < minTickRateMs || speedStepMs < 0) {
+      throw new IllegalArgumentException("Invalid tick rates " + tickRateMs + "/" + minTickRateMs + "/" + speedStepMs);
+    }
+  }
+
+  /** Default pixel size and pacing on a board of the given size. */
+  public static BoardConfig of(int columns, int rows) {
+    return DEFAULT.withCells(columns, rows);
+  }
+
+  public BoardConfig withCells(int newColumns, int newRows) {
+    return new BoardConfig(newColumns, newRows, pixelSize, hudRows, tickRateMs, minTickRateMs, speedupThreshold, speedStepMs);
+  }
+
+  public BoardConfig withPixelSize(int newPixelSize) {
+    return new BoardConfig(columns, rows, newPixelSize, hudRows, tickRateMs, minTickRateMs, speedupThreshold, speedStepMs);
+  }
+
+  public BoardConfig withTickRates(int newTickRateMs, int newMinTickRateMs, int newSpeedupThreshold, int newSpeedStepMs) {
+    return new BoardConfig(columns, rows, pixelSize, hudRows, newTickRateMs, newMinTickRateMs, newSpeedupThreshold, newSpeedStepMs);
+  }
+
+  public int cellCount() {
+    return columns * rows;
+  }
+
+  public int boardWidth() {
+    return columns * pixelSize;
+  }
+
+  public int boardHeight() {
+    return rows * pixelSize;
+  }
+
+  public int componentHeight() {
+    return boardHeight() + hudRows * pixelSize;
+  }
+
+  public int borderedPixelSize() {
+    return pixelSize - 1;
+  }
+
+  /** Delay before the next tick for a snake that has grown {@code growth} segments. */
+  public int delayMs(int growth) {
+    int speedups = Math.max(0, growth - speedupThreshold);
+    return Math.max(minTickRateMs, tickRateMs - speedups * speedStepMs);
+  }
+
+  /** As {@link #delayMs(int)}, plus {@code shiftMs}, but never below {@link #minTickRateMs}. */
+  public int delayMs(int growth, int shiftMs) {
+    return Math.max(minTickRateMs, delayMs(growth) + shiftMs);
   }
 
   public static int tickRateMs(int growth) {
-    int speedups = Math.max(0, growth - SPEEDUP_THRESHOLD);
-    return Math.max(MIN_TICK_RATE_MS, TICK_RATE_MS - speedups * SPEED_STEP_MS);
+    return DEFAULT.delayMs(growth);
   }
 }
@@ -2,109 +2,363 @@ package com.mapna.snake;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+import java.util.Map;
 
+/**
+ * Paints the board, HUD and overlays. Digit glyphs and overlay titles are rendered once into
+ * cached images and blitted; the HUD strip is re-rendered only when the score or palette changes.
+ * Items are drawn one type at a time, so the paint changes once per type, not once per item.
+ */
 public class BoardRenderer {
   private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 64);
   private static final Font CAPTION_FONT = new Font("Courier New", Font.BOLD, 24);
+  private static final int DIGIT_COLUMNS = 3;
+  private static final int DIGIT_ROWS = 5;
+  private static final Color OBSTACLE_COLOR = Color.gray;
+  private static final ItemType[] ITEM_TYPES = ItemType.values();
+  private static final Color[] ITEM_COLORS = itemColors(false);
+  private static final Color[] PAUSED_ITEM_COLORS = itemColors(true);
+  private final BoardConfig config;
+  private final Map<GameMode, TextImage[]> overlays = new EnumMap<>(GameMode.class);
+  private final int[] scoreDigits = new int[10];
+  private BufferedImage digitAtlas;
+  private BufferedImage hudImage;
+  private Color hudImageColor;
+  private int hudImageScore = -1;
+
+  public BoardRenderer() {
+    this(BoardConfig.DEFAULT);
+  }
+
+  public BoardRenderer(BoardConfig config) {
+    this.config = config;
+  }
 
   public void paint(Graphics g, GameState state) {
     switch (state.getMode()) {
       case GAME_OVER -> paintGameOver(g, state);
       case WON -> paintWon(g, state);
       case PAUSED -> paintPause(g, state);
-      case RUNNING -> paintGameContent(g, state, Color.white, Color.yellow, Color.green);
+      case RUNNING -> paintGameContent(g, state, Color.white, Color.yellow, Color.green, ITEM_COLORS);
+    }
+  }
+
+  /**
+   * Paints a frame published by the simulation thread; the same picture {@link #paint(Graphics,
+   * GameState)} draws for the state the frame was captured from.
+   */
+  public void paint(Graphics g, Frame frame) {
+    switch (frame.mode()) {
+      case GAME_OVER, WON -> {
+        paintOverlay(g, frame.mode());
+        paintScoreOverlay(g, frame.score(), frame.highScore());
+      }
+      case PAUSED -> {
+        paintFrameContent(g, frame, Color.lightGray, Color.gray, Color.darkGray, PAUSED_ITEM_COLORS);
+        paintOverlay(g, GameMode.PAUSED);
+      }
+      case RUNNING -> paintFrameContent(g, frame, Color.white, Color.yellow, Color.green, ITEM_COLORS);
+    }
+  }
+
+  /**
+   * Redraws only the cells and HUD listed in the state's {@link TickChanges}, onto a surface
+   * that still shows the previous running frame. Callers fall back to a cleared surface and
+   * {@link #paint} when the changes ask for a full redraw.
+   */
+  public void paintChanges(Graphics2D g2D, GameState state) {
+    TickChanges changes = state.getChanges();
+    for (int i = 0; i < changes.cellCount(); i++) {
+      paintCell(g2D, state, changes.cellX(i), changes.cellY(i));
+    }
+    if (changes.isScoreChanged()) {
+      paintHud(g2D, state.getSnake().growth(), Color.white);
+    }
+  }
+
+  private void paintCell(Graphics2D g2D, GameState state, int x, int y) {
+    int px = x * config.pixelSize();
+    int py = y * config.pixelSize();
+    g2D.setPaint(Color.black);
+    g2D.fillRect(px, py, config.pixelSize(), config.pixelSize());
+
+    Position cell = Position.of(x, y);
+    ItemMap items = state.getItems();
+    ItemType item = items.size() == 0 ? null : items.typeAt(y * state.getSnake().columns() + x);
+    if (state.getSnake().contains(cell)) {
+      g2D.setPaint(Color.green);
+    } else if (state.getSnake().isObstacle(cell) || isLevelObstacle(state.getLevel(), x, y)) {
+      g2D.setPaint(OBSTACLE_COLOR);
+    } else if (cell.equals(state.getFood())) {
+      g2D.setPaint(Color.yellow);
+    } else if (item != null) {
+      g2D.setPaint(ITEM_COLORS[item.ordinal()]);
+    } else {
+      return;
     }
+    g2D.fillRect(px, py, config.borderedPixelSize(), config.borderedPixelSize());
+  }
+
+  private static boolean isLevelObstacle(Level level, int x, int y) {
+    return level != null && x < level.columns() && y < level.rows() && level.isObstacle(y * level.columns() + x);
   }
 
   private void paintPause(Graphics g, GameState state) {
-    paintGameContent(g, state, Color.lightGray, Color.gray, Color.darkGray);
+    paintGameContent(g, state, Color.lightGray, Color.gray, Color.darkGray, PAUSED_ITEM_COLORS);
 
-    g.setColor(Color.yellow);
-    paintTitles(g, "PAUSED", "-PRESS P TO CONTINUE-");
+    paintOverlay(g, GameMode.PAUSED);
   }
 
   private void paintWon(Graphics g, GameState state) {
-    g.setColor(Color.green);
-    paintTitles(g, "YOU WIN!", "-PRESS R TO RESTART-");
-    paintScoreOverlay(g, state);
+    paintOverlay(g, GameMode.WON);
+    paintScoreOverlay(g, state.getSnake().growth(), state.getHighScore());
   }
 
   private void paintGameOver(Graphics g, GameState state) {
-    g.setColor(Color.red);
-    paintTitles(g, "GAME OVER", "-PRESS R TO RESTART-");
-    paintScoreOverlay(g, state);
+    paintOverlay(g, GameMode.GAME_OVER);
+    paintScoreOverlay(g, state.getSnake().growth(), state.getHighScore());
   }
 
-  private void paintScoreOverlay(Graphics g, GameState state) {
-    String scoreText = "SCORE: " + state.getSnake().growth();
-    String highScoreText = "HIGH SCORE: " + state.getHighScore();
+  private void paintScoreOverlay(Graphics g, int score, int highScore) {
+    String scoreText = "SCORE: " + score;
+    String highScoreText = "HIGH SCORE: " + highScore;
 
     g.setFont(CAPTION_FONT);
     g.setColor(Color.white);
-    int hsX = (BoardConfig.BOARD_WIDTH - g.getFontMetrics().stringWidth(highScoreText)) / 2;
-    g.drawString(highScoreText, hsX, BoardConfig.COMPONENT_HEIGHT / 4);
+    int hsX = (config.boardWidth() - g.getFontMetrics().stringWidth(highScoreText)) / 2;
+    g.drawString(highScoreText, hsX, config.componentHeight() / 4);
     g.setColor(Color.yellow);
-    int scoreX = (BoardConfig.BOARD_WIDTH - g.getFontMetrics().stringWidth(scoreText)) / 2;
-    g.drawString(scoreText, scoreX, BoardConfig.COMPONENT_HEIGHT / 8);
+    int scoreX = (config.boardWidth() - g.getFontMetrics().stringWidth(scoreText)) / 2;
+    g.drawString(scoreText, scoreX, config.componentHeight() / 8);
   }
 
-  private void paintTitles(Graphics g, String title, String caption) {
-    g.setFont(TITLE_FONT);
-    int titleX = (BoardConfig.BOARD_WIDTH - g.getFontMetrics(TITLE_FONT).stringWidth(title)) / 2;
-    g.drawString(title, titleX, BoardConfig.COMPONENT_HEIGHT / 2);
+  private void paintOverlay(Graphics g, GameMode mode) {
+    for (TextImage text : overlays.computeIfAbsent(mode, this::renderOverlay)) {
+      g.drawImage(text.image, text.x, text.y, null);
+    }
+  }
 
-    g.setColor(Color.white);
-    g.setFont(CAPTION_FONT);
-    int captionX = (BoardConfig.BOARD_WIDTH - g.getFontMetrics(CAPTION_FONT).stringWidth(caption)) / 2;
-    g.drawString(caption, captionX, BoardConfig.COMPONENT_HEIGHT * 5 / 8);
+  private TextImage[] renderOverlay(GameMode mode) {
+    return switch (mode) {
+      case PAUSED -> renderTitles(Color.yellow, "PAUSED", "-PRESS P TO CONTINUE-");
+      case WON -> renderTitles(Color.green, "YOU WIN!", "-PRESS R TO RESTART-");
+      case GAME_OVER -> renderTitles(Color.red, "GAME OVER", "-PRESS R TO RESTART-");
+      case RUNNING -> new TextImage[0];
+    };
+  }
+
+  private TextImage[] renderTitles(Color titleColor, String title, String caption) {
+    return new TextImage[]{
+        renderText(title, TITLE_FONT, titleColor, config.componentHeight() / 2),
+        renderText(caption, CAPTION_FONT, Color.white, config.componentHeight() * 5 / 8)
+    };
   }
 
-  private void paintGameContent(Graphics g, GameState state, Color hudColor, Color foodColor, Color snakeColor) {
+  /** Renders centred text onto a transparent image, padded so glyph overhang is not clipped. */
+  private TextImage renderText(String text, Font font, Color color, int baseline) {
+    BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D measure = scratch.createGraphics();
+    FontMetrics metrics = measure.getFontMetrics(font);
+    measure.dispose();
+
+    int pad = font.getSize() / 4;
+    int textX = (config.boardWidth() - metrics.stringWidth(text)) / 2;
+    BufferedImage image = new BufferedImage(metrics.stringWidth(text) + 2 * pad,
+        metrics.getAscent() + metrics.getDescent() + 2 * pad, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    g.setFont(font);
+    g.setColor(color);
+    g.drawString(text, pad, pad + metrics.getAscent());
+    g.dispose();
+    return new TextImage(image, textX - pad, baseline - metrics.getAscent() - pad);
+  }
+
+  private void paintGameContent(Graphics g, GameState state, Color hudColor, Color foodColor, Color snakeColor,
+                                Color[] itemColors) {
     Graphics2D g2D = (Graphics2D) g;
 
-    g2D.setPaint(hudColor);
-    g2D.fillRect(0, BoardConfig.BOARD_HEIGHT, BoardConfig.BOARD_WIDTH, BoardConfig.HUD_ROWS * BoardConfig.PIXEL_SIZE);
+    paintHud(g2D, state.getSnake().growth(), hudColor);
 
-    g2D.setPaint(Color.black);
-    paintScore(g2D, state.getSnake().growth());
+    Snake snake = state.getSnake();
+    g2D.setPaint(OBSTACLE_COLOR);
+    for (int i = 0; i < snake.obstacleCount(); i++) {
+      int cell = snake.obstacleCellAt(i);
+      paintSquare(g2D, cell % snake.columns(), cell / snake.columns());
+    }
+    paintLevel(g2D, state.getLevel());
+
+    ItemMap items = state.getItems();
+    for (ItemType type : ITEM_TYPES) {
+      if (items.count(type) > 0) {
+        g2D.setPaint(itemColors[type.ordinal()]);
+        for (int i = 0; i < items.count(type); i++) {
+          int cell = items.cellAt(type, i);
+          paintSquare(g2D, cell % snake.columns(), cell / snake.columns());
+        }
+      }
+    }
 
     Position food = state.getFood();
     g2D.setPaint(foodColor);
-    g2D.fillRect(food.x() * BoardConfig.PIXEL_SIZE, food.y() * BoardConfig.PIXEL_SIZE,
-        BoardConfig.BORDERED_PIXEL_SIZE, BoardConfig.BORDERED_PIXEL_SIZE);
+    g2D.fillRect(food.x() * config.pixelSize(), food.y() * config.pixelSize(),
+        config.borderedPixelSize(), config.borderedPixelSize());
 
     g2D.setPaint(snakeColor);
     for (Position point : state.getSnake().getBody()) {
-      g2D.fillRect(point.x() * BoardConfig.PIXEL_SIZE, point.y() * BoardConfig.PIXEL_SIZE,
-          BoardConfig.BORDERED_PIXEL_SIZE, BoardConfig.BORDERED_PIXEL_SIZE);
+      g2D.fillRect(point.x() * config.pixelSize(), point.y() * config.pixelSize(),
+          config.borderedPixelSize(), config.borderedPixelSize());
     }
   }
 
-  private void paintScore(Graphics2D g2D, int points) {
-    String digits = Integer.toString(points);
-    int digitWidth = 4 * BoardConfig.PIXEL_SIZE;
-    int totalWidth = digits.length() * digitWidth - BoardConfig.PIXEL_SIZE;
-    int startX = (BoardConfig.BOARD_WIDTH - totalWidth) / 2;
-    for (int i = 0; i < digits.length(); i++) {
-      paintDigit(PIXEL_DIGITS[digits.charAt(i) - '0'], g2D, startX + i * digitWidth);
+  private void paintFrameContent(Graphics g, Frame frame, Color hudColor, Color foodColor, Color snakeColor,
+                                 Color[] itemColors) {
+    Graphics2D g2D = (Graphics2D) g;
+
+    paintHud(g2D, frame.score(), hudColor);
+
+    g2D.setPaint(OBSTACLE_COLOR);
+    for (int i = 0; i < frame.obstacleCount(); i++) {
+      paintSquare(g2D, frame.obstacleX(i), frame.obstacleY(i));
+    }
+    paintLevel(g2D, frame.level());
+
+    for (ItemType type : ITEM_TYPES) {
+      if (frame.itemCount(type) > 0) {
+        g2D.setPaint(itemColors[type.ordinal()]);
+        for (int i = 0; i < frame.itemCount(type); i++) {
+          paintSquare(g2D, frame.itemX(type, i), frame.itemY(type, i));
+        }
+      }
+    }
+
+    g2D.setPaint(foodColor);
+    g2D.fillRect(frame.foodX() * config.pixelSize(), frame.foodY() * config.pixelSize(),
+        config.borderedPixelSize(), config.borderedPixelSize());
+
+    g2D.setPaint(snakeColor);
+    for (int i = 0; i < frame.length(); i++) {
+      g2D.fillRect(frame.cellX(i) * config.pixelSize(), frame.cellY(i) * config.pixelSize(),
+          config.borderedPixelSize(), config.borderedPixelSize());
+    }
+  }
+
+  /**
+   * Paints the level's obstacles in the rows this board shows, walking the mapped layer a word
+   * at a time so empty stretches cost one read per 64 cells.
+   */
+  private void paintLevel(Graphics2D g2D, Level level) {
+    if (level == null) {
+      return;
+    }
+    int columns = level.columns();
+    int end = Math.min(level.rows(), config.rows()) * columns;
+    for (int cell = level.nextObstacle(0); cell >= 0 && cell < end; cell = level.nextObstacle(cell + 1)) {
+      paintSquare(g2D, cell % columns, cell / columns);
+    }
+  }
+
+  /** One colour per item type, indexed by ordinal; darker for the paused board. */
+  private static Color[] itemColors(boolean dimmed) {
+    Color[] colors = new Color[ITEM_TYPES.length];
+    for (ItemType type : ITEM_TYPES) {
+      Color color = switch (type) {
+        case FOOD -> Color.yellow;
+        case BONUS_FOOD -> Color.orange;
+        case SPEED_UP -> Color.red;
+        case SLOW_DOWN -> Color.cyan;
+        case SHRINK -> Color.magenta;
+      };
+      colors[type.ordinal()] = dimmed ? color.darker() : color;
+    }
+    return colors;
+  }
+
+  private void paintSquare(Graphics2D g2D, int x, int y) {
+    g2D.fillRect(x * config.pixelSize(), y * config.pixelSize(), config.borderedPixelSize(), config.borderedPixelSize());
+  }
+
+  private void paintHud(Graphics2D g2D, int score, Color hudColor) {
+    if (config.hudRows() == 0) {
+      return;
+    }
+    if (hudImage == null || score != hudImageScore || !hudColor.equals(hudImageColor)) {
+      renderHud(score, hudColor);
+    }
+    g2D.drawImage(hudImage, 0, config.boardHeight(), null);
+  }
+
+  private void renderHud(int score, Color hudColor) {
+    if (hudImage == null) {
+      hudImage = new BufferedImage(config.boardWidth(), config.hudRows() * config.pixelSize(), BufferedImage.TYPE_INT_RGB);
+    }
+    Graphics2D g = hudImage.createGraphics();
+    g.setPaint(hudColor);
+    g.fillRect(0, 0, hudImage.getWidth(), hudImage.getHeight());
+    paintScore(g, score);
+    g.dispose();
+    hudImageScore = score;
+    hudImageColor = hudColor;
+  }
+
+  /** Blits each digit of {@code points} from the glyph atlas, centred in the HUD image. */
+  private void paintScore(Graphics2D g, int points) {
+    int count = 0;
+    int rest = points;
+    do {
+      scoreDigits[count++] = rest % 10;
+      rest /= 10;
+    } while (rest > 0);
+
+    int px = config.pixelSize();
+    int glyphWidth = DIGIT_COLUMNS * px;
+    int glyphHeight = DIGIT_ROWS * px;
+    int digitWidth = (DIGIT_COLUMNS + 1) * px;
+    int totalWidth = count * digitWidth - px;
+    int startX = (config.boardWidth() - totalWidth) / 2;
+    BufferedImage atlas = digitAtlas();
+    for (int i = 0; i < count; i++) {
+      int digit = scoreDigits[count - 1 - i];
+      int dx = startX + i * digitWidth;
+      g.drawImage(atlas, dx, px, dx + glyphWidth, px + glyphHeight,
+          digit * glyphWidth, 0, (digit + 1) * glyphWidth, glyphHeight, null);
     }
   }
 
-  private void paintDigit(PixelDigit digit, Graphics2D g2D, int startX) {
-    boolean[][] graphic = digit.graphics;
-    for (int x = 0; x < 3; x++) {
-      for (int y = 0; y < 5; y++) {
-        if (graphic[y][x]) {
-          g2D.fillRect(
-              startX + x * BoardConfig.PIXEL_SIZE,
-              BoardConfig.BOARD_HEIGHT + BoardConfig.PIXEL_SIZE + y * BoardConfig.PIXEL_SIZE,
-              BoardConfig.BORDERED_PIXEL_SIZE,
-              BoardConfig.BORDERED_PIXEL_SIZE
-          );
+  private BufferedImage digitAtlas() {
+    if (digitAtlas == null) {
+      int px = config.pixelSize();
+      digitAtlas = new BufferedImage(PIXEL_DIGITS.length * DIGIT_COLUMNS * px, DIGIT_ROWS * px, BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g = digitAtlas.createGraphics();
+      g.setPaint(Color.black);
+      for (PixelDigit digit : PIXEL_DIGITS) {
+        boolean[][] graphic = digit.graphics;
+        for (int x = 0; x < DIGIT_COLUMNS; x++) {
+          for (int y = 0; y < DIGIT_ROWS; y++) {
+            if (graphic[y][x]) {
+              g.fillRect((digit.ordinal() * DIGIT_COLUMNS + x) * px, y * px, config.borderedPixelSize(), config.borderedPixelSize());
+            }
+          }
         }
       }
+      g.dispose();
+    }
+    return digitAtlas;
+  }
+
+  private static final class TextImage {
+    private final BufferedImage image;
+    private final int x;
+    private final int y;
+
+    private TextImage(BufferedImage image, int x, int y) {
+      this.image = image;
+      this.x = x;
+      this.y = y;
     }
   }
 
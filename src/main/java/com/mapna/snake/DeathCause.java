@@ -0,0 +1,8 @@
+package com.mapna.snake;
+
+/** What a {@link GameEventType#DEATH} ran into. */
+public enum DeathCause {
+  SELF,
+  OBSTACLE,
+  WALL
+}
@@ -0,0 +1,103 @@
+package com.mapna.snake;
+
+import java.util.Random;
+
+/**
+ * {@link Bitboard} occupancy plus a {@link FreeCellIndex}, for boards small enough to index every
+ * cell. One bitboard holds every taken cell, body or obstacle, so a collision test is a single
+ * bit and {@link #nextFree} is a word scan; a second marks which of them are obstacles.
+ */
+public class DenseOccupancy implements Occupancy {
+  private final int columns;
+  private final Bitboard taken;
+  private final Bitboard walls;
+  private final FreeCellIndex free;
+  private final ObstacleList obstacles = new ObstacleList();
+  private int occupiedCount;
+
+  public DenseOccupancy(int columns, int rows) {
+    this.columns = columns;
+    this.taken = new Bitboard(columns, rows);
+    this.walls = new Bitboard(columns, rows);
+    this.free = new FreeCellIndex(columns * rows);
+  }
+
+  @Override
+  public boolean isOccupied(int cell) {
+    int y = cell / columns;
+    return taken.get(cell - y * columns, y);
+  }
+
+  @Override
+  public boolean occupy(int cell) {
+    int y = cell / columns;
+    if (!taken.set(cell - y * columns, y)) {
+      return false;
+    }
+    occupiedCount++;
+    free.remove(cell);
+    return true;
+  }
+
+  @Override
+  public boolean vacate(int cell) {
+    int y = cell / columns;
+    int x = cell - y * columns;
+    if (walls.get(x, y) || !taken.clear(x, y)) {
+      return false;
+    }
+    occupiedCount--;
+    free.add(cell);
+    return true;
+  }
+
+  @Override
+  public boolean block(int cell) {
+    int y = cell / columns;
+    int x = cell - y * columns;
+    if (!taken.set(x, y)) {
+      return false;
+    }
+    walls.set(x, y);
+    free.remove(cell);
+    obstacles.add(cell);
+    return true;
+  }
+
+  @Override
+  public boolean isBlocked(int cell) {
+    int y = cell / columns;
+    return walls.get(cell - y * columns, y);
+  }
+
+  @Override
+  public int blockedCount() {
+    return obstacles.size();
+  }
+
+  @Override
+  public int blockedCell(int index) {
+    return obstacles.get(index);
+  }
+
+  @Override
+  public int occupiedCount() {
+    return occupiedCount;
+  }
+
+  @Override
+  public int freeCount() {
+    return free.size();
+  }
+
+  @Override
+  public int randomFree(Random random) {
+    return free.random(random);
+  }
+
+  @Override
+  public int nextFree(int from) {
+    int y = from / columns;
+    return taken.nextClear(from - y * columns, y);
+  }
+}
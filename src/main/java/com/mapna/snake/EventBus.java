@@ -0,0 +1,127 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Ring buffer of game events in preallocated primitive arrays, handed to subscribers in
+ * batches. {@link #publish} writes one slot and {@link #dispatch} passes every event since the
+ * last dispatch to each subscriber; neither allocates. A bus with no subscribers drops events
+ * at the first check, so attaching one costs close to nothing until someone listens.
+ *
+ * <p>Events are numbered by a sequence that keeps growing across the ring's wrap. Publishing
+ * and dispatching happen on one thread, normally the one that ticks the engine; if a batch
+ * would overrun the ring, the events already in it are dispatched first.
+ */
+public final class EventBus {
+  /** Writes events to this file when set (NDJSON for a {@code .ndjson} name, binary otherwise). */
+  public static final String LOG_PROPERTY = "snake.events.log";
+  public static final int DEFAULT_CAPACITY = 1024;
+  private static final GameEventType[] TYPES = GameEventType.values();
+  private final int mask;
+  private final byte[] types;
+  private final long[] ticks;
+  private final int[] firsts;
+  private final int[] seconds;
+  private volatile EventSubscriber[] subscribers = new EventSubscriber[0];
+  private long published;
+  private long dispatched;
+
+  public EventBus() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /** @param capacity events buffered between dispatches, rounded up to a power of two */
+  public EventBus(int capacity) {
+    int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = size - 1;
+    this.types = new byte[size];
+    this.ticks = new long[size];
+    this.firsts = new int[size];
+    this.seconds = new int[size];
+  }
+
+  /**
+   * A new bus logging to the file named by {@value #LOG_PROPERTY}, flushed when the JVM exits;
+   * null when the property is unset or the file cannot be opened. Open one per game thread and
+   * hand it to whatever ticks the engine, since a bus is not shared between threads.
+   */
+  public static EventBus openLogging() {
+    String log = System.getProperty(LOG_PROPERTY);
+    if (log == null) {
+      return null;
+    }
+    Path path = Path.of(log);
+    try {
+      EventBus bus = new EventBus();
+      bus.subscribe(EventFileSink.open(path, EventFileSink.Format.forPath(path)).closeOnShutdown());
+      return bus;
+    } catch (IOException e) {
+      System.err.println("Failed to open event log: " + e.getMessage());
+      return null;
+    }
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  public synchronized void subscribe(EventSubscriber subscriber) {
+    EventSubscriber[] grown = Arrays.copyOf(subscribers, subscribers.length + 1);
+    grown[subscribers.length] = subscriber;
+    subscribers = grown;
+  }
+
+  public boolean hasSubscribers() {
+    return subscribers.length > 0;
+  }
+
+  /** Sequence the next published event will get. */
+  public long sequence() {
+    return published;
+  }
+
+  /** Buffers an event until the next {@link #dispatch}; does nothing without subscribers. */
+  public void publish(GameEventType type, long tick, int first, int second) {
+    if (subscribers.length == 0) {
+      return;
+    }
+    if (published - dispatched > mask) {
+      dispatch();
+    }
+    int slot = (int) published & mask;
+    types[slot] = (byte) type.ordinal();
+    ticks[slot] = tick;
+    firsts[slot] = first;
+    seconds[slot] = second;
+    published++;
+  }
+
+  /** Hands every event published since the last call to each subscriber, in order. */
+  public void dispatch() {
+    if (published == dispatched) {
+      return;
+    }
+    for (EventSubscriber subscriber : subscribers) {
+      subscriber.onEvents(this, dispatched, published);
+    }
+    dispatched = published;
+  }
+
+  public GameEventType type(long sequence) {
+    return TYPES[types[(int) sequence & mask]];
+  }
+
+  public long tick(long sequence) {
+    return ticks[(int) sequence & mask];
+  }
+
+  public int first(long sequence) {
+    return firsts[(int) sequence & mask];
+  }
+
+  public int second(long sequence) {
+    return seconds[(int) sequence & mask];
+  }
+}
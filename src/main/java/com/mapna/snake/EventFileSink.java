@@ -0,0 +1,318 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Subscriber that appends events to a file through an {@link AsynchronousFileChannel}.
+ *
+ * <p>Events are encoded into one of {@value #SEGMENTS} preallocated direct buffers. A buffer
+ * is handed to the channel as one segment write when it fills, or when its oldest event is
+ * older than the flush delay, and the next free buffer takes over. A timer thread checks the
+ * delay too, so events reach the file even when no more arrive; {@link #close} flushes the rest. The publishing thread never
+ * waits for the disk: if every buffer is still being written, events are dropped and counted
+ * in {@link #droppedEvents}.
+ *
+ * <p>{@link Format#BINARY} files start with the magic {@code "SNKE"} and a version byte,
+ * followed by fixed {@value #BINARY_RECORD_BYTES}-byte records: byte type ordinal, long tick,
+ * int first, int second (big-endian). {@link Format#NDJSON} writes one JSON object per line
+ * with the fields named after the event type.
+ */
+public final class EventFileSink implements EventSubscriber, AutoCloseable {
+  static final int MAGIC = 0x534E4B45;
+  static final byte VERSION = 1;
+  static final int BINARY_RECORD_BYTES = 17;
+  static final int SEGMENTS = 4;
+  static final int SEGMENT_BYTES = 1 << 16;
+  private static final int MAX_RECORD_BYTES = 128;
+  private static final long DEFAULT_FLUSH_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final long MIN_FLUSH_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final GameMode[] MODES = GameMode.values();
+  private static final DeathCause[] CAUSES = DeathCause.values();
+  private static final ItemType[] ITEMS = ItemType.values();
+  private final AsynchronousFileChannel channel;
+  private final Format format;
+  private final long flushDelayNanos;
+  private final ArrayBlockingQueue<Segment> free = new ArrayBlockingQueue<>(SEGMENTS);
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private final AtomicLong dropped = new AtomicLong();
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "snake-events-timer");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private Segment current;
+  private long position;
+  private long pendingSinceNanos;
+  private boolean closed;
+
+  /** How events are laid out in the file. */
+  public enum Format {
+    BINARY,
+    NDJSON;
+
+    /** NDJSON for a {@code .ndjson} or {@code .jsonl} file name, binary otherwise. */
+    public static Format forPath(Path path) {
+      String name = path.toString();
+      return name.endsWith(".ndjson") || name.endsWith(".jsonl") ? NDJSON : BINARY;
+    }
+  }
+
+  private EventFileSink(AsynchronousFileChannel channel, Format format, long flushDelayNanos) {
+    this.channel = channel;
+    this.format = format;
+    this.flushDelayNanos = flushDelayNanos;
+    for (int i = 0; i < SEGMENTS; i++) {
+      free.add(new Segment());
+    }
+    current = free.poll();
+    if (format == Format.BINARY) {
+      current.buffer.putInt(MAGIC).put(VERSION);
+    }
+    pendingSinceNanos = System.nanoTime();
+  }
+
+  /** Creates or truncates {@code path}; segments are flushed at least once a second. */
+  public static EventFileSink open(Path path, Format format) throws IOException {
+    return open(path, format, DEFAULT_FLUSH_DELAY_NANOS);
+  }
+
+  /** As {@link #open(Path, Format)}, flushing a segment once its oldest event is this old. */
+  public static EventFileSink open(Path path, Format format, long flushDelayNanos) throws IOException {
+    AsynchronousFileChannel channel = AsynchronousFileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    EventFileSink sink = new EventFileSink(channel, format, flushDelayNanos);
+    long check = Math.max(MIN_FLUSH_CHECK_NANOS, flushDelayNanos);
+    sink.timer.scheduleWithFixedDelay(sink::flushIfStale, check, check, TimeUnit.NANOSECONDS);
+    return sink;
+  }
+
+  /** Flushes and closes the file when the JVM exits; returns this sink. */
+  public EventFileSink closeOnShutdown() {
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        close();
+      } catch (IOException e) {
+        System.err.println("Failed to write event log: " + e.getMessage());
+      }
+    }, "snake-events-flush"));
+    return this;
+  }
+
+  @Override
+  public synchronized void onEvents(EventBus bus, long from, long to) {
+    if (closed) {
+      dropped.addAndGet(to - from);
+      return;
+    }
+    long sequence = from;
+    while (sequence < to) {
+      if (current == null && (current = free.poll()) == null) {
+        dropped.addAndGet(to - sequence);
+        return;
+      }
+      if (current.buffer.remaining() < MAX_RECORD_BYTES) {
+        submit();
+        continue;
+      }
+      if (current.buffer.position() == 0) {
+        pendingSinceNanos = System.nanoTime();
+      }
+      if (format == Format.BINARY) {
+        writeBinary(current.buffer, bus, sequence);
+      } else {
+        writeJson(current.buffer, bus, sequence);
+      }
+      sequence++;
+    }
+    if (current != null && current.buffer.position() > 0 && System.nanoTime() - pendingSinceNanos >= flushDelayNanos) {
+      submit();
+    }
+  }
+
+  /** Starts writing whatever is buffered; does not wait for the disk. */
+  public synchronized void flush() {
+    if (current != null && current.buffer.position() > 0) {
+      submit();
+    }
+  }
+
+  /** Submits the buffered events once the oldest is older than the flush delay; runs on the timer. */
+  private synchronized void flushIfStale() {
+    if (!closed && System.nanoTime() - pendingSinceNanos >= flushDelayNanos) {
+      flush();
+    }
+  }
+
+  /** Events lost because every buffer was still being written, or sent after {@link #close}. */
+  public long droppedEvents() {
+    return dropped.get();
+  }
+
+  /** Bytes handed to the channel so far. */
+  public synchronized long bytesSubmitted() {
+    return position;
+  }
+
+  /**
+   * Flushes, waits up to five seconds for pending writes and closes the file.
+   *
+   * @throws IOException if a write failed or did not finish in time
+   */
+  @Override
+  public void close() throws IOException {
+    int idle;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      timer.shutdownNow();
+      flush();
+      closed = true;
+      idle = current != null ? 1 : 0;
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (free.size() + idle < SEGMENTS && System.nanoTime() < deadline) {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    boolean drained = free.size() + idle == SEGMENTS;
+    channel.close();
+    Throwable error = failure.get();
+    if (error != null) {
+      throw new IOException("Event log write failed", error);
+    }
+    if (!drained) {
+      throw new IOException("Event log writes did not finish in time");
+    }
+  }
+
+  private void submit() {
+    Segment segment = current;
+    segment.buffer.flip();
+    segment.offset = position;
+    position += segment.buffer.remaining();
+    current = free.poll();
+    segment.write();
+  }
+
+  private static void writeBinary(ByteBuffer out, EventBus bus, long sequence) {
+    out.put((byte) bus.type(sequence).ordinal())
+        .putLong(bus.tick(sequence))
+        .putInt(bus.first(sequence))
+        .putInt(bus.second(sequence));
+  }
+
+  private static void writeJson(ByteBuffer out, EventBus bus, long sequence) {
+    GameEventType type = bus.type(sequence);
+    int first = bus.first(sequence);
+    int second = bus.second(sequence);
+    putAscii(out, "{\"tick\":");
+    putDecimal(out, bus.tick(sequence));
+    putAscii(out, ",\"type\":\"");
+    putAscii(out, type.name());
+    out.put((byte) '"');
+    switch (type) {
+      case MOVE -> {
+        putNumberField(out, "cell", first);
+        putNameField(out, "direction", DIRECTIONS[second].name());
+      }
+      case FOOD_EATEN -> {
+        putNumberField(out, "cell", first);
+        putNumberField(out, "length", second);
+      }
+      case FOOD_SPAWNED -> putNumberField(out, "cell", first);
+      case MODE_CHANGED -> {
+        putNameField(out, "mode", MODES[first].name());
+        putNameField(out, "from", MODES[second].name());
+      }
+      case DEATH -> {
+        putNumberField(out, "cell", first);
+        putNameField(out, "cause", CAUSES[second].name());
+      }
+      case ITEM_SPAWNED, ITEM_TAKEN -> {
+        putNumberField(out, "cell", first);
+        putNameField(out, "item", ITEMS[second].name());
+      }
+    }
+    out.put((byte) '}').put((byte) '\n');
+  }
+
+  private static void putNumberField(ByteBuffer out, String name, long value) {
+    putAscii(out, ",\"");
+    putAscii(out, name);
+    putAscii(out, "\":");
+    putDecimal(out, value);
+  }
+
+  private static void putNameField(ByteBuffer out, String name, String value) {
+    putAscii(out, ",\"");
+    putAscii(out, name);
+    putAscii(out, "\":\"");
+    putAscii(out, value);
+    out.put((byte) '"');
+  }
+
+  private static void putAscii(ByteBuffer out, String text) {
+    for (int i = 0; i < text.length(); i++) {
+      out.put((byte) text.charAt(i));
+    }
+  }
+
+  private static void putDecimal(ByteBuffer out, long value) {
+    if (value < 0) {
+      out.put((byte) '-');
+      value = -value;
+    }
+    long divisor = 1;
+    while (divisor <= value / 10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      out.put((byte) ('0' + value / divisor % 10));
+    }
+  }
+
+  /** A buffer and the file offset it is being written to; its own completion handler. */
+  private final class Segment implements CompletionHandler<Integer, Void> {
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(SEGMENT_BYTES);
+    private long offset;
+
+    void write() {
+      channel.write(buffer, offset, null, this);
+    }
+
+    @Override
+    public void completed(Integer written, Void attachment) {
+      offset += written;
+      if (buffer.hasRemaining()) {
+        write();
+      } else {
+        buffer.clear();
+        free.add(this);
+      }
+    }
+
+    @Override
+    public void failed(Throwable error, Void attachment) {
+      failure.compareAndSet(null, error);
+      buffer.clear();
+      free.add(this);
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.mapna.snake;
+
+/** Receives batches of events from an {@link EventBus}, on the thread that publishes them. */
+@FunctionalInterface
+public interface EventSubscriber {
+  /**
+   * Called with events {@code from} (inclusive) to {@code to} (exclusive), read through the
+   * bus's accessors. They are only valid until this call returns; copy what must be kept.
+   */
+  void onEvents(EventBus bus, long from, long to);
+}
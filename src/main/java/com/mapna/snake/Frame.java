@@ -0,0 +1,137 @@
+package com.mapna.snake;
+
+import java.util.Arrays;
+
+/**
+ * What a renderer needs to draw one moment of a game: body cells, food, mode and scores. A
+ * {@link FrameBuffer} fills frames on the simulation thread and hands them to the render
+ * thread; once handed over, a frame does not change until the renderer gives it back, so it
+ * can be painted without locks. Body cells are copied from the snake's ring buffer as packed
+ * {@code y * columns + x} ints, head first, followed by any obstacles and then the items, grouped
+ * by type. A level's obstacles are not copied: the frame keeps the level itself, which never
+ * changes.
+ */
+public final class Frame {
+  private static final ItemType[] ITEM_TYPES = ItemType.values();
+  private int[] cells = new int[64];
+  private int length;
+  private int obstacleCount;
+  /** Start of each item type's run in {@link #cells}, plus the end of the last run. */
+  private final int[] itemOffsets = new int[ITEM_TYPES.length + 1];
+  private int columns = 1;
+  private Level level;
+  private long sequence;
+  private GameMode mode = GameMode.RUNNING;
+  private int score;
+  private int highScore;
+  private int foodX = -1;
+  private int foodY = -1;
+
+  Frame() {
+  }
+
+  /** Copies {@code state} into this frame; only the writer that owns it may call this. */
+  void capture(GameState state, long newSequence) {
+    Snake snake = state.getSnake();
+    int n = snake.length();
+    int obstacles = snake.obstacleCount();
+    ItemMap items = state.getItems();
+    int total = n + obstacles + items.size();
+    if (cells.length < total) {
+      cells = Arrays.copyOf(cells, Math.max(total, cells.length * 2));
+    }
+    for (int i = 0; i < n; i++) {
+      cells[i] = snake.cellAt(i);
+    }
+    for (int i = 0; i < obstacles; i++) {
+      cells[n + i] = snake.obstacleCellAt(i);
+    }
+    int next = n + obstacles;
+    for (ItemType type : ITEM_TYPES) {
+      itemOffsets[type.ordinal()] = next;
+      for (int i = 0; i < items.count(type); i++) {
+        cells[next++] = items.cellAt(type, i);
+      }
+    }
+    itemOffsets[ITEM_TYPES.length] = next;
+    length = n;
+    obstacleCount = obstacles;
+    columns = snake.columns();
+    level = state.getLevel();
+    sequence = newSequence;
+    mode = state.getMode();
+    score = snake.growth();
+    highScore = state.getHighScore();
+    foodX = state.getFood().x();
+    foodY = state.getFood().y();
+  }
+
+  /** Publish count this frame was captured at; 0 until the first publish. */
+  public long sequence() {
+    return sequence;
+  }
+
+  /** The level the game was played on, or null on an empty board. */
+  public Level level() {
+    return level;
+  }
+
+  public GameMode mode() {
+    return mode;
+  }
+
+  public int score() {
+    return score;
+  }
+
+  public int highScore() {
+    return highScore;
+  }
+
+  public int foodX() {
+    return foodX;
+  }
+
+  public int foodY() {
+    return foodY;
+  }
+
+  /** Number of body cells, head included. */
+  public int length() {
+    return length;
+  }
+
+  /** Column of body cell {@code i}, where 0 is the head. */
+  public int cellX(int i) {
+    return cells[i] % columns;
+  }
+
+  /** Row of body cell {@code i}, where 0 is the head. */
+  public int cellY(int i) {
+    return cells[i] / columns;
+  }
+
+  public int obstacleCount() {
+    return obstacleCount;
+  }
+
+  public int obstacleX(int i) {
+    return cells[length + i] % columns;
+  }
+
+  public int obstacleY(int i) {
+    return cells[length + i] / columns;
+  }
+
+  public int itemCount(ItemType type) {
+    return itemOffsets[type.ordinal() + 1] - itemOffsets[type.ordinal()];
+  }
+
+  public int itemX(ItemType type, int i) {
+    return cells[itemOffsets[type.ordinal()] + i] % columns;
+  }
+
+  public int itemY(ItemType type, int i) {
+    return cells[itemOffsets[type.ordinal()] + i] / columns;
+  }
+}
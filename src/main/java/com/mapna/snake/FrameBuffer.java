@@ -0,0 +1,39 @@
+package com.mapna.snake;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple-buffered hand-off of {@link Frame}s from one simulation thread to one render thread.
+ * The writer fills its back frame and swaps it into the middle slot; the reader swaps the
+ * middle slot for its front frame only when something new has been published. Each side is a
+ * single atomic swap on one int (the middle frame's index plus a fresh bit), so neither waits
+ * for the other: the writer never blocks on a slow paint, and the reader always gets the most
+ * recent complete frame, skipping any it was too slow to see.
+ */
+public final class FrameBuffer {
+  private static final int INDEX_MASK = 3;
+  private static final int FRESH = 4;
+  private final Frame[] frames = {new Frame(), new Frame(), new Frame()};
+  private final AtomicInteger middle = new AtomicInteger(1);
+  private int front;
+  private int back = 2;
+  private long published;
+
+  /** Writer: copies {@code state} into a frame and makes it the latest. */
+  public void publish(GameState state) {
+    frames[back].capture(state, ++published);
+    back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+  }
+
+  /**
+   * Reader: the most recently published frame, valid until the next call. Returns the same
+   * frame as last time when nothing new was published; its {@link Frame#sequence} is 0 before
+   * the first publish.
+   */
+  public Frame latest() {
+    if ((middle.get() & FRESH) != 0) {
+      front = middle.getAndSet(front) & INDEX_MASK;
+    }
+    return frames[front];
+  }
+}
@@ -0,0 +1,57 @@
+package com.mapna.snake;
+
+import java.util.Random;
+
+/**
+ * Dense set of free cell indices with a cell-to-slot map, so membership updates are a swap-remove
+ * and picking a uniformly random free cell is a single array read.
+ */
+public class FreeCellIndex {
+  private static final int ABSENT = -1;
+  private final int[] cells;
+  private final int[] slots;
+  private int size;
+
+  /** Creates an index over {@code cellCount} cells, all initially free. */
+  public FreeCellIndex(int cellCount) {
+    cells = new int[cellCount];
+    slots = new int[cellCount];
+    for (int cell = 0; cell < cellCount; cell++) {
+      cells[cell] = cell;
+      slots[cell] = cell;
+    }
+    size = cellCount;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isFree(int cell) {
+    return slots[cell] != ABSENT;
+  }
+
+  public void remove(int cell) {
+    int slot = slots[cell];
+    if (slot == ABSENT) {
+      return;
+    }
+    int last = cells[--size];
+    cells[slot] = last;
+    slots[last] = slot;
+    slots[cell] = ABSENT;
+  }
+
+  public void add(int cell) {
+    if (slots[cell] != ABSENT) {
+      return;
+    }
+    cells[size] = cell;
+    slots[cell] = size++;
+  }
+
+  /** Returns a uniformly chosen free cell; the index must not be empty. */
+  public int random(Random random) {
+    return cells[random.nextInt(size)];
+  }
+}
@@ -6,8 +6,14 @@ import javax.swing.SwingUtilities;
 public class Game {
 
   public static void main(String[] args) {
+    String loop = args.length > 0 ? args[0] : "";
+    LoopMode loopMode = switch (loop) {
+      case "--loop=active" -> LoopMode.ACTIVE;
+      case "--loop=threaded" -> LoopMode.THREADED;
+      default -> LoopMode.TIMER;
+    };
     SwingUtilities.invokeLater(() -> {
-      JFrame window = new Window();
+      JFrame window = new Window(loopMode);
       window.setVisible(true);
     });
   }
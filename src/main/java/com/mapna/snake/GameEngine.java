@@ -1,46 +1,202 @@
 package com.mapna.snake;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 
-public class GameEngine {
+/**
+ * Game rules for one {@link GameState}. Direction requests may come from an input thread while
+ * {@link #tick} runs on the simulation thread: they pass through a lock-free
+ * {@link InputQueue}, so two quick presses within one tick both count, one turn per tick.
+ *
+ * <p>Besides the main food, the engine can scatter {@link ItemType items} at the rates set with
+ * {@link #setItemSpawnRate}. They live in the state's {@link ItemMap}, so checking the head
+ * cell for one costs a single hash probe however many are on the board.
+ */
+public final class GameEngine {
+  /** Turns that can be queued ahead of the snake; further presses are dropped until it catches up. */
+  public static final int INPUT_CAPACITY = 4;
+  /** Random free cells tried before food falls back to walking a level's spawn zones. */
+  private static final int FOOD_ATTEMPTS = 32;
+  /** Items allowed on the board at once unless {@link #setMaxItems} says otherwise. */
+  public static final int DEFAULT_MAX_ITEMS = 64;
+  /** Segments a {@link ItemType#BONUS_FOOD} adds, one per tick. */
+  public static final int BONUS_GROWTH = 3;
+  /** Ticks a speed item lasts; taking another restarts the count. */
+  public static final int SPEED_EFFECT_TICKS = 50;
+  /** Milliseconds a speed item takes off, or adds to, the tick delay. */
+  public static final int SPEED_SHIFT_MS = 20;
+  /** Tail segments a {@link ItemType#SHRINK} pill drops. */
+  public static final int SHRINK_SEGMENTS = 3;
+  private static final ItemType[] ITEM_TYPES = ItemType.values();
+  private final BoardConfig config;
+  private final Topology topology;
+  private final Level level;
   private final Random random;
-  private Direction nextDirection = Direction.UP;
+  private final InputQueue inputs = new InputQueue(INPUT_CAPACITY);
+  private final double[] spawnRates = new double[ITEM_TYPES.length];
+  private boolean spawnsItems;
+  private int maxItems = DEFAULT_MAX_ITEMS;
+  private volatile Direction nextDirection = Direction.UP;
+  private LatencyHistogram inputLatency;
+  private EventBus events;
+  /** Ticks since the last reset, stamped on events. */
+  private long ticks;
 
   public GameEngine() {
     this(new Random());
   }
 
   public GameEngine(Random random) {
+    this(BoardConfig.DEFAULT, random);
+  }
+
+  public GameEngine(BoardConfig config, Random random) {
+    this(config, Topology.torus(config.columns(), config.rows()), random);
+  }
+
+  /**
+   * Plays on {@code topology}, which must match the board size in {@code config}: walls end the
+   * game like the body does, and masked cells never hold the snake or food.
+   */
+  public GameEngine(BoardConfig config, Topology topology, Random random) {
+    this(config, topology, null, random);
+  }
+
+  /**
+   * Plays {@code level}, which must match the board size in {@code config}. Its obstacles and
+   * spawn zones are read from the level's mapping as the game touches them, not copied.
+   */
+  public GameEngine(BoardConfig config, Level level, Random random) {
+    this(config, level.topology(), level, random);
+  }
+
+  private GameEngine(BoardConfig config, Topology topology, Level level, Random random) {
+    this.config = Objects.requireNonNull(config, "config");
+    this.topology = Objects.requireNonNull(topology, "topology");
+    this.level = level;
     this.random = Objects.requireNonNull(random, "random");
+    if (topology.columns() != config.columns() || topology.rows() != config.rows()) {
+      throw new IllegalArgumentException("Topology is " + topology.columns() + "x" + topology.rows()
+          + ", board is " + config.columns() + "x" + config.rows());
+    }
+  }
+
+  public BoardConfig getConfig() {
+    return config;
   }
 
+  public Topology getTopology() {
+    return topology;
+  }
+
+  /** The level being played, or null on an empty board. */
+  public Level getLevel() {
+    return level;
+  }
+
+  /** The last turn accepted by {@link #requestDirection}. */
   public Direction getNextDirection() {
     return nextDirection;
   }
 
+  /** Records, for every turn applied, nanoseconds from its request to the tick that moved the snake. */
+  public void setInputLatency(LatencyHistogram histogram) {
+    this.inputLatency = histogram;
+  }
+
+  /**
+   * Publishes moves, food, mode changes and deaths to {@code bus}, dispatching them at the end
+   * of every tick, reset and pause toggle; null stops publishing. The bus must be used only on
+   * the thread that drives this engine.
+   */
+  public void setEvents(EventBus bus) {
+    this.events = bus;
+  }
+
+  /**
+   * Sets the chance, each tick, that an item of {@code type} appears on a random free cell.
+   * All rates start at zero, which leaves the board to the single main food and draws nothing
+   * extra from the engine's random source.
+   *
+   * @throws IllegalArgumentException if {@code perTick} is not between 0 and 1
+   */
+  public void setItemSpawnRate(ItemType type, double perTick) {
+    if (!(perTick >= 0 && perTick <= 1)) {
+      throw new IllegalArgumentException("Spawn rate must be between 0 and 1, got " + perTick);
+    }
+    spawnRates[type.ordinal()] = perTick;
+    boolean any = false;
+    for (double rate : spawnRates) {
+      any |= rate > 0;
+    }
+    spawnsItems = any;
+  }
+
+  public double getItemSpawnRate(ItemType type) {
+    return spawnRates[type.ordinal()];
+  }
+
+  /** Caps the items on the board; spawning pauses while the cap is reached. */
+  public void setMaxItems(int maxItems) {
+    if (maxItems < 0) {
+      throw new IllegalArgumentException("Invalid item cap " + maxItems);
+    }
+    this.maxItems = maxItems;
+  }
+
   public void reset(GameState state) {
-    state.setSnake(new Snake(random, BoardConfig.PIXEL_WIDTH, BoardConfig.PIXEL_HEIGHT));
+    ticks = 0;
+    state.getItems().clear();
+    state.setPendingGrowth(0);
+    state.setSpeedShiftMs(0);
+    state.setSpeedTicks(0);
+    state.setLevel(level);
+    state.setSnake(level == null ? new Snake(random, topology) : new Snake(random, topology, cell -> !level.isObstacle(cell)));
     state.setDirection(Direction.UP);
+    inputs.clear();
     nextDirection = Direction.UP;
-    state.setMode(GameMode.RUNNING);
+    changeMode(state, GameMode.RUNNING);
     spawnFood(state);
+    dispatch();
   }
 
   public void requestDirection(GameState state, Direction requested) {
-    if (!state.getDirection().isOpposite(requested)) {
+    requestDirection(state, requested, System.nanoTime());
+  }
+
+  /**
+   * Queues a turn for a later tick. Reversals and repeats are checked against the last queued
+   * turn, or the current direction when none is queued, and dropped; so are turns beyond
+   * {@link #INPUT_CAPACITY}. Call from one input thread at a time.
+   */
+  public void requestDirection(GameState state, Direction requested, long stampNanos) {
+    Direction last = inputs.lastOffered();
+    Direction after = last != null ? last : state.getDirection();
+    if (requested != after && !after.isOpposite(requested) && inputs.offer(requested, stampNanos)) {
       nextDirection = requested;
     }
   }
 
+  /**
+   * Puts a permanent obstacle on the board; running into it ends the game like running into
+   * the body. Returns false, changing nothing, if the cell is off the board, under the snake,
+   * under the food or an item, or already an obstacle.
+   */
+  public boolean placeObstacle(GameState state, Position cell) {
+    if (cell.equals(state.getFood()) || hasItem(state, cell) || !state.getSnake().addObstacle(cell)) {
+      return false;
+    }
+    state.getChanges().addCell(cell);
+    return true;
+  }
+
   public void togglePause(GameState state) {
     if (state.getMode() == GameMode.RUNNING) {
-      state.setMode(GameMode.PAUSED);
+      changeMode(state, GameMode.PAUSED);
     } else if (state.getMode() == GameMode.PAUSED) {
-      state.setMode(GameMode.RUNNING);
+      changeMode(state, GameMode.RUNNING);
     }
+    dispatch();
   }
 
   public void tick(GameState state) {
@@ -48,38 +204,218 @@ public class GameEngine {
       return;
     }
 
+    ticks++;
+    if (state.getSpeedTicks() > 0) {
+      state.setSpeedTicks(state.getSpeedTicks() - 1);
+      if (state.getSpeedTicks() == 0) {
+        state.setSpeedShiftMs(0);
+      }
+    }
+    Direction direction = nextTurn(state.getDirection());
     Snake snake = state.getSnake();
-    Position head = snake.nextHead(nextDirection, BoardConfig.PIXEL_WIDTH, BoardConfig.PIXEL_HEIGHT);
-    boolean growing = head.equals(state.getFood());
+    TickChanges changes = state.getChanges();
+    int next = snake.nextCell(direction);
+    state.setDirection(direction);
+    if (next == Topology.WALL || (level != null && level.isObstacle(next))) {
+      die(state, next, next == Topology.WALL ? DeathCause.WALL : DeathCause.OBSTACLE);
+      return;
+    }
+    Position head = Position.ofIndex(next, snake.columns());
+    Position food = state.getFood();
+    // Both are usually canonical Position.of instances, so the identity check settles it.
+    boolean ateFood = head == food || head.equals(food);
+    ItemMap items = state.getItems();
+    ItemType item = items.size() == 0 ? null : items.remove(next);
+    boolean fed = ateFood || item == ItemType.FOOD || item == ItemType.BONUS_FOOD;
+    boolean growing = fed || state.getPendingGrowth() > 0;
+    if (growing && !fed) {
+      state.setPendingGrowth(state.getPendingGrowth() - 1);
+    }
 
-    state.setDirection(nextDirection);
+    if (!growing) {
+      changes.addCell(snake.getTail());
+    }
     snake.move(head, growing);
+    changes.addCell(head);
+    emit(GameEventType.MOVE, next, direction.ordinal());
 
     if (snake.eatingSelf()) {
-      state.setMode(GameMode.GAME_OVER);
+      die(state, next, snake.isObstacle(head) ? DeathCause.OBSTACLE : DeathCause.SELF);
       return;
     }
 
+    if (ateFood) {
+      emit(GameEventType.FOOD_EATEN, next, snake.length());
+    }
+    if (item != null) {
+      takeItem(state, item, next);
+    }
     if (growing) {
-      if (snake.getBody().size() >= BoardConfig.PIXEL_WIDTH * BoardConfig.PIXEL_HEIGHT) {
-        state.setMode(GameMode.WON);
-      } else {
-        spawnFood(state);
+      changes.markScoreChanged();
+      if (snake.freeCellCount() == 0 || ateFood && !spawnFood(state)) {
+        changeMode(state, GameMode.WON);
+      } else if (ateFood) {
+        changes.addCell(state.getFood());
+      }
+    }
+    if (spawnsItems && state.getMode() == GameMode.RUNNING) {
+      spawnItems(state);
+    }
+    dispatch();
+  }
+
+  private void takeItem(GameState state, ItemType item, int cell) {
+    emit(GameEventType.ITEM_TAKEN, cell, item.ordinal());
+    switch (item) {
+      case FOOD -> { }
+      case BONUS_FOOD -> state.setPendingGrowth(state.getPendingGrowth() + BONUS_GROWTH - 1);
+      case SPEED_UP, SLOW_DOWN -> {
+        state.setSpeedShiftMs(item == ItemType.SPEED_UP ? -SPEED_SHIFT_MS : SPEED_SHIFT_MS);
+        state.setSpeedTicks(SPEED_EFFECT_TICKS);
+      }
+      case SHRINK -> {
+        Snake snake = state.getSnake();
+        for (int i = 0; i < SHRINK_SEGMENTS; i++) {
+          Position tail = snake.getTail();
+          if (!snake.dropTail()) {
+            break;
+          }
+          state.getChanges().addCell(tail);
+        }
+        state.getChanges().markScoreChanged();
+      }
+    }
+  }
+
+  /** Rolls each type with a non-zero rate and drops the winners on random free cells. */
+  private void spawnItems(GameState state) {
+    ItemMap items = state.getItems();
+    for (ItemType type : ITEM_TYPES) {
+      double rate = spawnRates[type.ordinal()];
+      if (rate > 0 && items.size() < maxItems && random.nextDouble() < rate) {
+        int cell = freeItemCell(state);
+        if (cell >= 0) {
+          items.put(cell, type);
+          state.getChanges().addCell(Position.ofIndex(cell, topology.columns()));
+          emit(GameEventType.ITEM_SPAWNED, cell, type.ordinal());
+        }
       }
     }
   }
 
-  private void spawnFood(GameState state) {
+  /**
+   * A random cell clear of the snake, obstacles, food and other items, and inside the level's
+   * spawn zones; -1 if sampling finds none, in which case the item is skipped this tick.
+   */
+  private int freeItemCell(GameState state) {
     Snake snake = state.getSnake();
-    List<Position> free = new ArrayList<>();
-    for (int x = 0; x < BoardConfig.PIXEL_WIDTH; x++) {
-      for (int y = 0; y < BoardConfig.PIXEL_HEIGHT; y++) {
-        Position p = new Position(x, y);
-        if (!snake.contains(p)) {
-          free.add(p);
+    ItemMap items = state.getItems();
+    int food = state.getFood().index(topology.columns());
+    for (int i = 0; i < FOOD_ATTEMPTS; i++) {
+      int cell = random.nextInt(topology.cellCount());
+      if (cell != food && snake.isFreeCell(cell) && items.typeAt(cell) == null && (level == null || level.canSpawnFood(cell))) {
+        return cell;
+      }
+    }
+    return -1;
+  }
+
+  private boolean hasItem(GameState state, Position cell) {
+    return state.getItems().size() > 0 && cell.x() >= 0 && cell.x() < topology.columns()
+        && cell.y() >= 0 && cell.y() < topology.rows() && state.getItems().typeAt(cell.index(topology.columns())) != null;
+  }
+
+  private void die(GameState state, int cell, DeathCause cause) {
+    emit(GameEventType.DEATH, cell, cause.ordinal());
+    changeMode(state, GameMode.GAME_OVER);
+    dispatch();
+  }
+
+  private void changeMode(GameState state, GameMode mode) {
+    emit(GameEventType.MODE_CHANGED, mode.ordinal(), state.getMode().ordinal());
+    state.setMode(mode);
+    state.getChanges().markFullRedraw();
+  }
+
+  private void emit(GameEventType type, int first, int second) {
+    EventBus bus = events;
+    if (bus != null) {
+      bus.publish(type, ticks, first, second);
+    }
+  }
+
+  private void dispatch() {
+    EventBus bus = events;
+    if (bus != null) {
+      bus.dispatch();
+    }
+  }
+
+  /**
+   * Takes the first queued turn that is still valid from {@code current}; the input thread may
+   * have checked it against a direction this tick has since replaced.
+   */
+  private Direction nextTurn(Direction current) {
+    Direction turn;
+    while ((turn = inputs.poll()) != null) {
+      if (turn != current && !current.isOpposite(turn)) {
+        if (inputLatency != null) {
+          inputLatency.record(System.nanoTime() - inputs.lastStamp());
         }
+        return turn;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Puts food on a random free cell, inside the level's spawn zones and off its obstacles if
+   * there is a level. Returns false, leaving the food where it was, if no cell qualifies; at
+   * least one cell must be free of the snake.
+   */
+  boolean spawnFood(GameState state) {
+    Snake snake = state.getSnake();
+    if (level == null) {
+      placeFood(state, snake.randomFreeCell(random));
+      return true;
+    }
+    for (int i = 0; i < FOOD_ATTEMPTS; i++) {
+      Position food = snake.randomFreeCell(random);
+      if (level.canSpawnFood(food.index(snake.columns()))) {
+        placeFood(state, food);
+        return true;
+      }
+    }
+    // Zones may cover a sliver of a large map, so walk them from a random cell instead,
+    // leapfrogging between the next spawn cell and the next free cell until the two meet. Both
+    // are word scans, so stretches of body or of closed map are skipped 64 cells at a time.
+    int cellCount = level.cellCount();
+    int cell = level.nextSpawnCell(random.nextInt(cellCount));
+    long walked = 0;
+    while (cell >= 0 && walked <= cellCount) {
+      int free = snake.nextFreeCell(cell);
+      if (free < 0) {
+        return false;
+      }
+      walked += Math.floorMod(free - cell, cellCount);
+      int spawn = level.nextSpawnCell(free);
+      if (spawn == free) {
+        placeFood(state, Position.ofIndex(free, snake.columns()));
+        return true;
       }
+      walked += Math.floorMod(spawn - free, cellCount);
+      cell = spawn;
+    }
+    return false;
+  }
+
+  /** Food that lands on an item replaces it. */
+  private void placeFood(GameState state, Position food) {
+    int cell = food.index(state.getSnake().columns());
+    state.setFood(food);
+    if (state.getItems().size() > 0) {
+      state.getItems().remove(cell);
     }
-    state.setFood(free.get(random.nextInt(free.size())));
+    emit(GameEventType.FOOD_SPAWNED, cell, 0);
   }
 }
@@ -0,0 +1,22 @@
+package com.mapna.snake;
+
+/**
+ * Kinds of event {@link GameEngine} publishes to an {@link EventBus}. Each event carries the
+ * tick it happened in and two ints whose meaning depends on the kind.
+ */
+public enum GameEventType {
+  /** The head entered a cell. First: packed cell; second: {@link Direction} ordinal. */
+  MOVE,
+  /** The snake ate. First: packed cell; second: length after eating. */
+  FOOD_EATEN,
+  /** Food appeared. First: packed cell; second: unused. */
+  FOOD_SPAWNED,
+  /** The game changed mode. First: new {@link GameMode} ordinal; second: previous one. */
+  MODE_CHANGED,
+  /** The snake died. First: packed cell it tried to enter, -1 off the board; second: {@link DeathCause} ordinal. */
+  DEATH,
+  /** An {@link ItemType item} appeared. First: packed cell; second: {@link ItemType} ordinal. */
+  ITEM_SPAWNED,
+  /** The snake took an item. First: packed cell; second: {@link ItemType} ordinal. */
+  ITEM_TAKEN
+}
@@ -0,0 +1,190 @@
+package com.mapna.snake;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-timestep loop for a dedicated thread. Ticks are scheduled on {@link System#nanoTime}
+ * at the configured delay and caught up after a stall instead of being dropped; frames are
+ * presented at their own cadence. Key presses arrive from the EDT through {@link #post}: turns go
+ * straight into the engine's lock-free input queue, stamped with the press time, and pause,
+ * restart and exit are queued as commands for the loop thread, which owns the engine and state.
+ *
+ * <p>With {@link #publishTo} the loop never paints: after each change it publishes a
+ * {@link Frame} and a separate render thread paints the latest one, so a slow paint cannot
+ * delay a tick.
+ */
+public class GameLoop implements Runnable {
+  /** Frame period of roughly 60 Hz, independent of the tick rate. */
+  static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+  /** Ticks run back to back after a stall before the schedule is reset to now. */
+  static final int MAX_CATCH_UP_TICKS = 5;
+  /** Commands held between loop iterations; past this the oldest are dropped. */
+  static final int PENDING_COMMANDS = 8;
+
+  private final BoardConfig config;
+  private final GameEngine engine;
+  private final GameState state;
+  private final HighScoreStore highScoreStore;
+  private final Runnable presenter;
+  private final Runnable onExit;
+  private final GameMetrics metrics;
+  private final ArrayBlockingQueue<Command> pendingCommands = new ArrayBlockingQueue<>(PENDING_COMMANDS);
+  private volatile boolean running = true;
+  private FrameBuffer frames;
+  private boolean changed;
+  private boolean highScoreSaved;
+  private long nextTickNanos;
+  private long nextFrameNanos;
+
+  public GameLoop(BoardConfig config, GameEngine engine, GameState state, HighScoreStore highScoreStore,
+                  Runnable presenter, Runnable onExit, GameMetrics metrics) {
+    this.config = config;
+    this.engine = engine;
+    this.state = state;
+    this.highScoreStore = highScoreStore;
+    this.presenter = presenter;
+    this.onExit = onExit;
+    this.metrics = metrics;
+    engine.setInputLatency(metrics.inputToMoveNanos());
+  }
+
+  /** Queues a key press for the loop thread; call from one input thread, normally the EDT. */
+  public void post(int keyCode) {
+    switch (keyCode) {
+      case KeyEvent.VK_DOWN, KeyEvent.VK_S -> engine.requestDirection(state, Direction.DOWN);
+      case KeyEvent.VK_UP, KeyEvent.VK_W -> engine.requestDirection(state, Direction.UP);
+      case KeyEvent.VK_LEFT, KeyEvent.VK_A -> engine.requestDirection(state, Direction.LEFT);
+      case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> engine.requestDirection(state, Direction.RIGHT);
+      case KeyEvent.VK_P -> queue(Command.PAUSE);
+      case KeyEvent.VK_R -> queue(Command.RESTART);
+      case KeyEvent.VK_ESCAPE -> queue(Command.EXIT);
+      default -> { }
+    }
+  }
+
+  /** Queues a command for the loop thread, dropping the oldest when it is that far behind. */
+  private void queue(Command command) {
+    while (!pendingCommands.offer(command)) {
+      pendingCommands.poll();
+    }
+  }
+
+  /** Publishes frames to {@code frameBuffer} instead of calling the presenter; call before the loop starts. */
+  public void publishTo(FrameBuffer frameBuffer) {
+    this.frames = frameBuffer;
+  }
+
+  public void stop() {
+    running = false;
+  }
+
+  /** Starts a fresh game; call on the loop thread, or before it starts. */
+  public void restart(long now) {
+    engine.reset(state);
+    state.setHighScore(highScoreStore.load());
+    highScoreSaved = false;
+    nextTickNanos = now + TimeUnit.MILLISECONDS.toNanos(config.tickRateMs());
+    nextFrameNanos = now;
+    changed = true;
+  }
+
+  @Override
+  public void run() {
+    restart(System.nanoTime());
+    while (running) {
+      long now = System.nanoTime();
+      update(now);
+      if (now - nextFrameNanos >= 0) {
+        // With a frame buffer the frame period only paces how often posted keys are checked.
+        if (frames == null) {
+          long paintStart = System.nanoTime();
+          presenter.run();
+          metrics.paintFinished(paintStart);
+        }
+        nextFrameNanos = Math.max(nextFrameNanos + FRAME_NANOS, now);
+      }
+      long wake = Math.min(nextFrameNanos, state.getMode() == GameMode.RUNNING ? nextTickNanos : nextFrameNanos);
+      long sleep = wake - System.nanoTime();
+      if (sleep > 0) {
+        LockSupport.parkNanos(sleep);
+      }
+    }
+  }
+
+  /**
+   * Applies queued input and runs every tick due by {@code now}, then publishes a frame if
+   * anything changed and frames are enabled; returns the ticks run.
+   */
+  int update(long now) {
+    int ticks = runDueTicks(now);
+    if (frames != null && changed) {
+      frames.publish(state);
+      changed = false;
+    }
+    return ticks;
+  }
+
+  private int runDueTicks(long now) {
+    Command command;
+    while ((command = pendingCommands.poll()) != null) {
+      apply(command, now);
+      changed = true;
+    }
+    if (state.getMode() != GameMode.RUNNING) {
+      return 0;
+    }
+    int ticks = 0;
+    while (now - nextTickNanos >= 0 && state.getMode() == GameMode.RUNNING) {
+      long delay = TimeUnit.MILLISECONDS.toNanos(state.tickDelayMs(config));
+      if (ticks == MAX_CATCH_UP_TICKS) {
+        metrics.ticksMissed((now - nextTickNanos) / delay + 1);
+        nextTickNanos = now + delay;
+        break;
+      }
+      metrics.tickLate(now - nextTickNanos);
+      long tickStart = metrics.tickStarted();
+      engine.tick(state);
+      metrics.tickFinished(tickStart);
+      nextTickNanos += TimeUnit.MILLISECONDS.toNanos(state.tickDelayMs(config));
+      ticks++;
+      changed = true;
+    }
+    if ((state.getMode() == GameMode.GAME_OVER || state.getMode() == GameMode.WON) && !highScoreSaved) {
+      long saveStart = System.nanoTime();
+      state.setHighScore(highScoreStore.saveIfHigher(state.getSnake().growth()));
+      metrics.highScoreSaved(saveStart);
+      highScoreSaved = true;
+    }
+    return ticks;
+  }
+
+  private void apply(Command command, long now) {
+    switch (command) {
+      case PAUSE -> {
+        engine.togglePause(state);
+        if (state.getMode() == GameMode.RUNNING) {
+          nextTickNanos = now + TimeUnit.MILLISECONDS.toNanos(state.tickDelayMs(config));
+        }
+      }
+      case RESTART -> {
+        if (state.getMode() == GameMode.GAME_OVER || state.getMode() == GameMode.WON) {
+          restart(now);
+        }
+      }
+      case EXIT -> {
+        running = false;
+        onExit.run();
+      }
+    }
+  }
+
+  /** Keys the loop thread handles itself; direction keys bypass it. */
+  private enum Command {
+    PAUSE,
+    RESTART,
+    EXIT
+  }
+}
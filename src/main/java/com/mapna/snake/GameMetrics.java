@@ -0,0 +1,198 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Tick, paint and high-score save latencies, tick start lateness, tick-to-paint and input-to-move latency, missed
+ * ticks and bytes allocated per tick for the running game. The process-wide instance is published as the MBean
+ * {@value #OBJECT_NAME} and, when {@value #LOG_PROPERTY} names a file, appended to it every
+ * {@value #LOG_PERIOD_PROPERTY} seconds (default 10).
+ */
+public class GameMetrics implements GameMetricsMXBean {
+  public static final String OBJECT_NAME = "com.mapna.snake:type=GameMetrics";
+  public static final String LOG_PROPERTY = "snake.metrics.log";
+  public static final String LOG_PERIOD_PROPERTY = "snake.metrics.period";
+  private static final double NANOS_PER_MICRO = 1_000.0;
+  private static GameMetrics global;
+
+  private final LatencyHistogram tickNanos = new LatencyHistogram();
+  private final LatencyHistogram tickLatenessNanos = new LatencyHistogram();
+  private final LatencyHistogram paintNanos = new LatencyHistogram();
+  private final LatencyHistogram tickToPaintNanos = new LatencyHistogram();
+  private final LatencyHistogram saveNanos = new LatencyHistogram();
+  private final LatencyHistogram allocatedBytes = new LatencyHistogram();
+  private final LatencyHistogram inputToMoveNanos = new LatencyHistogram();
+  private final AtomicLong missedTicks = new AtomicLong();
+  private final com.sun.management.ThreadMXBean threads;
+  private long tickAllocationStart;
+  private volatile long unpaintedTickEnd;
+
+  public GameMetrics() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+      sun.setThreadAllocatedMemoryEnabled(true);
+      threads = sun;
+    } else {
+      threads = null;
+    }
+  }
+
+  /** The process-wide instance, registered with the platform MBean server on first use. */
+  public static synchronized GameMetrics global() {
+    if (global == null) {
+      global = new GameMetrics();
+      global.register();
+      String log = System.getProperty(LOG_PROPERTY);
+      if (log != null) {
+        global.startLogging(Path.of(log), Long.getLong(LOG_PERIOD_PROPERTY, 10));
+      }
+    }
+    return global;
+  }
+
+  private void register() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    } catch (JMException e) {
+      System.err.println("Failed to register metrics MBean: " + e.getMessage());
+    }
+  }
+
+  /** Appends a summary line to {@code file} every {@code periodSeconds} on a daemon thread. */
+  public void startLogging(Path file, long periodSeconds) {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "snake-metrics-log");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleAtFixedRate(() -> {
+      try {
+        Files.writeString(file, summaryLine() + System.lineSeparator(), StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+      } catch (IOException e) {
+        System.err.println("Failed to write metrics: " + e.getMessage());
+      }
+    }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+  }
+
+  String summaryLine() {
+    return Instant.now() + " tick[us] " + getTickMicros() + " | tick-late[us] " + getTickLatenessMicros()
+        + " | paint[us] " + getPaintMicros()
+        + " | tick-to-paint[us] " + getTickToPaintMicros() + " | save[us] " + getHighScoreSaveMicros()
+        + " | input-to-move[us] " + getInputToMoveMicros() + " | alloc[B/tick] " + getAllocatedBytesPerTick()
+        + " | missed " + getMissedTicks();
+  }
+
+  /** Call on the ticking thread just before a tick; returns the start timestamp. */
+  public long tickStarted() {
+    if (threads != null) {
+      tickAllocationStart = threads.getCurrentThreadAllocatedBytes();
+    }
+    return System.nanoTime();
+  }
+
+  /** Call on the ticking thread right after the tick that began at {@code start}. */
+  public void tickFinished(long start) {
+    long end = System.nanoTime();
+    if (threads != null) {
+      allocatedBytes.record(threads.getCurrentThreadAllocatedBytes() - tickAllocationStart);
+    }
+    tickNanos.record(end - start);
+    unpaintedTickEnd = end;
+  }
+
+  /** Call when a tick starts {@code lateNanos} after its scheduled time; early starts count as on time. */
+  public void tickLate(long lateNanos) {
+    tickLatenessNanos.record(Math.max(0, lateNanos));
+  }
+
+  public void paintFinished(long start) {
+    long end = System.nanoTime();
+    paintNanos.record(end - start);
+    long tickEnd = unpaintedTickEnd;
+    if (tickEnd != 0) {
+      tickToPaintNanos.record(end - tickEnd);
+      unpaintedTickEnd = 0;
+    }
+  }
+
+  /** Histogram to hand to {@link GameEngine#setInputLatency}, in nanoseconds. */
+  public LatencyHistogram inputToMoveNanos() {
+    return inputToMoveNanos;
+  }
+
+  public void highScoreSaved(long start) {
+    saveNanos.record(System.nanoTime() - start);
+  }
+
+  public void ticksMissed(long count) {
+    if (count > 0) {
+      missedTicks.addAndGet(count);
+    }
+  }
+
+  @Override
+  public LatencySnapshot getTickMicros() {
+    return tickNanos.snapshot(NANOS_PER_MICRO);
+  }
+
+  @Override
+  public LatencySnapshot getTickLatenessMicros() {
+    return tickLatenessNanos.snapshot(NANOS_PER_MICRO);
+  }
+
+  @Override
+  public LatencySnapshot getPaintMicros() {
+    return paintNanos.snapshot(NANOS_PER_MICRO);
+  }
+
+  @Override
+  public LatencySnapshot getTickToPaintMicros() {
+    return tickToPaintNanos.snapshot(NANOS_PER_MICRO);
+  }
+
+  @Override
+  public LatencySnapshot getHighScoreSaveMicros() {
+    return saveNanos.snapshot(NANOS_PER_MICRO);
+  }
+
+  @Override
+  public LatencySnapshot getInputToMoveMicros() {
+    return inputToMoveNanos.snapshot(NANOS_PER_MICRO);
+  }
+
+  @Override
+  public LatencySnapshot getAllocatedBytesPerTick() {
+    return allocatedBytes.snapshot(1);
+  }
+
+  @Override
+  public long getMissedTicks() {
+    return missedTicks.get();
+  }
+
+  @Override
+  public void reset() {
+    tickNanos.reset();
+    tickLatenessNanos.reset();
+    paintNanos.reset();
+    tickToPaintNanos.reset();
+    saveNanos.reset();
+    allocatedBytes.reset();
+    inputToMoveNanos.reset();
+    missedTicks.set(0);
+  }
+}
@@ -0,0 +1,24 @@
+package com.mapna.snake;
+
+/** JMX view of {@link GameMetrics}; latencies are in microseconds. */
+public interface GameMetricsMXBean {
+  LatencySnapshot getTickMicros();
+
+  /** How late each tick started relative to its fixed-timestep schedule. */
+  LatencySnapshot getTickLatenessMicros();
+
+  LatencySnapshot getPaintMicros();
+
+  LatencySnapshot getTickToPaintMicros();
+
+  LatencySnapshot getHighScoreSaveMicros();
+
+  /** From a direction key press to the tick that turned the snake. */
+  LatencySnapshot getInputToMoveMicros();
+
+  LatencySnapshot getAllocatedBytesPerTick();
+
+  long getMissedTicks();
+
+  void reset();
+}
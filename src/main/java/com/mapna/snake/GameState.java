@@ -2,10 +2,16 @@ package com.mapna.snake;
 
 public class GameState {
   private Snake snake;
-  private Position food = new Position(0, 0);
+  private Level level;
+  private Position food = Position.of(0, 0);
+  private final ItemMap items = new ItemMap();
+  private int speedShiftMs;
+  private int speedTicks;
+  private int pendingGrowth;
   private Direction direction = Direction.UP;
   private GameMode mode = GameMode.RUNNING;
   private int highScore = -1;
+  private final TickChanges changes = new TickChanges();
 
   public Snake getSnake() {
     return snake;
@@ -15,6 +21,15 @@ public class GameState {
     this.snake = snake;
   }
 
+  /** The level being played, or null on an empty board. */
+  public Level getLevel() {
+    return level;
+  }
+
+  public void setLevel(Level level) {
+    this.level = level;
+  }
+
   public Position getFood() {
     return food;
   }
@@ -23,6 +38,43 @@ public class GameState {
     this.food = food;
   }
 
+  /** Items on the board besides {@link #getFood}; empty unless the engine has spawn rates set. */
+  public ItemMap getItems() {
+    return items;
+  }
+
+  /** Milliseconds a speed item currently adds to the tick delay; negative while sped up. */
+  public int getSpeedShiftMs() {
+    return speedShiftMs;
+  }
+
+  public void setSpeedShiftMs(int speedShiftMs) {
+    this.speedShiftMs = speedShiftMs;
+  }
+
+  /** Ticks left before the current speed item wears off; 0 when none is active. */
+  public int getSpeedTicks() {
+    return speedTicks;
+  }
+
+  public void setSpeedTicks(int speedTicks) {
+    this.speedTicks = speedTicks;
+  }
+
+  /** Segments still owed by bonus food, added one per tick. */
+  public int getPendingGrowth() {
+    return pendingGrowth;
+  }
+
+  public void setPendingGrowth(int pendingGrowth) {
+    this.pendingGrowth = pendingGrowth;
+  }
+
+  /** Delay before the next tick: the config's pace for the current growth, shifted by any speed item. */
+  public int tickDelayMs(BoardConfig config) {
+    return config.delayMs(snake.growth(), speedShiftMs);
+  }
+
   public Direction getDirection() {
     return direction;
   }
@@ -46,4 +98,8 @@ public class GameState {
   public void setHighScore(int highScore) {
     this.highScore = highScore;
   }
+
+  public TickChanges getChanges() {
+    return changes;
+  }
 }
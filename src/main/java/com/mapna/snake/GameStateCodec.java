@@ -0,0 +1,273 @@
+package com.mapna.snake;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary snapshot of a {@link GameState}.
+ *
+ * <p>A fixed {@value #HEADER_BYTES}-byte header holds the board size, topology flags
+ * ({@link #WALLED}, {@link #MASKED}, {@link #LEVEL}), mode, direction, high score, food, the head
+ * cell, the obstacle count and how many of those obstacles are the topology's masked cells,
+ * the item count, and the speed effect and growth still owed by bonus food. Each obstacle
+ * follows as a packed cell int, masked cells first and the rest in the order they were placed;
+ * then each {@link ItemMap item} as a packed cell int and an {@link ItemType} ordinal byte, type
+ * by type; then the rest of the body as one 2-bit step per segment (the {@link Direction}
+ * ordinal from each segment to the next, wrapping where the board does), four steps per byte. A
+ * full 20x20 board without obstacles or items packs into 158 bytes. Encoding reads the snake's ring buffer
+ * directly and writes into the caller's buffer without allocating; decoding rebuilds an equal
+ * {@link Snake} on an equal {@link Topology}, including its occupancy.
+ *
+ * <p>A level is not copied into the snapshot, since its file can be far larger than the game;
+ * the snapshot only records that one was played, and {@link #decodeInto(ByteBuffer, GameState,
+ * Level)} must be given a level of the same size and edges.
+ */
+public final class GameStateCodec {
+  public static final int HEADER_BYTES = 58;
+  private static final int ITEM_BYTES = Integer.BYTES + 1;
+  /** Topology flag: the edges are walls instead of wrapping. */
+  public static final int WALLED = 1;
+  /** Topology flag: the first masked-count obstacles are the topology's closed cells. */
+  public static final int MASKED = 2;
+  /** Topology flag: the game was played on a {@link Level}. */
+  public static final int LEVEL = 4;
+  private static final short MAGIC = 0x534E;
+  private static final byte VERSION = 4;
+  private static final ItemType[] ITEM_TYPES = ItemType.values();
+  private static final GameMode[] MODES = GameMode.values();
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private GameStateCodec() {
+  }
+
+  /** Bytes {@link #encode} writes for this state. */
+  public static int encodedSize(GameState state) {
+    return encodedSize(state.getSnake().length()) + state.getSnake().obstacleCount() * Integer.BYTES
+        + state.getItems().size() * ITEM_BYTES;
+  }
+
+  /** Bytes needed for a snake of the given length on a board without obstacles or items. */
+  public static int encodedSize(int length) {
+    return HEADER_BYTES + (length - 1 + 3) / 4;
+  }
+
+  /**
+   * Writes a snapshot at the buffer's position and advances it.
+   *
+   * @throws BufferOverflowException if fewer than {@link #encodedSize(GameState)} bytes remain
+   */
+  public static void encode(GameState state, ByteBuffer out) {
+    Snake snake = state.getSnake();
+    Topology topology = snake.topology();
+    int width = snake.columns();
+    int height = snake.rows();
+    int length = snake.length();
+    int obstacles = snake.obstacleCount();
+    ItemMap items = state.getItems();
+    if (out.remaining() < encodedSize(state)) {
+      throw new BufferOverflowException();
+    }
+    int flags = (topology.wraps() ? 0 : WALLED) | (topology.maskedCount() > 0 ? MASKED : 0)
+        | (state.getLevel() != null ? LEVEL : 0);
+    Position food = state.getFood();
+    out.putShort(MAGIC).put(VERSION)
+        .put((byte) flags)
+        .put((byte) state.getMode().ordinal())
+        .put((byte) state.getDirection().ordinal())
+        .putInt(width).putInt(height)
+        .putInt(state.getHighScore())
+        .putInt(food.x()).putInt(food.y())
+        .putInt(length)
+        .putInt(snake.cellAt(0))
+        .putInt(obstacles)
+        .putInt(topology.maskedCount())
+        .putInt(items.size())
+        .putInt(state.getSpeedShiftMs())
+        .putInt(state.getSpeedTicks())
+        .putInt(state.getPendingGrowth());
+    // The snake blocks its topology's masked cells before anything else, so they lead the list.
+    for (int i = 0; i < obstacles; i++) {
+      out.putInt(snake.obstacleCellAt(i));
+    }
+    for (ItemType type : ITEM_TYPES) {
+      for (int i = 0; i < items.count(type); i++) {
+        out.putInt(items.cellAt(type, i)).put((byte) type.ordinal());
+      }
+    }
+
+    int packed = 0;
+    int steps = 0;
+    int previous = snake.cellAt(0);
+    for (int i = 1; i < length; i++) {
+      int cell = snake.cellAt(i);
+      packed |= step(previous, cell, width, height) << (steps << 1);
+      previous = cell;
+      if (++steps == 4) {
+        out.put((byte) packed);
+        packed = 0;
+        steps = 0;
+      }
+    }
+    if (steps > 0) {
+      out.put((byte) packed);
+    }
+  }
+
+  /** Reads a snapshot taken without a level from the buffer's position into a new state. */
+  public static GameState decode(ByteBuffer in) {
+    GameState state = new GameState();
+    decodeInto(in, state);
+    return state;
+  }
+
+  /** As {@link #decodeInto(ByteBuffer, GameState, Level)} for a snapshot taken without a level. */
+  public static void decodeInto(ByteBuffer in, GameState state) {
+    decodeInto(in, state, null);
+  }
+
+  /**
+   * Reads a snapshot from the buffer's position into {@code state}, replacing its snake,
+   * topology and obstacles, level, food, items, speed effect, owed growth, direction, mode and
+   * high score, and marks a full redraw.
+   *
+   * @param level the level the snapshot was taken on, or null if it was taken without one
+   * @throws IllegalArgumentException if the bytes are not a valid snapshot, or {@code level} is
+   *     missing, unexpected, or of another size or edges than the snapshot's board
+   */
+  public static void decodeInto(ByteBuffer in, GameState state, Level level) {
+    try {
+      if (in.getShort() != MAGIC || in.get() != VERSION) {
+        throw new IllegalArgumentException("Not a game state snapshot");
+      }
+      int flags = in.get();
+      int mode = in.get();
+      int direction = in.get();
+      int width = in.getInt();
+      int height = in.getInt();
+      int highScore = in.getInt();
+      int foodX = in.getInt();
+      int foodY = in.getInt();
+      int length = in.getInt();
+      int cell = in.getInt();
+      int obstacles = in.getInt();
+      int masked = in.getInt();
+      int itemCount = in.getInt();
+      int speedShiftMs = in.getInt();
+      int speedTicks = in.getInt();
+      int pendingGrowth = in.getInt();
+      long cells = (long) width * height;
+      if (mode < 0 || mode >= MODES.length || direction < 0 || direction >= DIRECTIONS.length
+          || width <= 0 || height <= 0 || length <= 0 || length > cells || cell < 0 || cell >= cells
+          || obstacles < 0 || obstacles > cells - length || masked < 0 || masked > obstacles
+          || (masked > 0) != ((flags & MASKED) != 0) || (flags & ~(WALLED | MASKED | LEVEL)) != 0
+          || itemCount < 0 || itemCount > cells || speedTicks < 0 || pendingGrowth < 0) {
+        throw new IllegalArgumentException("Corrupt game state snapshot");
+      }
+      checkLevel(level, flags, width, height);
+
+      Topology topology = (flags & WALLED) != 0 ? Topology.walled(width, height) : Topology.torus(width, height);
+      int[] obstacleCells = new int[obstacles];
+      for (int i = 0; i < obstacles; i++) {
+        obstacleCells[i] = in.getInt();
+        if (obstacleCells[i] < 0 || obstacleCells[i] >= cells) {
+          throw new IllegalArgumentException("Corrupt game state snapshot");
+        }
+      }
+      if (masked > 0) {
+        Bitboard mask = new Bitboard(width, height);
+        for (int i = 0; i < masked; i++) {
+          mask.set(obstacleCells[i] % width, obstacleCells[i] / width);
+        }
+        topology = topology.withMask(mask);
+      }
+      // Items are checked now but only copied into the state once the body has decoded too.
+      int itemsAt = in.position();
+      for (int i = 0; i < itemCount; i++) {
+        int itemCell = in.getInt();
+        int type = in.get();
+        if (itemCell < 0 || itemCell >= cells || type < 0 || type >= ITEM_TYPES.length) {
+          throw new IllegalArgumentException("Corrupt game state snapshot");
+        }
+      }
+
+      Snake snake = new Snake(topology);
+      for (int i = masked; i < obstacles; i++) {
+        if (!snake.addObstacle(Position.ofIndex(obstacleCells[i], width))) {
+          throw new IllegalArgumentException("Corrupt game state snapshot");
+        }
+      }
+      snake.appendCell(cell);
+      int packed = 0;
+      for (int i = 1; i < length; i++) {
+        int slot = (i - 1) & 3;
+        if (slot == 0) {
+          packed = in.get();
+        }
+        cell = topology.neighbour(cell, (packed >>> (slot << 1)) & 3);
+        if (cell == Topology.WALL) {
+          throw new IllegalArgumentException("Corrupt game state snapshot");
+        }
+        snake.appendCell(cell);
+      }
+
+      ItemMap items = state.getItems();
+      items.clear();
+      for (int i = 0; i < itemCount; i++) {
+        int at = itemsAt + i * ITEM_BYTES;
+        if (!items.put(in.getInt(at), ITEM_TYPES[in.get(at + Integer.BYTES)])) {
+          throw new IllegalArgumentException("Corrupt game state snapshot: two items on cell " + in.getInt(at));
+        }
+      }
+      state.setSnake(snake);
+      state.setLevel(level);
+      state.setSpeedShiftMs(speedShiftMs);
+      state.setSpeedTicks(speedTicks);
+      state.setPendingGrowth(pendingGrowth);
+      state.setFood(Position.of(foodX, foodY));
+      state.setDirection(DIRECTIONS[direction]);
+      state.setMode(MODES[mode]);
+      state.setHighScore(highScore);
+      state.getChanges().markFullRedraw();
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated game state snapshot", e);
+    }
+  }
+
+  private static void checkLevel(Level level, int flags, int width, int height) {
+    boolean walled = (flags & WALLED) != 0;
+    if ((flags & LEVEL) == 0) {
+      if (level != null) {
+        throw new IllegalArgumentException("Snapshot was taken without a level");
+      }
+      return;
+    }
+    if (level == null) {
+      throw new IllegalArgumentException("Snapshot was taken on a level; pass it to decodeInto");
+    }
+    if (level.columns() != width || level.rows() != height || level.topology().wraps() == walled) {
+      throw new IllegalArgumentException("Level is " + level.columns() + "x" + level.rows()
+          + (level.topology().wraps() ? " wrapping" : " walled") + ", snapshot is " + width + "x" + height
+          + (walled ? " walled" : " wrapping"));
+    }
+  }
+
+  /** Direction ordinal leading from cell {@code from} to the adjacent cell {@code to}. */
+  private static int step(int from, int to, int width, int height) {
+    int dx = to % width - from % width;
+    int dy = to / width - from / width;
+    if (dy == 0 && (dx == 1 || dx == 1 - width)) {
+      return Direction.RIGHT.ordinal();
+    }
+    if (dy == 0 && (dx == -1 || dx == width - 1)) {
+      return Direction.LEFT.ordinal();
+    }
+    if (dx == 0 && (dy == 1 || dy == 1 - height)) {
+      return Direction.DOWN.ordinal();
+    }
+    if (dx == 0 && (dy == -1 || dy == height - 1)) {
+      return Direction.UP.ordinal();
+    }
+    throw new IllegalStateException("Snake segments " + from + " and " + to + " are not adjacent");
+  }
+}
@@ -0,0 +1,80 @@
+package com.mapna.snake;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer/single-consumer queue of direction inputs, each stamped with the
+ * {@link System#nanoTime} it was offered at. One thread (the input thread) may call
+ * {@link #offer} and {@link #lastOffered}; one thread (the simulation) may call {@link #poll},
+ * {@link #lastStamp} and {@link #clear}. Neither side locks: each owns one counter, written
+ * with release semantics and read by the other with acquire semantics, so a slot is always
+ * fully written before the consumer can see it.
+ */
+final class InputQueue {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private final int mask;
+  private final byte[] directions;
+  private final long[] stamps;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+  private Direction lastOffered;
+  private long lastStamp;
+
+  /** @param capacity rounded up to a power of two */
+  InputQueue(int capacity) {
+    int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = size - 1;
+    this.directions = new byte[size];
+    this.stamps = new long[size];
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+  /** Producer: appends an input, or returns false if the queue is full. */
+  boolean offer(Direction direction, long stampNanos) {
+    long t = tail.getPlain();
+    if (t - head.getAcquire() > mask) {
+      return false;
+    }
+    int slot = (int) t & mask;
+    directions[slot] = (byte) direction.ordinal();
+    stamps[slot] = stampNanos;
+    lastOffered = direction;
+    tail.setRelease(t + 1);
+    return true;
+  }
+
+  /** Producer: the most recent input offered, or null when the queue has drained since. */
+  Direction lastOffered() {
+    return tail.getPlain() == head.getAcquire() ? null : lastOffered;
+  }
+
+  /** Consumer: removes and returns the oldest input, or null when empty. */
+  Direction poll() {
+    long h = head.getPlain();
+    if (h == tail.getAcquire()) {
+      return null;
+    }
+    int slot = (int) h & mask;
+    Direction direction = DIRECTIONS[directions[slot]];
+    lastStamp = stamps[slot];
+    head.setRelease(h + 1);
+    return direction;
+  }
+
+  /** Consumer: the timestamp of the input last returned by {@link #poll}. */
+  long lastStamp() {
+    return lastStamp;
+  }
+
+  /** Consumer: drops every queued input. */
+  void clear() {
+    head.setRelease(tail.getAcquire());
+  }
+
+  boolean isEmpty() {
+    return head.getAcquire() == tail.getAcquire();
+  }
+}
@@ -0,0 +1,160 @@
+package com.mapna.snake;
+
+import java.util.Arrays;
+
+/**
+ * Items on the board, keyed by packed cell. An open-addressing hash table maps each cell to
+ * its slot in a per-type list of cells, so finding what lies under the head is one probe
+ * however many items there are, and memory follows the item count rather than the board's
+ * area. The per-type lists let a renderer draw every item of one type in a single pass;
+ * removal swaps the last cell of the list into the gap, so it is O(1) too.
+ */
+public final class ItemMap {
+  private static final int EMPTY = -1;
+  private static final int TYPE_BITS = 3;
+  private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final ItemType[] TYPES = ItemType.values();
+  private int[] keys = newTable(INITIAL_CAPACITY);
+  /** Per table slot: index in the type's cell list, shifted past the type ordinal. */
+  private int[] refs = new int[INITIAL_CAPACITY];
+  private final int[][] cells = new int[TYPES.length][];
+  private final int[] counts = new int[TYPES.length];
+  private int size;
+
+  public ItemMap() {
+    for (int i = 0; i < TYPES.length; i++) {
+      cells[i] = new int[INITIAL_CAPACITY];
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int count(ItemType type) {
+    return counts[type.ordinal()];
+  }
+
+  /** Packed cell of the {@code index}-th item of {@code type}; the order changes as items are removed. */
+  public int cellAt(ItemType type, int index) {
+    if (index < 0 || index >= counts[type.ordinal()]) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return cells[type.ordinal()][index];
+  }
+
+  /** The item on the packed cell, or null; one hash probe, no allocation. */
+  public ItemType typeAt(int cell) {
+    int i = find(cell);
+    return i < 0 ? null : TYPES[refs[i] & TYPE_MASK];
+  }
+
+  /** Puts an item on the cell; returns false, changing nothing, if the cell already holds one. */
+  public boolean put(int cell, ItemType type) {
+    if (cell < 0) {
+      throw new IllegalArgumentException("Invalid cell " + cell);
+    }
+    int mask = keys.length - 1;
+    int i = slot(cell, mask);
+    while (keys[i] != EMPTY) {
+      if (keys[i] == cell) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    int t = type.ordinal();
+    if (counts[t] == cells[t].length) {
+      cells[t] = Arrays.copyOf(cells[t], counts[t] << 1);
+    }
+    cells[t][counts[t]] = cell;
+    keys[i] = cell;
+    refs[i] = counts[t]++ << TYPE_BITS | t;
+    if (++size * 2 > keys.length) {
+      rehash(keys.length << 1);
+    }
+    return true;
+  }
+
+  /** Takes the item off the cell and returns its type, or null if there was none. */
+  public ItemType remove(int cell) {
+    int i = find(cell);
+    if (i < 0) {
+      return null;
+    }
+    int t = refs[i] & TYPE_MASK;
+    int index = refs[i] >>> TYPE_BITS;
+    int last = --counts[t];
+    if (index != last) {
+      int moved = cells[t][last];
+      cells[t][index] = moved;
+      refs[find(moved)] = index << TYPE_BITS | t;
+    }
+    deleteSlot(i);
+    size--;
+    return TYPES[t];
+  }
+
+  public void clear() {
+    Arrays.fill(keys, EMPTY);
+    Arrays.fill(counts, 0);
+    size = 0;
+  }
+
+  private int find(int cell) {
+    int mask = keys.length - 1;
+    for (int i = slot(cell, mask); ; i = (i + 1) & mask) {
+      int key = keys[i];
+      if (key == cell) {
+        return i;
+      }
+      if (key == EMPTY) {
+        return -1;
+      }
+    }
+  }
+
+  /** Backward-shift deletion, as in {@link SparseOccupancy}, so probe chains need no tombstones. */
+  private void deleteSlot(int i) {
+    int mask = keys.length - 1;
+    int gap = i;
+    for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+      int home = slot(keys[j], mask);
+      if (((j - home) & mask) >= ((j - gap) & mask)) {
+        keys[gap] = keys[j];
+        refs[gap] = refs[j];
+        gap = j;
+      }
+    }
+    keys[gap] = EMPTY;
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    int[] oldRefs = refs;
+    keys = newTable(capacity);
+    refs = new int[capacity];
+    int mask = capacity - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != EMPTY) {
+        int i = slot(oldKeys[j], mask);
+        while (keys[i] != EMPTY) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        refs[i] = oldRefs[j];
+      }
+    }
+  }
+
+  private static int slot(int cell, int mask) {
+    int h = cell * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private static int[] newTable(int capacity) {
+    int[] fresh = new int[capacity];
+    Arrays.fill(fresh, EMPTY);
+    return fresh;
+  }
+}
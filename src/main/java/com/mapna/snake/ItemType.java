@@ -0,0 +1,15 @@
+package com.mapna.snake;
+
+/** Kinds of item that {@link GameEngine} can scatter on the board besides the main food. */
+public enum ItemType {
+  /** Extra food: one segment, like the main food, but nothing respawns when it is eaten. */
+  FOOD,
+  /** Grows the snake by {@link GameEngine#BONUS_GROWTH} segments over the next ticks. */
+  BONUS_FOOD,
+  /** Shortens the tick delay for {@link GameEngine#SPEED_EFFECT_TICKS} ticks. */
+  SPEED_UP,
+  /** Lengthens the tick delay for {@link GameEngine#SPEED_EFFECT_TICKS} ticks. */
+  SLOW_DOWN,
+  /** Drops up to {@link GameEngine#SHRINK_SEGMENTS} tail segments, never below the starting length. */
+  SHRINK
+}
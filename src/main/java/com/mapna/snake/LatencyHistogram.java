@@ -0,0 +1,93 @@
+package com.mapna.snake;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of non-negative values: exact below 16, then 16 sub-buckets per power of
+ * two, so any recorded value is reported within about 6%. Recording is a couple of atomic
+ * increments; readers on other threads see a consistent-enough view for monitoring.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BITS) * SUB_BUCKETS;
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long value) {
+    long v = Math.max(0, value);
+    counts.incrementAndGet(bucket(v));
+    count.incrementAndGet();
+    sum.addAndGet(v);
+    long seen = max.get();
+    while (v > seen && !max.compareAndSet(seen, v)) {
+      seen = max.get();
+    }
+  }
+
+  public long count() {
+    return count.get();
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  public double mean() {
+    long n = count.get();
+    return n == 0 ? 0 : (double) sum.get() / n;
+  }
+
+  /** Upper bound of the bucket holding the given percentile, capped at the recorded maximum. */
+  public long percentile(double percentile) {
+    long n = count.get();
+    if (n == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  /** Summary in units of {@code 1/divisor} of the recorded values, e.g. 1000 for nanos to micros. */
+  public LatencySnapshot snapshot(double divisor) {
+    return new LatencySnapshot(count(), mean() / divisor, percentile(50) / divisor, percentile(90) / divisor,
+        percentile(99) / divisor, max() / divisor);
+  }
+
+  static int bucket(long v) {
+    if (v < SUB_BUCKETS) {
+      return (int) v;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(v);
+    int sub = (int) (v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+  }
+
+  static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+  }
+}
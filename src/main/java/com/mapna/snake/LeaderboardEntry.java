@@ -0,0 +1,5 @@
+package com.mapna.snake;
+
+/** One finished game on the leaderboard. */
+public record LeaderboardEntry(String player, long timestamp, int score, int columns, int rows) {
+}
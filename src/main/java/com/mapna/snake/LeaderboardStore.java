@@ -0,0 +1,14 @@
+package com.mapna.snake;
+
+import java.util.List;
+
+/** High score store that also keeps per-player results, best first. */
+public interface LeaderboardStore extends HighScoreStore {
+  void record(LeaderboardEntry entry);
+
+  /** Up to {@code n} entries, highest score first, with at most one entry per player and board size. */
+  List<LeaderboardEntry> top(int n);
+
+  /** Number of results recorded. */
+  long size();
+}
@@ -0,0 +1,224 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * A board layout read from a file: its size, whether the edges are walls, an obstacle layer
+ * and, optionally, the zones food may spawn in.
+ *
+ * <p>The file is a {@value #HEADER_BYTES}-byte header followed by the layers, each one bit per
+ * cell packed like a {@link Bitboard}: every row starts a new run of big-endian {@code long}
+ * words, bit {@code x % 64} of word {@code x / 64}. The header holds the magic {@code "SNKL"},
+ * a version byte, a flags byte ({@link #WALLED}, {@link #SPAWN_ZONES}), two reserved bytes,
+ * the column and row counts, and reserved zeros up to the first layer. The obstacle layer
+ * comes first and the spawn-zone layer, when flagged, right after it.
+ *
+ * <p>{@link #open} maps the file read-only instead of reading it, so opening costs the same
+ * for any size and the OS only pages in the parts of the map that lookups touch. Lookups are
+ * absolute reads of the mapping, never moving its position, so one level can be shared by
+ * the simulation and render threads.
+ */
+public final class Level {
+  public static final int HEADER_BYTES = 32;
+  /** Moving off an edge ends the game instead of wrapping. */
+  public static final int WALLED = 1;
+  /** A spawn-zone layer follows the obstacles; food only lands on its set cells. */
+  public static final int SPAWN_ZONES = 2;
+  private static final int MAGIC = 0x534E4B4C;
+  private static final byte VERSION = 1;
+  private static final int WRITE_CHUNK_BYTES = 1 << 16;
+  private final ByteBuffer map;
+  private final int columns;
+  private final int rows;
+  private final int cellCount;
+  private final int wordsPerRow;
+  private final long lastWordMask;
+  /** Byte offset of the spawn-zone layer, or -1 when food may land anywhere. */
+  private final int zonesOffset;
+  private final Topology topology;
+
+  private Level(ByteBuffer map, int flags, int columns, int rows) {
+    this.map = map;
+    this.columns = columns;
+    this.rows = rows;
+    this.cellCount = columns * rows;
+    this.wordsPerRow = (columns + 63) >>> 6;
+    this.lastWordMask = (columns & 63) == 0 ? -1L : (1L << columns) - 1;
+    this.zonesOffset = (flags & SPAWN_ZONES) != 0 ? HEADER_BYTES + (int) layerBytes(columns, rows) : -1;
+    this.topology = (flags & WALLED) != 0 ? Topology.walled(columns, rows) : Topology.torus(columns, rows);
+  }
+
+  /**
+   * Maps a level file. The mapping stays valid after the channel is closed and is released
+   * with the level.
+   *
+   * @throws IOException if the file cannot be read or is not a valid level
+   */
+  public static Level open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+        throw new IOException("Not a level file: " + path);
+      }
+      MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      int columns = map.getInt(8);
+      int rows = map.getInt(12);
+      int flags = map.get(5);
+      if (map.getInt(0) != MAGIC || map.get(4) != VERSION || columns < 1 || rows < 1
+          || (long) columns * rows > Integer.MAX_VALUE) {
+        throw new IOException("Not a level file: " + path);
+      }
+      long expected = fileBytes(columns, rows, (flags & SPAWN_ZONES) != 0);
+      if (size < expected) {
+        throw new IOException("Truncated level file: " + path + " has " + size + " of " + expected + " bytes");
+      }
+      return new Level(map, flags, columns, rows);
+    }
+  }
+
+  /**
+   * Writes a level, one buffered row of words at a time. {@code spawnZones} may be null to let
+   * food land on any open cell.
+   *
+   * @throws IllegalArgumentException if the layers differ in size or the file would exceed 2 GiB
+   */
+  public static void write(Path path, Bitboard obstacles, Bitboard spawnZones, boolean walled) throws IOException {
+    Objects.requireNonNull(obstacles, "obstacles");
+    int columns = obstacles.columns();
+    int rows = obstacles.rows();
+    if (spawnZones != null && (spawnZones.columns() != columns || spawnZones.rows() != rows)) {
+      throw new IllegalArgumentException("Spawn zones are " + spawnZones.columns() + "x" + spawnZones.rows()
+          + ", obstacles are " + columns + "x" + rows);
+    }
+    if (fileBytes(columns, rows, spawnZones != null) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Level too large to map: " + columns + "x" + rows);
+    }
+    int flags = (walled ? WALLED : 0) | (spawnZones != null ? SPAWN_ZONES : 0);
+    ByteBuffer out = ByteBuffer.allocate(WRITE_CHUNK_BYTES);
+    out.putInt(MAGIC).put(VERSION).put((byte) flags).putShort((short) 0)
+        .putInt(columns).putInt(rows)
+        .put(new byte[HEADER_BYTES - 16]);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeLayer(channel, out, obstacles);
+      if (spawnZones != null) {
+        writeLayer(channel, out, spawnZones);
+      }
+      drain(channel, out);
+    }
+  }
+
+  public int columns() {
+    return columns;
+  }
+
+  public int rows() {
+    return rows;
+  }
+
+  public int cellCount() {
+    return cellCount;
+  }
+
+  /** A torus, or a walled box when the file says so; obstacles are not part of it. */
+  public Topology topology() {
+    return topology;
+  }
+
+  public boolean hasSpawnZones() {
+    return zonesOffset >= 0;
+  }
+
+  /** True if the packed cell is an obstacle; one read of the mapping. */
+  public boolean isObstacle(int cell) {
+    int y = cell / columns;
+    int x = cell - y * columns;
+    return (map.getLong(HEADER_BYTES + wordOffset(y, x >>> 6)) & (1L << x)) != 0;
+  }
+
+  /** True if food may land on the packed cell: not an obstacle and, if zones are set, inside one. */
+  public boolean canSpawnFood(int cell) {
+    int y = cell / columns;
+    int x = cell - y * columns;
+    return (layerWord(y, x >>> 6, true) & (1L << x)) != 0;
+  }
+
+  /** First obstacle cell at or after {@code from} in row-major order; -1 if none. */
+  public int nextObstacle(int from) {
+    return scan(from, false);
+  }
+
+  /** First cell at or after {@code from} where food may land, wrapping past the end; -1 if none. */
+  public int nextSpawnCell(int from) {
+    int cell = scan(from, true);
+    return cell >= 0 || from == 0 ? cell : scan(0, true);
+  }
+
+  /** Walks words from {@code from} to the end of the board, without wrapping. */
+  private int scan(int from, boolean spawnable) {
+    if (from >= cellCount) {
+      return -1;
+    }
+    int y = from / columns;
+    int x = from - y * columns;
+    int column = x >>> 6;
+    long word = layerWord(y, column, spawnable) & (-1L << x);
+    while (word == 0) {
+      if (++column == wordsPerRow) {
+        column = 0;
+        if (++y == rows) {
+          return -1;
+        }
+      }
+      word = layerWord(y, column, spawnable);
+    }
+    return y * columns + (column << 6) + Long.numberOfTrailingZeros(word);
+  }
+
+  /** Obstacle bits, or spawnable bits when {@code spawnable}, with the row padding cleared. */
+  private long layerWord(int y, int column, boolean spawnable) {
+    int offset = wordOffset(y, column);
+    long word = map.getLong(HEADER_BYTES + offset);
+    if (spawnable) {
+      word = ~word & (zonesOffset < 0 ? -1L : map.getLong(zonesOffset + offset));
+    }
+    return column == wordsPerRow - 1 ? word & lastWordMask : word;
+  }
+
+  private int wordOffset(int y, int column) {
+    return (y * wordsPerRow + column) << 3;
+  }
+
+  private static long layerBytes(int columns, int rows) {
+    return ((columns + 63L) >>> 6) * rows * Long.BYTES;
+  }
+
+  private static long fileBytes(int columns, int rows, boolean zones) {
+    return HEADER_BYTES + layerBytes(columns, rows) * (zones ? 2 : 1);
+  }
+
+  private static void writeLayer(FileChannel channel, ByteBuffer out, Bitboard layer) throws IOException {
+    for (int y = 0; y < layer.rows(); y++) {
+      for (int column = 0; column < layer.wordsPerRow(); column++) {
+        if (out.remaining() < Long.BYTES) {
+          drain(channel, out);
+        }
+        out.putLong(layer.word(y, column));
+      }
+    }
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    out.clear();
+  }
+}
@@ -0,0 +1,74 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * High score file that is safe to share between processes. {@link #saveIfHigher(int)} holds an
+ * exclusive {@link FileLock} on a sibling {@code .lock} file for the whole read-modify-write and
+ * replaces the score file atomically, so a reader sees either the old or the new value and a
+ * concurrent save can never overwrite a higher score.
+ */
+public class LockingHighScoreStore implements HighScoreStore {
+  // File locks are held per JVM, so threads in this process must also queue on a plain lock.
+  private static final Map<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+  private final Path scorePath;
+  private final Path lockPath;
+  private final Path tempPath;
+  private final FileHighScoreStore reader;
+
+  public LockingHighScoreStore(String fileName) {
+    this.scorePath = Path.of(fileName);
+    this.lockPath = scorePath.resolveSibling(scorePath.getFileName() + ".lock");
+    this.tempPath = scorePath.resolveSibling(scorePath.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+    this.reader = new FileHighScoreStore(fileName);
+  }
+
+  @Override
+  public int load() {
+    return reader.load();
+  }
+
+  @Override
+  public int saveIfHigher(int score) {
+    ReentrantLock local = LOCAL_LOCKS.computeIfAbsent(scorePath.toAbsolutePath().normalize(), p -> new ReentrantLock());
+    local.lock();
+    try (FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock ignored = channel.lock()) {
+      int current = reader.load();
+      if (score <= current) {
+        return current;
+      }
+      replace(score);
+      return score;
+    } catch (IOException e) {
+      System.err.println("Failed to save high score: " + e.getMessage());
+      return reader.load();
+    } finally {
+      local.unlock();
+    }
+  }
+
+  private void replace(int score) throws IOException {
+    try (FileChannel temp = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      temp.write(StandardCharsets.UTF_8.encode(Integer.toString(score)));
+      temp.force(false);
+    }
+    try {
+      Files.move(tempPath, scorePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempPath, scorePath, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
@@ -0,0 +1,542 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Leaderboard kept as an append-only binary log plus a memory-mapped index of the top entries.
+ *
+ * <p>Every result is appended as a length- and CRC-prefixed record, so saving never rewrites
+ * earlier data. The index file holds the best {@code capacity} results (one per player and board
+ * size) sorted by score, and remembers how much of the log it covers. On open only the uncovered
+ * tail of the log is scanned; the first torn or corrupt record ends the log and is truncated.
+ * {@link #load()} reads the first index slot. An in-memory map from player and board size to
+ * indexed score tells whether a result replaces an earlier one, so an insert is a binary search
+ * plus a shift within the fixed-size index, independent of how many results the log holds.
+ *
+ * <p>Once {@code compactEvery} results have been appended, a background thread rewrites the log
+ * keeping only each player's best result per board size and swaps it in atomically. One
+ * compaction runs at a time: {@link #compact()} waits for a running one, the background trigger
+ * skips.
+ */
+public final class LogLeaderboardStore implements LeaderboardStore, AutoCloseable {
+  public static final int DEFAULT_CAPACITY = 100;
+  public static final long DEFAULT_COMPACT_EVERY = 100_000;
+  static final int MAX_NAME_BYTES = 31;
+  private static final int LOG_MAGIC = 0x534E4C47;
+  private static final int INDEX_MAGIC = 0x534E4958;
+  private static final int VERSION = 1;
+  private static final int LOG_HEADER_BYTES = 16;
+  private static final int RECORD_HEADER_BYTES = 8;
+  private static final int FIXED_PAYLOAD_BYTES = 21;
+  private static final int MAX_PAYLOAD_BYTES = FIXED_PAYLOAD_BYTES + MAX_NAME_BYTES;
+  private static final int INDEX_HEADER_BYTES = 40;
+  private static final int SLOT_BYTES = 52;
+  private static final int COUNT_OFFSET = 12;
+  private static final int COVERED_OFFSET = 16;
+  private static final int RECORDS_OFFSET = 24;
+  private static final int LOG_ID_OFFSET = 32;
+
+  private final Path logPath;
+  private final Path indexPath;
+  private final int capacity;
+  private final long compactEvery;
+  private final String defaultPlayer;
+  private final ByteBuffer recordBuffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + MAX_PAYLOAD_BYTES);
+  private final byte[] slotScratch = new byte[SLOT_BYTES];
+  private final CRC32 crc = new CRC32();
+  /** Score of each player and board size held in the index, keyed by {@link #key}. */
+  private final Map<String, Integer> indexedScores = new HashMap<>();
+  private final ReentrantLock compaction = new ReentrantLock();
+  private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "snake-leaderboard-compactor");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private FileChannel log;
+  private FileChannel indexChannel;
+  private MappedByteBuffer index;
+  private long logLength;
+  private long appendedSinceCompaction;
+
+  public LogLeaderboardStore(String fileName) {
+    this(fileName, DEFAULT_CAPACITY, DEFAULT_COMPACT_EVERY);
+  }
+
+  public LogLeaderboardStore(String fileName, int capacity, long compactEvery) {
+    if (capacity <= 0 || compactEvery <= 0) {
+      throw new IllegalArgumentException("capacity and compactEvery must be positive");
+    }
+    this.logPath = Path.of(fileName);
+    this.indexPath = logPath.resolveSibling(logPath.getFileName() + ".idx");
+    this.capacity = capacity;
+    this.compactEvery = compactEvery;
+    this.defaultPlayer = System.getProperty("user.name", "player");
+    synchronized (this) {
+      try {
+        open();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to open leaderboard " + logPath, e);
+      }
+    }
+  }
+
+  @Override
+  public synchronized int load() {
+    return indexCount() == 0 ? -1 : index.getInt(INDEX_HEADER_BYTES);
+  }
+
+  @Override
+  public int saveIfHigher(int score) {
+    BoardConfig config = BoardConfig.DEFAULT;
+    record(new LeaderboardEntry(defaultPlayer, System.currentTimeMillis(), score, config.columns(), config.rows()));
+    return load();
+  }
+
+  @Override
+  public void record(LeaderboardEntry entry) {
+    boolean compact;
+    synchronized (this) {
+      try {
+        int length = encode(entry);
+        writeFully(log, recordBuffer, logLength);
+        logLength += length;
+      } catch (IOException e) {
+        System.err.println("Failed to save leaderboard entry: " + e.getMessage());
+        return;
+      }
+      insert(entry);
+      index.putLong(COVERED_OFFSET, logLength);
+      index.putLong(RECORDS_OFFSET, index.getLong(RECORDS_OFFSET) + 1);
+      compact = ++appendedSinceCompaction >= compactEvery && !compaction.isLocked();
+    }
+    if (compact) {
+      compactor.execute(this::compactQuietly);
+    }
+  }
+
+  @Override
+  public synchronized List<LeaderboardEntry> top(int n) {
+    int count = Math.min(n, indexCount());
+    List<LeaderboardEntry> entries = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      entries.add(readSlot(i));
+    }
+    return entries;
+  }
+
+  @Override
+  public synchronized long size() {
+    return index.getLong(RECORDS_OFFSET);
+  }
+
+  /** Bytes currently held by the log file. */
+  public synchronized long logBytes() {
+    return logLength;
+  }
+
+  /**
+   * Rewrites the log keeping only each player's best result per board size; waits for a running
+   * compaction first and blocks until done.
+   */
+  public void compact() throws IOException {
+    compaction.lock();
+    try {
+      doCompact();
+    } finally {
+      compaction.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    compactor.shutdown();
+    try {
+      compactor.awaitTermination(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      if (!log.isOpen()) {
+        return;
+      }
+      try {
+        index.force();
+        log.force(false);
+        log.close();
+        indexChannel.close();
+      } catch (IOException e) {
+        System.err.println("Failed to close leaderboard: " + e.getMessage());
+      }
+    }
+  }
+
+  private void open() throws IOException {
+    log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    logLength = log.size();
+    long logId;
+    if (logLength < LOG_HEADER_BYTES) {
+      logId = System.nanoTime();
+      log.truncate(0);
+      writeFully(log, logHeader(logId), 0);
+      logLength = LOG_HEADER_BYTES;
+    } else {
+      ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+      readFully(log, header, 0);
+      if (header.getInt(0) != LOG_MAGIC || header.getInt(4) != VERSION) {
+        log.close();
+        throw new IOException("Not a leaderboard log: " + logPath);
+      }
+      logId = header.getLong(8);
+    }
+    indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_BYTES + (long) capacity * SLOT_BYTES);
+    if (!indexMatches(logId)) {
+      // Missing, stale or foreign index: rebuild it from the whole log.
+      index.putInt(0, INDEX_MAGIC).putInt(4, VERSION).putInt(8, capacity).putInt(COUNT_OFFSET, 0);
+      index.putLong(COVERED_OFFSET, LOG_HEADER_BYTES).putLong(RECORDS_OFFSET, 0).putLong(LOG_ID_OFFSET, logId);
+    }
+    for (int i = 0; i < indexCount(); i++) {
+      indexedScores.put(slotKey(i), slotScore(i));
+    }
+    recover(index.getLong(COVERED_OFFSET));
+  }
+
+  private boolean indexMatches(long logId) {
+    long covered = index.getLong(COVERED_OFFSET);
+    return index.getInt(0) == INDEX_MAGIC && index.getInt(4) == VERSION && index.getInt(8) == capacity
+        && index.getLong(LOG_ID_OFFSET) == logId && covered >= LOG_HEADER_BYTES && covered <= logLength;
+  }
+
+  private static ByteBuffer logHeader(long logId) {
+    return ByteBuffer.allocate(LOG_HEADER_BYTES).putInt(LOG_MAGIC).putInt(VERSION).putLong(logId).flip();
+  }
+
+  /** Indexes complete records after {@code from} and truncates anything torn behind them. */
+  private void recover(long from) throws IOException {
+    long position = from;
+    long records = index.getLong(RECORDS_OFFSET);
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+    ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD_BYTES);
+    while (position + RECORD_HEADER_BYTES <= logLength) {
+      header.clear();
+      readFully(log, header, position);
+      int length = header.getInt(0);
+      if (length < FIXED_PAYLOAD_BYTES || length > MAX_PAYLOAD_BYTES
+          || position + RECORD_HEADER_BYTES + length > logLength) {
+        break;
+      }
+      payload.clear().limit(length);
+      readFully(log, payload, position + RECORD_HEADER_BYTES);
+      crc.reset();
+      crc.update(payload.array(), 0, length);
+      if ((int) crc.getValue() != header.getInt(4)) {
+        break;
+      }
+      insert(decode(payload));
+      records++;
+      position += RECORD_HEADER_BYTES + length;
+    }
+    if (position < logLength) {
+      log.truncate(position);
+      logLength = position;
+    }
+    index.putLong(COVERED_OFFSET, logLength);
+    index.putLong(RECORDS_OFFSET, records);
+  }
+
+  private int encode(LeaderboardEntry entry) {
+    byte[] name = playerBytes(entry.player());
+    int length = FIXED_PAYLOAD_BYTES + name.length;
+    recordBuffer.clear();
+    recordBuffer.putInt(length).putInt(0);
+    recordBuffer.putLong(entry.timestamp()).putInt(entry.score()).putInt(entry.columns()).putInt(entry.rows());
+    recordBuffer.put((byte) name.length).put(name);
+    crc.reset();
+    crc.update(recordBuffer.array(), RECORD_HEADER_BYTES, length);
+    recordBuffer.putInt(4, (int) crc.getValue());
+    recordBuffer.flip();
+    return RECORD_HEADER_BYTES + length;
+  }
+
+  private static LeaderboardEntry decode(ByteBuffer payload) {
+    long timestamp = payload.getLong();
+    int score = payload.getInt();
+    int columns = payload.getInt();
+    int rows = payload.getInt();
+    byte[] name = new byte[payload.get()];
+    payload.get(name);
+    return new LeaderboardEntry(new String(name, StandardCharsets.UTF_8), timestamp, score, columns, rows);
+  }
+
+  private static byte[] playerBytes(String player) {
+    byte[] name = player.getBytes(StandardCharsets.UTF_8);
+    if (name.length <= MAX_NAME_BYTES) {
+      return name;
+    }
+    // Cut on a character boundary so the stored name stays valid UTF-8.
+    int end = MAX_NAME_BYTES;
+    while ((name[end] & 0xC0) == 0x80) {
+      end--;
+    }
+    return Arrays.copyOf(name, end);
+  }
+
+  /** Keeps the entry if it is the best for its player and board and ranks within capacity. */
+  private void insert(LeaderboardEntry entry) {
+    int count = indexCount();
+    byte[] name = playerBytes(entry.player());
+    String key = key(new String(name, StandardCharsets.UTF_8), entry.columns(), entry.rows());
+    Integer indexed = indexedScores.get(key);
+    if (indexed != null) {
+      if (indexed >= entry.score()) {
+        return;
+      }
+      int earlier = slotOf(indexed, name, entry.columns(), entry.rows(), count);
+      moveSlots(earlier + 1, earlier, count - earlier - 1);
+      count--;
+      indexedScores.remove(key);
+    }
+    int slot = rankOf(entry.score(), count);
+    if (slot >= capacity) {
+      index.putInt(COUNT_OFFSET, count);
+      return;
+    }
+    int kept = Math.min(count, capacity - 1);
+    if (kept < count) {
+      indexedScores.remove(slotKey(count - 1));
+    }
+    moveSlots(slot, slot + 1, kept - slot);
+    writeSlot(slot, entry, name);
+    index.putInt(COUNT_OFFSET, kept + 1);
+    indexedScores.put(key, entry.score());
+  }
+
+  /** Slot holding the player's result for the board, found among the slots with its score. */
+  private int slotOf(int score, byte[] name, int columns, int rows, int count) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (slotScore(mid) > score) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    for (int slot = low; slot < count && slotScore(slot) == score; slot++) {
+      if (slotHasKey(slot, name, columns, rows)) {
+        return slot;
+      }
+    }
+    throw new IllegalStateException("Leaderboard index lost the entry of " + new String(name, StandardCharsets.UTF_8));
+  }
+
+  private static String key(String player, int columns, int rows) {
+    return columns + "x" + rows + ":" + player;
+  }
+
+  private String slotKey(int slot) {
+    int offset = slotOffset(slot);
+    byte[] name = new byte[index.get(offset + 20)];
+    index.get(offset + 21, name);
+    return key(new String(name, StandardCharsets.UTF_8), index.getInt(offset + 12), index.getInt(offset + 16));
+  }
+
+  /** First slot whose score is lower than {@code score}; equal scores keep their earlier rank. */
+  private int rankOf(int score, int count) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (slotScore(mid) >= score) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void moveSlots(int from, int to, int count) {
+    if (count <= 0) {
+      return;
+    }
+    if (to > from) {
+      for (int i = count - 1; i >= 0; i--) {
+        copySlot(from + i, to + i);
+      }
+    } else {
+      for (int i = 0; i < count; i++) {
+        copySlot(from + i, to + i);
+      }
+    }
+  }
+
+  private void copySlot(int from, int to) {
+    index.get(slotOffset(from), slotScratch);
+    index.put(slotOffset(to), slotScratch);
+  }
+
+  private void writeSlot(int slot, LeaderboardEntry entry, byte[] name) {
+    int offset = slotOffset(slot);
+    index.putInt(offset, entry.score()).putLong(offset + 4, entry.timestamp());
+    index.putInt(offset + 12, entry.columns()).putInt(offset + 16, entry.rows());
+    index.put(offset + 20, (byte) name.length).put(offset + 21, name);
+  }
+
+  private LeaderboardEntry readSlot(int slot) {
+    int offset = slotOffset(slot);
+    byte[] name = new byte[index.get(offset + 20)];
+    index.get(offset + 21, name);
+    return new LeaderboardEntry(new String(name, StandardCharsets.UTF_8), index.getLong(offset + 4),
+        index.getInt(offset), index.getInt(offset + 12), index.getInt(offset + 16));
+  }
+
+  private int slotScore(int slot) {
+    return index.getInt(slotOffset(slot));
+  }
+
+  private int indexCount() {
+    return index.getInt(COUNT_OFFSET);
+  }
+
+  private static int slotOffset(int slot) {
+    return INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+  }
+
+  private boolean slotHasKey(int slot, byte[] name, int columns, int rows) {
+    int offset = slotOffset(slot);
+    if (index.getInt(offset + 12) != columns || index.getInt(offset + 16) != rows || index.get(offset + 20) != name.length) {
+      return false;
+    }
+    for (int i = 0; i < name.length; i++) {
+      if (index.get(offset + 21 + i) != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void compactQuietly() {
+    if (!compaction.tryLock()) {
+      return;
+    }
+    try {
+      doCompact();
+    } catch (IOException e) {
+      System.err.println("Failed to compact leaderboard: " + e.getMessage());
+    } finally {
+      compaction.unlock();
+    }
+  }
+
+  /**
+   * Scans the log up to a snapshot without holding the lock (bytes before the snapshot never
+   * change), writes the surviving records to a new file, then under the lock copies anything
+   * appended since the snapshot and swaps the files.
+   */
+  private void doCompact() throws IOException {
+    long snapshot;
+    long recordsAtSnapshot;
+    FileChannel source;
+    synchronized (this) {
+      snapshot = logLength;
+      recordsAtSnapshot = index.getLong(RECORDS_OFFSET);
+      source = log;
+    }
+    Map<String, long[]> best = new HashMap<>();
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+    ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD_BYTES);
+    for (long position = LOG_HEADER_BYTES; position < snapshot; ) {
+      header.clear();
+      readFully(source, header, position);
+      int length = header.getInt(0);
+      payload.clear().limit(length);
+      readFully(source, payload, position + RECORD_HEADER_BYTES);
+      LeaderboardEntry entry = decode(payload);
+      String key = key(entry.player(), entry.columns(), entry.rows());
+      long[] kept = best.get(key);
+      if (kept == null || entry.score() > kept[2]) {
+        best.put(key, new long[] {position, RECORD_HEADER_BYTES + length, entry.score()});
+      }
+      position += RECORD_HEADER_BYTES + length;
+    }
+    long[][] survivors = best.values().toArray(new long[0][]);
+    Arrays.sort(survivors, (a, b) -> Long.compare(a[0], b[0]));
+
+    Path temp = logPath.resolveSibling(logPath.getFileName() + ".compact");
+    try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      long logId = System.nanoTime();
+      writeFully(target, logHeader(logId), 0);
+      long written = LOG_HEADER_BYTES;
+      for (long[] survivor : survivors) {
+        written += copyRange(source, survivor[0], survivor[1], target, written);
+      }
+      synchronized (this) {
+        written += copyRange(log, snapshot, logLength - snapshot, target, written);
+        long tailRecords = index.getLong(RECORDS_OFFSET) - recordsAtSnapshot;
+        target.force(false);
+        log.close();
+        try {
+          Files.move(temp, logPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(temp, logPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logLength = written;
+        appendedSinceCompaction = 0;
+        index.putLong(COVERED_OFFSET, logLength);
+        index.putLong(RECORDS_OFFSET, survivors.length + tailRecords);
+        index.putLong(LOG_ID_OFFSET, logId);
+      }
+    }
+  }
+
+  private static long copyRange(FileChannel from, long position, long count, FileChannel to, long at) throws IOException {
+    long copied = 0;
+    while (copied < count) {
+      copied += from.transferTo(position + copied, count - copied, to.position(at + copied));
+    }
+    return copied;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    long at = position;
+    while (buffer.hasRemaining()) {
+      at += channel.write(buffer, at);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    long at = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, at);
+      if (read < 0) {
+        throw new IOException("Unexpected end of leaderboard log");
+      }
+      at += read;
+    }
+    buffer.flip();
+  }
+}
@@ -0,0 +1,10 @@
+package com.mapna.snake;
+
+public enum LoopMode {
+  /** Swing {@code Timer} ticks on the EDT and repaints through {@link Board}. */
+  TIMER,
+  /** Dedicated {@link GameLoop} thread with a fixed timestep and page-flipped rendering. */
+  ACTIVE,
+  /** {@link GameLoop} thread only simulates; a render thread paints the latest published {@link Frame}. */
+  THREADED
+}
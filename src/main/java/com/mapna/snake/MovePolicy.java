@@ -0,0 +1,58 @@
+package com.mapna.snake;
+
+import java.util.Random;
+
+/** Chooses the direction to request before each tick of a headless game. */
+@FunctionalInterface
+public interface MovePolicy {
+  Direction choose(GameState state);
+
+  /** Keeps the current heading; useful as a baseline. */
+  static MovePolicy straight() {
+    return GameState::getDirection;
+  }
+
+  /** Turns at random; the reverse of the current heading is ignored by the engine anyway. */
+  static MovePolicy random(Random random) {
+    Direction[] directions = Direction.values();
+    return state -> directions[random.nextInt(directions.length)];
+  }
+
+  /**
+   * Steps toward the food, the shorter way round when the board wraps, avoiding walls always and
+   * cells the body covers when it can.
+   */
+  static MovePolicy greedy() {
+    return state -> {
+      Snake snake = state.getSnake();
+      Position head = snake.getHead();
+      Position food = state.getFood();
+      Direction best = state.getDirection();
+      int bestScore = Integer.MAX_VALUE;
+      for (Direction direction : Direction.values()) {
+        if (direction.isOpposite(state.getDirection())) {
+          continue;
+        }
+        Position next = snake.nextHead(direction);
+        if (next == null) {
+          continue;
+        }
+        int score = distance(snake, next, food) + (snake.contains(next) ? snake.columns() + snake.rows() : 0);
+        if (score < bestScore) {
+          bestScore = score;
+          best = direction;
+        }
+      }
+      return best;
+    };
+  }
+
+  private static int distance(Snake snake, Position a, Position b) {
+    int dx = Math.abs(a.x() - b.x());
+    int dy = Math.abs(a.y() - b.y());
+    if (!snake.topology().wraps()) {
+      return dx + dy;
+    }
+    return Math.min(dx, snake.columns() - dx) + Math.min(dy, snake.rows() - dy);
+  }
+}
@@ -0,0 +1,27 @@
+package com.mapna.snake;
+
+import java.util.Arrays;
+
+/** Append-only list of obstacle cells, so renderers can walk them without scanning the board. */
+final class ObstacleList {
+  private int[] cells = new int[16];
+  private int size;
+
+  void add(int cell) {
+    if (size == cells.length) {
+      cells = Arrays.copyOf(cells, size * 2);
+    }
+    cells[size++] = cell;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return cells[index];
+  }
+}
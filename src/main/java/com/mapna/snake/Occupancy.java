@@ -0,0 +1,51 @@
+package com.mapna.snake;
+
+import java.util.Random;
+
+/**
+ * Set of board cells covered by a snake or an obstacle, addressed by packed cell index. Small
+ * boards use a {@link Bitboard} with a {@link FreeCellIndex}; large boards switch to a hash set
+ * whose size tracks the snake rather than the board. Obstacles are permanent: they count as
+ * occupied for collisions and free-cell picks, but not in {@link #occupiedCount}, and cannot
+ * be vacated.
+ */
+public interface Occupancy {
+  /** Boards with more cells than this use {@link SparseOccupancy}. */
+  int DENSE_CELL_LIMIT = 1 << 18;
+
+  static Occupancy forBoard(int columns, int rows) {
+    int cellCount = columns * rows;
+    return cellCount <= DENSE_CELL_LIMIT ? new DenseOccupancy(columns, rows) : new SparseOccupancy(cellCount);
+  }
+
+  /** True if a body segment or an obstacle covers the cell. */
+  boolean isOccupied(int cell);
+
+  /** Marks the cell occupied; returns false if it already was. */
+  boolean occupy(int cell);
+
+  /** Marks the cell free; returns false if it already was. */
+  boolean vacate(int cell);
+
+  /** Marks the cell as an obstacle; returns false if it was already occupied or blocked. */
+  boolean block(int cell);
+
+  boolean isBlocked(int cell);
+
+  int blockedCount();
+
+  /** The obstacle added {@code index}-th, for walking all of them. */
+  int blockedCell(int index);
+
+  /** Cells covered by body segments; obstacles are not counted. */
+  int occupiedCount();
+
+  /** Cells covered by neither body nor obstacle. */
+  int freeCount();
+
+  /** Picks a free cell using only {@code random}; at least one cell must be free. */
+  int randomFree(Random random);
+
+  /** First free cell at or after {@code from} in row-major order, wrapping; -1 if none. */
+  int nextFree(int from);
+}
@@ -1,4 +1,87 @@
 package com.mapna.snake;
 
+/**
+ * A board cell. {@link #of} hands out one shared instance per cell of the boards in play, so
+ * steady-state play allocates no positions and canonical positions can be compared by identity.
+ * The shared table starts at the default board's size and {@link #reserve} grows it to each new
+ * board's grid, which every {@link Snake} does for its board. Grids beyond
+ * {@value #MAX_CACHED_CELLS} cells are not cached: positions there, like any off the table, are
+ * fresh records, and {@link #equals} works for both. The table is static and never shrinks, so
+ * it holds the largest board reserved for the rest of the process.
+ */
 public record Position(int x, int y) {
+  /**
+   * Largest table {@link #reserve} builds, a 512x512 grid. Each cell costs about 28 bytes on a
+   * 64-bit JVM with compressed oops (a 24-byte record plus its array slot), so about 7 MB at most.
+   */
+  public static final int MAX_CACHED_CELLS = 1 << 18;
+  private static volatile Table table = new Table(BoardConfig.PIXEL_WIDTH, BoardConfig.PIXEL_HEIGHT, null);
+
+  /** The shared position for {@code (x, y)}, or a new one outside the cached grid. */
+  public static Position of(int x, int y) {
+    Table cached = table;
+    if (x >= 0 && x < cached.columns && y >= 0 && y < cached.rows) {
+      return cached.cells[y * cached.columns + x];
+    }
+    return new Position(x, y);
+  }
+
+  /**
+   * Grows the shared table to cover a {@code columns}x{@code rows} board, keeping the instances
+   * already handed out. Returns false, changing nothing, if the grown table would exceed
+   * {@value #MAX_CACHED_CELLS} cells; positions on that board then allocate.
+   */
+  public static boolean reserve(int columns, int rows) {
+    return isCached(columns, rows) || grow(columns, rows);
+  }
+
+  private static synchronized boolean grow(int columns, int rows) {
+    Table cached = table;
+    if (columns <= cached.columns && rows <= cached.rows) {
+      return true;
+    }
+    int grownColumns = Math.max(columns, cached.columns);
+    int grownRows = Math.max(rows, cached.rows);
+    if ((long) grownColumns * grownRows > MAX_CACHED_CELLS) {
+      return false;
+    }
+    table = new Table(grownColumns, grownRows, cached);
+    return true;
+  }
+
+  /** True if {@link #of} returns shared instances for every cell of the board. */
+  public static boolean isCached(int columns, int rows) {
+    Table cached = table;
+    return columns <= cached.columns && rows <= cached.rows;
+  }
+
+  /** The position of packed cell {@code y * columns + x}. */
+  public static Position ofIndex(int cell, int columns) {
+    int y = cell / columns;
+    return of(cell - y * columns, y);
+  }
+
+  /** Packed cell index {@code y * columns + x} of this position. */
+  public int index(int columns) {
+    return y * columns + x;
+  }
+
+  /** One immutable grid of shared positions; replaced, never changed, when it grows. */
+  private static final class Table {
+    private final int columns;
+    private final int rows;
+    private final Position[] cells;
+
+    Table(int columns, int rows, Table previous) {
+      this.columns = columns;
+      this.rows = rows;
+      this.cells = new Position[columns * rows];
+      for (int y = 0; y < rows; y++) {
+        for (int x = 0; x < columns; x++) {
+          boolean kept = previous != null && x < previous.columns && y < previous.rows;
+          cells[y * columns + x] = kept ? previous.cells[y * previous.columns + x] : new Position(x, y);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,8 @@
+package com.mapna.snake;
+
+public enum RenderMode {
+  /** Repaint the whole component every tick. */
+  FULL,
+  /** Keep a back buffer and repaint only the cells the engine reports as changed. */
+  INCREMENTAL
+}
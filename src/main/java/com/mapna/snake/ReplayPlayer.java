@@ -0,0 +1,149 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Re-runs a {@link ReplayRecorder} recording through {@link GameEngine#tick} with no rendering
+ * or timer, then compares the final state with the summary stored in the recording.
+ */
+public final class ReplayPlayer {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final GameMode[] MODES = GameMode.values();
+
+  private ReplayPlayer() {
+  }
+
+  /** Outcome of a replay: the state it produced and whether it matched the recorded summary. */
+  public record Result(GameState state, long ticks, boolean matches, String mismatch) {
+  }
+
+  public static Result play(Path file) throws IOException {
+    return play(Files.readAllBytes(file));
+  }
+
+  public static Result play(byte[] recording) {
+    Reader in = new Reader(recording);
+    if (in.readInt() != ReplayRecorder.MAGIC || in.readByte() != ReplayRecorder.VERSION) {
+      throw new IllegalArgumentException("Not a replay recording");
+    }
+    long seed = in.readLong();
+    BoardConfig config = BoardConfig.of((int) in.readVarint(), (int) in.readVarint());
+    GameEngine engine = new GameEngine(config, new Random(seed));
+    GameState state = new GameState();
+
+    long ticks = 0;
+    while (true) {
+      long target = ticks + in.readVarint();
+      while (ticks < target) {
+        engine.tick(state);
+        ticks++;
+      }
+      int code = in.readByte();
+      if (code == ReplayRecorder.CODE_END) {
+        break;
+      }
+      switch (code) {
+        case ReplayRecorder.CODE_RESET -> engine.reset(state);
+        case ReplayRecorder.CODE_PAUSE -> engine.togglePause(state);
+        default -> {
+          if (code >= DIRECTIONS.length) {
+            throw new IllegalArgumentException("Unknown replay event " + code + " at tick " + ticks);
+          }
+          engine.requestDirection(state, DIRECTIONS[code]);
+        }
+      }
+    }
+
+    GameMode mode = MODES[in.readByte()];
+    long length = in.readVarint();
+    long head = in.readVarint();
+    long food = in.readVarint();
+    long score = in.readVarint();
+    String mismatch = compare(config, state, mode, length, head, food, score);
+    return new Result(state, ticks, mismatch == null, mismatch);
+  }
+
+  private static String compare(BoardConfig config, GameState state, GameMode mode, long length, long head, long food, long score) {
+    if (state.getSnake() == null) {
+      return "recording never reset the game";
+    }
+    Snake snake = state.getSnake();
+    Position h = snake.getHead();
+    Position f = state.getFood();
+    if (state.getMode() != mode) {
+      return "mode " + state.getMode() + ", recorded " + mode;
+    }
+    if (snake.getBody().size() != length) {
+      return "length " + snake.getBody().size() + ", recorded " + length;
+    }
+    if ((long) h.y() * config.columns() + h.x() != head) {
+      return "head " + h + ", recorded cell " + head;
+    }
+    if ((long) f.y() * config.columns() + f.x() != food) {
+      return "food " + f + ", recorded cell " + food;
+    }
+    if (snake.growth() != score) {
+      return "score " + snake.growth() + ", recorded " + score;
+    }
+    return null;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: ReplayPlayer <recording>...");
+      System.exit(2);
+    }
+    int failures = 0;
+    for (String arg : args) {
+      long start = System.nanoTime();
+      Result result = play(Path.of(arg));
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("%s: %d ticks in %.3f s (%.0f ticks/sec), %s%n", arg, result.ticks(), seconds,
+          result.ticks() / seconds, result.matches() ? "final state matches" : "MISMATCH: " + result.mismatch());
+      failures += result.matches() ? 0 : 1;
+    }
+    System.exit(failures == 0 ? 0 : 1);
+  }
+
+  private static final class Reader {
+    private final byte[] data;
+    private int pos;
+
+    Reader(byte[] data) {
+      this.data = data;
+    }
+
+    int readByte() {
+      if (pos >= data.length) {
+        throw new IllegalArgumentException("Truncated replay recording");
+      }
+      return data[pos++] & 0xFF;
+    }
+
+    int readInt() {
+      int v = 0;
+      for (int i = 0; i < 4; i++) {
+        v = (v << 8) | readByte();
+      }
+      return v;
+    }
+
+    long readLong() {
+      return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    long readVarint() {
+      long v = 0;
+      for (int shift = 0; ; shift += 7) {
+        int b = readByte();
+        v |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return v;
+        }
+      }
+    }
+  }
+}
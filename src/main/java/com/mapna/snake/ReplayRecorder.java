@@ -0,0 +1,138 @@
+package com.mapna.snake;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Records a session as the engine's {@code Random} seed plus every input, keyed by tick number,
+ * so {@link ReplayPlayer} can reproduce it exactly. Callers drive the game through this class
+ * instead of the engine directly.
+ *
+ * <p>Format (all integers are unsigned LEB128 varints unless noted):
+ * <pre>
+ *   int magic 'SNKR', byte version, long seed, columns, rows,
+ *   { tickDelta, byte code }*            code 0-3 = Direction ordinal, 4 = pause, 5 = reset
+ *   tickDelta, byte 6 (end), byte mode, length, head cell, food cell, score
+ * </pre>
+ * where {@code tickDelta} is the number of ticks since the previous event.
+ */
+public class ReplayRecorder {
+  static final int MAGIC = 0x534E4B52;
+  /** Version 2: turns are queued, one per tick, instead of the last request winning. */
+  static final int VERSION = 2;
+  static final int CODE_PAUSE = 4;
+  static final int CODE_RESET = 5;
+  static final int CODE_END = 6;
+
+  private final BoardConfig config;
+  private final GameEngine engine;
+  private byte[] buffer = new byte[256];
+  private int size;
+  private long ticks;
+  private long lastEventTick;
+
+  public ReplayRecorder(BoardConfig config, long seed) {
+    this.config = config;
+    this.engine = new GameEngine(config, new Random(seed));
+    writeInt(MAGIC);
+    writeByte(VERSION);
+    writeLong(seed);
+    writeVarint(config.columns());
+    writeVarint(config.rows());
+  }
+
+  /** The engine being recorded; only drive it through this recorder. */
+  public GameEngine engine() {
+    return engine;
+  }
+
+  public long ticks() {
+    return ticks;
+  }
+
+  public void reset(GameState state) {
+    event(CODE_RESET);
+    engine.reset(state);
+  }
+
+  public void requestDirection(GameState state, Direction direction) {
+    event(direction.ordinal());
+    engine.requestDirection(state, direction);
+  }
+
+  public void togglePause(GameState state) {
+    event(CODE_PAUSE);
+    engine.togglePause(state);
+  }
+
+  public void tick(GameState state) {
+    ticks++;
+    engine.tick(state);
+  }
+
+  /** Returns the finished recording, ending with a summary of {@code state} for verification. */
+  public byte[] finish(GameState state) {
+    int mark = size;
+    long markTick = lastEventTick;
+    event(CODE_END);
+    writeByte(state.getMode().ordinal());
+    Snake snake = state.getSnake();
+    writeVarint(snake.getBody().size());
+    writeVarint(cell(snake.getHead()));
+    writeVarint(cell(state.getFood()));
+    writeVarint(snake.growth());
+    byte[] recording = Arrays.copyOf(buffer, size);
+    // Leave the recorder able to continue, so finish() can be called again later.
+    size = mark;
+    lastEventTick = markTick;
+    return recording;
+  }
+
+  public void writeTo(OutputStream out, GameState state) throws IOException {
+    out.write(finish(state));
+  }
+
+  public void writeTo(Path file, GameState state) throws IOException {
+    Files.write(file, finish(state));
+  }
+
+  private int cell(Position p) {
+    return p.y() * config.columns() + p.x();
+  }
+
+  private void event(int code) {
+    writeVarint(ticks - lastEventTick);
+    lastEventTick = ticks;
+    writeByte(code);
+  }
+
+  private void writeByte(int b) {
+    if (size == buffer.length) {
+      buffer = Arrays.copyOf(buffer, size * 2);
+    }
+    buffer[size++] = (byte) b;
+  }
+
+  private void writeInt(int v) {
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      writeByte(v >>> shift);
+    }
+  }
+
+  private void writeLong(long v) {
+    writeInt((int) (v >>> 32));
+    writeInt((int) v);
+  }
+
+  private void writeVarint(long v) {
+    while ((v & ~0x7FL) != 0) {
+      writeByte((int) (v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    writeByte((int) v);
+  }
+}
@@ -0,0 +1,204 @@
+package com.mapna.snake;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/**
+ * Plays seeded games through {@link GameEngine} without a display, spread over a fixed pool of
+ * worker threads. Game {@code i} always uses seed {@code seed + i}, so results do not depend on
+ * the thread count.
+ */
+public final class Simulator {
+  private static final int CHUNKS_PER_THREAD = 8;
+
+  private Simulator() {
+  }
+
+  /**
+   * Runs {@code games} games of at most {@code maxTicks} ticks each.
+   *
+   * @param policies creates the move policy for a game from its seed
+   */
+  public static Summary run(int games, long seed, int maxTicks, int threads, LongFunction<MovePolicy> policies) {
+    return run(BoardConfig.DEFAULT, games, seed, maxTicks, threads, policies);
+  }
+
+  /** Runs the games on a board of the given configuration. */
+  public static Summary run(BoardConfig config, int games, long seed, int maxTicks, int threads,
+                            LongFunction<MovePolicy> policies) {
+    int chunks = Math.max(1, Math.min(games, threads * CHUNKS_PER_THREAD));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Summary>> parts = new ArrayList<>(chunks);
+      for (int c = 0; c < chunks; c++) {
+        int from = (int) ((long) games * c / chunks);
+        int to = (int) ((long) games * (c + 1) / chunks);
+        parts.add(executor.submit(() -> playRange(config, from, to, seed, maxTicks, policies)));
+      }
+      Summary total = new Summary();
+      for (Future<Summary> part : parts) {
+        total.merge(part.get());
+      }
+      return total;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Simulation interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Simulation failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Summary playRange(BoardConfig config, int from, int to, long seed, int maxTicks, LongFunction<MovePolicy> policies) {
+    Summary summary = new Summary();
+    GameState state = new GameState();
+    for (int game = from; game < to; game++) {
+      long gameSeed = seed + game;
+      GameEngine engine = new GameEngine(config, new Random(gameSeed));
+      MovePolicy policy = policies.apply(gameSeed);
+      engine.reset(state);
+      int ticks = 0;
+      while (state.getMode() == GameMode.RUNNING && ticks < maxTicks) {
+        engine.requestDirection(state, policy.choose(state));
+        engine.tick(state);
+        ticks++;
+      }
+      summary.record(state.getMode(), state.getSnake().growth(), ticks);
+    }
+    return summary;
+  }
+
+  public static void main(String[] args) {
+    int games = 10_000;
+    long seed = 1L;
+    int maxTicks = 20_000;
+    int threads = Runtime.getRuntime().availableProcessors();
+    String policyName = "greedy";
+    int columns = BoardConfig.PIXEL_WIDTH;
+    int rows = BoardConfig.PIXEL_HEIGHT;
+    for (String arg : args) {
+      String[] kv = arg.split("=", 2);
+      String value = kv.length > 1 ? kv[1] : "";
+      switch (kv[0]) {
+        case "--games" -> games = Integer.parseInt(value);
+        case "--seed" -> seed = Long.parseLong(value);
+        case "--max-ticks" -> maxTicks = Integer.parseInt(value);
+        case "--threads" -> threads = Integer.parseInt(value);
+        case "--policy" -> policyName = value;
+        case "--columns" -> columns = Integer.parseInt(value);
+        case "--rows" -> rows = Integer.parseInt(value);
+        default -> {
+          System.err.println("Usage: Simulator [--games=N] [--seed=S] [--max-ticks=T] [--threads=K] [--columns=W] [--rows=H]"
+              + " [--policy=greedy|random|straight]");
+          System.exit(2);
+        }
+      }
+    }
+    LongFunction<MovePolicy> policies = switch (policyName) {
+      case "greedy" -> s -> MovePolicy.greedy();
+      case "random" -> s -> MovePolicy.random(new Random(~s));
+      case "straight" -> s -> MovePolicy.straight();
+      default -> throw new IllegalArgumentException("Unknown policy: " + policyName);
+    };
+
+    long start = System.nanoTime();
+    Summary summary = run(BoardConfig.of(columns, rows), games, seed, maxTicks, threads, policies);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("%d games on %d threads in %.2f s%n", summary.games(), threads, seconds);
+    System.out.printf("games/sec: %.0f  ticks/sec: %.0f%n", summary.games() / seconds, summary.ticks() / seconds);
+    System.out.printf("won: %d  game over: %d  tick limit: %d%n", summary.won(), summary.lost(), summary.capped());
+    System.out.printf("score min/p50/p90/p99/max: %d/%d/%d/%d/%d  mean: %.2f%n",
+        summary.scorePercentile(0), summary.scorePercentile(50), summary.scorePercentile(90),
+        summary.scorePercentile(99), summary.scorePercentile(100), summary.meanScore());
+  }
+
+  /** Outcome counts, total ticks and a score histogram for a batch of games. */
+  public static final class Summary {
+    private long[] scoreCounts = new long[64];
+    private long games;
+    private long ticks;
+    private long won;
+    private long lost;
+    private long scoreSum;
+
+    void record(GameMode mode, int score, int gameTicks) {
+      if (score >= scoreCounts.length) {
+        scoreCounts = Arrays.copyOf(scoreCounts, score + 1);
+      }
+      scoreCounts[score]++;
+      scoreSum += score;
+      ticks += gameTicks;
+      games++;
+      if (mode == GameMode.WON) {
+        won++;
+      } else if (mode == GameMode.GAME_OVER) {
+        lost++;
+      }
+    }
+
+    void merge(Summary other) {
+      if (other.scoreCounts.length > scoreCounts.length) {
+        scoreCounts = Arrays.copyOf(scoreCounts, other.scoreCounts.length);
+      }
+      for (int i = 0; i < other.scoreCounts.length; i++) {
+        scoreCounts[i] += other.scoreCounts[i];
+      }
+      games += other.games;
+      ticks += other.ticks;
+      won += other.won;
+      lost += other.lost;
+      scoreSum += other.scoreSum;
+    }
+
+    public long games() {
+      return games;
+    }
+
+    public long ticks() {
+      return ticks;
+    }
+
+    public long won() {
+      return won;
+    }
+
+    public long lost() {
+      return lost;
+    }
+
+    /** Games stopped by the tick limit while still running. */
+    public long capped() {
+      return games - won - lost;
+    }
+
+    public double meanScore() {
+      return games == 0 ? 0 : (double) scoreSum / games;
+    }
+
+    public long countWithScore(int score) {
+      return score < scoreCounts.length ? scoreCounts[score] : 0;
+    }
+
+    /** Smallest score such that at least {@code percentile}% of games scored at most that. */
+    public int scorePercentile(double percentile) {
+      long rank = Math.max(1, (long) Math.ceil(games * percentile / 100.0));
+      long seen = 0;
+      for (int score = 0; score < scoreCounts.length; score++) {
+        seen += scoreCounts[score];
+        if (seen >= rank) {
+          return score;
+        }
+      }
+      return 0;
+    }
+  }
+}
@@ -1,81 +1,308 @@
 package com.mapna.snake;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
+import java.util.function.IntPredicate;
 
-public class Snake {
+/**
+ * Snake body stored as packed cell indices ({@code y * width + x}) in a power-of-two ring buffer,
+ * with an {@link Occupancy} set for collision checks and free-cell picks. The occupancy also
+ * holds the board's obstacles, so running into one is the same bit test as running into the
+ * body. Moves follow the board's {@link Topology}, whose masked cells are blocked here from
+ * the start. Moving never allocates; the ring only grows when the snake does, so memory
+ * follows length, not board area.
+ */
+public final class Snake {
   private static final int INITIAL_LENGTH = 3;
-  private final LinkedList<Position> body = new LinkedList<>();
-  private final List<Position> unmodifiableBody = Collections.unmodifiableList(body);
-  private final Set<Position> occupied = new HashSet<>();
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int SPAWN_ATTEMPTS = 64;
+  private final int width;
+  private final int height;
+  private final Topology topology;
+  private final Occupancy occupancy;
+  private final List<Position> bodyView = new BodyView();
+  private int[] cells = new int[INITIAL_CAPACITY];
+  private int headIndex;
+  private int length;
 
   public Snake(Random random, int width, int height) {
-    int x = random.nextInt(width);
-    int y = random.nextInt(height - INITIAL_LENGTH);
+    this(random, Topology.torus(width, height));
+  }
+
+  public Snake(Random random, BoardConfig config) {
+    this(random, config.columns(), config.rows());
+  }
 
-    addSegment(new Position(x, y));
-    addSegment(new Position(x, y + 1));
-    addSegment(new Position(x, y + 2));
+  /**
+   * Places a length-3 vertical snake, head up, at a random spot where all three cells and the
+   * cell above the head are open.
+   *
+   * @throws IllegalArgumentException if the topology has no such spot
+   */
+  public Snake(Random random, Topology topology) {
+    this(random, topology, cell -> true);
   }
 
-  /** Creates a length-3 vertical snake at the given head position. */
+  /** As {@link #Snake(Random, Topology)}, also keeping off cells {@code open} rejects. */
+  Snake(Random random, Topology topology, IntPredicate open) {
+    this(topology);
+    int spawn = -1;
+    for (int i = 0; i < SPAWN_ATTEMPTS && spawn < 0; i++) {
+      int x = random.nextInt(width);
+      int cell = random.nextInt(height - INITIAL_LENGTH) * width + x;
+      spawn = canSpawnAt(cell, open) ? cell : -1;
+    }
+    for (int cell = 0; cell < width * (height - INITIAL_LENGTH) && spawn < 0; cell++) {
+      spawn = canSpawnAt(cell, open) ? cell : -1;
+    }
+    if (spawn < 0) {
+      throw new IllegalArgumentException("No room for a snake on a " + width + "x" + height + " board");
+    }
+    appendCell(spawn);
+    appendCell(spawn + width);
+    appendCell(spawn + 2 * width);
+  }
+
+  /** Creates a length-3 vertical snake at the given head position; segments wrap on the torus. */
   public static Snake createFixed(int headX, int headY) {
-    return new Snake(new Position(headX, headY), new Position(headX, headY + 1), new Position(headX, headY + 2));
+    return createFixed(BoardConfig.DEFAULT, headX, headY);
+  }
+
+  /** Creates a length-3 vertical snake on the given board; segments wrap on the torus. */
+  public static Snake createFixed(BoardConfig config, int headX, int headY) {
+    Snake snake = new Snake(config.columns(), config.rows());
+    snake.addSegment(headX, headY);
+    snake.addSegment(headX, (headY + 1) % snake.height);
+    snake.addSegment(headX, (headY + 2) % snake.height);
+    return snake;
+  }
+
+  /** Empty snake; callers must append at least one cell before using it. */
+  Snake(int width, int height) {
+    this(Topology.torus(width, height));
+  }
+
+  /** Empty snake on the topology, with its masked cells already blocked. */
+  Snake(Topology topology) {
+    this.topology = topology;
+    this.width = topology.columns();
+    this.height = topology.rows();
+    this.occupancy = Occupancy.forBoard(width, height);
+    Position.reserve(width, height);
+    for (int cell = 0, closed = topology.maskedCount(); closed > 0; cell++) {
+      if (!topology.isOpen(cell)) {
+        occupancy.block(cell);
+        closed--;
+      }
+    }
+  }
+
+  private boolean canSpawnAt(int cell, IntPredicate open) {
+    int above = topology.neighbour(cell, Direction.UP);
+    for (int i = 0; i < INITIAL_LENGTH; i++) {
+      int segment = cell + i * width;
+      if (!topology.isOpen(segment) || !open.test(segment)) {
+        return false;
+      }
+    }
+    return above != Topology.WALL && open.test(above);
+  }
+
+  private void addSegment(int x, int y) {
+    appendCell(y * width + x);
+  }
+
+  /** Adds a packed cell behind the current tail. */
+  void appendCell(int cell) {
+    ensureCapacity();
+    cells[(headIndex + length) & (cells.length - 1)] = cell;
+    length++;
+    occupancy.occupy(cell);
   }
 
-  private Snake(Position head, Position seg2, Position seg3) {
-    addSegment(head);
-    addSegment(seg2);
-    addSegment(seg3);
+  public int columns() {
+    return width;
   }
 
-  private void addSegment(Position p) {
-    body.add(p);
-    occupied.add(p);
+  public int rows() {
+    return height;
+  }
+
+  public Topology topology() {
+    return topology;
   }
 
   public Position getHead() {
-    return body.getFirst();
+    return toPosition(cells[headIndex]);
+  }
+
+  public Position getTail() {
+    return toPosition(cells[(headIndex + length - 1) & (cells.length - 1)]);
   }
 
   public List<Position> getBody() {
-    return unmodifiableBody;
+    return bodyView;
   }
 
+  /** True if a body segment covers the cell; obstacles do not count. */
   public boolean contains(Position point) {
-    return occupied.contains(point);
+    if (!onBoard(point)) {
+      return false;
+    }
+    int cell = point.y() * width + point.x();
+    return occupancy.isOccupied(cell) && !occupancy.isBlocked(cell);
   }
 
+  /** True if the head has landed on the body or an obstacle. */
   public boolean eatingSelf() {
-    // Head occupies a duplicate position in the set only if it overlaps another segment.
-    // Since the set deduplicates, a collision means the set is smaller than the list.
-    return occupied.size() < body.size();
+    // A head that lands on an occupied cell does not add to the occupied count,
+    // so a collision means fewer occupied cells than body segments.
+    return occupancy.occupiedCount() < length;
+  }
+
+  /**
+   * Puts a permanent obstacle on the cell; returns false if it is off the board, already an
+   * obstacle or under the body.
+   */
+  public boolean addObstacle(Position point) {
+    return onBoard(point) && occupancy.block(point.y() * width + point.x());
+  }
+
+  public boolean isObstacle(Position point) {
+    return onBoard(point) && occupancy.isBlocked(point.y() * width + point.x());
+  }
+
+  public int obstacleCount() {
+    return occupancy.blockedCount();
+  }
+
+  /** Packed cell of the obstacle added {@code index}-th; no allocation. */
+  public int obstacleCellAt(int index) {
+    return occupancy.blockedCell(index);
+  }
+
+  /**
+   * First packed cell at or after {@code from}, row by row and wrapping, with no body or
+   * obstacle; -1 if none. A word scan of the occupancy bitboard on dense boards.
+   */
+  public int nextFreeCell(int from) {
+    return occupancy.nextFree(from);
+  }
+
+  private boolean onBoard(Position point) {
+    return point.x() >= 0 && point.x() < width && point.y() >= 0 && point.y() < height;
+  }
+
+  /** Packed cell the head would enter, or {@link Topology#WALL}; a table lookup with no allocation. */
+  public int nextCell(Direction direction) {
+    return topology.neighbour(cells[headIndex], direction);
+  }
+
+  /**
+   * Returns the next head position on this snake's board without mutating state, or null if
+   * the move runs into a wall.
+   */
+  public Position nextHead(Direction direction) {
+    int cell = nextCell(direction);
+    return cell == Topology.WALL ? null : toPosition(cell);
   }
 
-  /** Returns the next head position without mutating state. */
+  /** Returns the next head position on a torus of the given size, ignoring this snake's topology. */
   public Position nextHead(Direction direction, int boardWidth, int boardHeight) {
-    Position head = body.getFirst();
+    if (boardWidth == width && boardHeight == height && topology.wraps() && topology.maskedCount() == 0) {
+      return nextHead(direction);
+    }
+    Position head = getHead();
+    int x = head.x();
+    int y = head.y();
     return switch (direction) {
-      case DOWN -> new Position(head.x(), (head.y() + 1) % boardHeight);
-      case UP -> new Position(head.x(), (head.y() - 1 + boardHeight) % boardHeight);
-      case LEFT -> new Position((head.x() - 1 + boardWidth) % boardWidth, head.y());
-      case RIGHT -> new Position((head.x() + 1) % boardWidth, head.y());
+      case DOWN -> Position.of(x, y + 1 == boardHeight ? 0 : y + 1);
+      case UP -> Position.of(x, y == 0 ? boardHeight - 1 : y - 1);
+      case LEFT -> Position.of(x == 0 ? boardWidth - 1 : x - 1, y);
+      case RIGHT -> Position.of(x + 1 == boardWidth ? 0 : x + 1, y);
     };
   }
 
   public void move(Position newHead, boolean growing) {
     if (!growing) {
-      occupied.remove(body.removeLast());
+      length--;
+      occupancy.vacate(cells[(headIndex + length) & (cells.length - 1)]);
+    }
+    ensureCapacity();
+    int cell = newHead.index(width);
+    headIndex = (headIndex - 1) & (cells.length - 1);
+    cells[headIndex] = cell;
+    length++;
+    occupancy.occupy(cell);
+  }
+
+  /** Removes the tail segment; returns false, changing nothing, if the snake is at its starting length. */
+  public boolean dropTail() {
+    if (length <= INITIAL_LENGTH) {
+      return false;
     }
-    body.addFirst(newHead);
-    occupied.add(newHead);
+    length--;
+    occupancy.vacate(cells[(headIndex + length) & (cells.length - 1)]);
+    return true;
+  }
+
+  /** Packed cell ({@code y * width + x}) of the segment at {@code index}, head first; no allocation. */
+  public int cellAt(int index) {
+    return cells[(headIndex + index) & (cells.length - 1)];
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /** True if neither body nor obstacle covers the packed cell; no allocation. */
+  public boolean isFreeCell(int cell) {
+    return !occupancy.isOccupied(cell);
+  }
+
+  public int freeCellCount() {
+    return occupancy.freeCount();
+  }
+
+  /** Picks a uniformly random cell not covered by the body or an obstacle; at least one cell must be free. */
+  public Position randomFreeCell(Random random) {
+    return toPosition(occupancy.randomFree(random));
   }
 
   public int growth() {
-    return body.size() - INITIAL_LENGTH;
+    return length - INITIAL_LENGTH;
+  }
+
+  private void ensureCapacity() {
+    if (length < cells.length) {
+      return;
+    }
+    int[] grown = new int[cells.length << 1];
+    for (int i = 0; i < length; i++) {
+      grown[i] = cells[(headIndex + i) & (cells.length - 1)];
+    }
+    cells = grown;
+    headIndex = 0;
+  }
+
+  private Position toPosition(int cell) {
+    return Position.ofIndex(cell, width);
+  }
+
+  /** Read-only, head-first view over the ring buffer. */
+  private final class BodyView extends AbstractList<Position> {
+    @Override
+    public Position get(int index) {
+      if (index < 0 || index >= length) {
+        throw new IndexOutOfBoundsException(index);
+      }
+      return toPosition(cells[(headIndex + index) & (cells.length - 1)]);
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
   }
 }
@@ -0,0 +1,179 @@
+package com.mapna.snake;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Open-addressing hash set of occupied cells for large boards, so memory follows the snake's
+ * length instead of the board's area. Free cells are found by rejection sampling, which stays
+ * O(1) expected while the snake covers a small share of the board. Obstacles live in a second
+ * set created on first use.
+ */
+public class SparseOccupancy implements Occupancy {
+  private static final int EMPTY = -1;
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int MAX_SAMPLES = 64;
+  private final int cellCount;
+  private int[] table = newTable(INITIAL_CAPACITY);
+  private int size;
+  private SparseOccupancy walls;
+  private ObstacleList obstacles;
+
+  public SparseOccupancy(int cellCount) {
+    this.cellCount = cellCount;
+  }
+
+  @Override
+  public boolean isOccupied(int cell) {
+    return contains(cell) || walls != null && walls.contains(cell);
+  }
+
+  private boolean contains(int cell) {
+    int mask = table.length - 1;
+    for (int i = slot(cell, mask); ; i = (i + 1) & mask) {
+      int entry = table[i];
+      if (entry == cell) {
+        return true;
+      }
+      if (entry == EMPTY) {
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public boolean occupy(int cell) {
+    if (walls != null && walls.contains(cell)) {
+      return false;
+    }
+    int mask = table.length - 1;
+    int i = slot(cell, mask);
+    while (table[i] != EMPTY) {
+      if (table[i] == cell) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    table[i] = cell;
+    if (++size * 2 > table.length) {
+      rehash(table.length << 1);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean vacate(int cell) {
+    int mask = table.length - 1;
+    int i = slot(cell, mask);
+    while (table[i] != cell) {
+      if (table[i] == EMPTY) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    // Backward-shift deletion keeps probe chains intact without tombstones.
+    int gap = i;
+    for (int j = (gap + 1) & mask; table[j] != EMPTY; j = (j + 1) & mask) {
+      int home = slot(table[j], mask);
+      if (((j - home) & mask) >= ((j - gap) & mask)) {
+        table[gap] = table[j];
+        gap = j;
+      }
+    }
+    table[gap] = EMPTY;
+    size--;
+    return true;
+  }
+
+  @Override
+  public boolean block(int cell) {
+    if (contains(cell)) {
+      return false;
+    }
+    if (walls == null) {
+      walls = new SparseOccupancy(cellCount);
+      obstacles = new ObstacleList();
+    }
+    if (!walls.occupy(cell)) {
+      return false;
+    }
+    obstacles.add(cell);
+    return true;
+  }
+
+  @Override
+  public boolean isBlocked(int cell) {
+    return walls != null && walls.contains(cell);
+  }
+
+  @Override
+  public int blockedCount() {
+    return walls == null ? 0 : walls.size;
+  }
+
+  @Override
+  public int blockedCell(int index) {
+    if (obstacles == null) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return obstacles.get(index);
+  }
+
+  @Override
+  public int occupiedCount() {
+    return size;
+  }
+
+  @Override
+  public int freeCount() {
+    return cellCount - size - blockedCount();
+  }
+
+  @Override
+  public int randomFree(Random random) {
+    int cell = random.nextInt(cellCount);
+    for (int i = 1; i < MAX_SAMPLES && isOccupied(cell); i++) {
+      cell = random.nextInt(cellCount);
+    }
+    // A crowded board can defeat sampling; walk forward to the nearest free cell instead.
+    return isOccupied(cell) ? nextFree(cell) : cell;
+  }
+
+  @Override
+  public int nextFree(int from) {
+    int cell = from;
+    for (int i = 0; i < cellCount; i++) {
+      if (!isOccupied(cell)) {
+        return cell;
+      }
+      cell = cell + 1 == cellCount ? 0 : cell + 1;
+    }
+    return -1;
+  }
+
+  private void rehash(int capacity) {
+    int[] old = table;
+    table = newTable(capacity);
+    int mask = capacity - 1;
+    for (int cell : old) {
+      if (cell != EMPTY) {
+        int i = slot(cell, mask);
+        while (table[i] != EMPTY) {
+          i = (i + 1) & mask;
+        }
+        table[i] = cell;
+      }
+    }
+  }
+
+  private static int slot(int cell, int mask) {
+    int h = cell * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private static int[] newTable(int capacity) {
+    int[] fresh = new int[capacity];
+    Arrays.fill(fresh, EMPTY);
+    return fresh;
+  }
+}
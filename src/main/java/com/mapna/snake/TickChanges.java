@@ -0,0 +1,63 @@
+package com.mapna.snake;
+
+/**
+ * Cells and HUD changes the engine has made since a renderer last consumed them. The cell list
+ * is bounded; once it fills up, or the whole screen changes, it collapses to a full redraw.
+ */
+public class TickChanges {
+  private static final int MAX_CELLS = 16;
+  private final int[] xs = new int[MAX_CELLS];
+  private final int[] ys = new int[MAX_CELLS];
+  private int count;
+  private boolean fullRedraw = true;
+  private boolean scoreChanged;
+
+  public void addCell(Position cell) {
+    if (fullRedraw) {
+      return;
+    }
+    if (count == MAX_CELLS) {
+      markFullRedraw();
+      return;
+    }
+    xs[count] = cell.x();
+    ys[count] = cell.y();
+    count++;
+  }
+
+  public void markScoreChanged() {
+    scoreChanged = true;
+  }
+
+  public void markFullRedraw() {
+    fullRedraw = true;
+    count = 0;
+  }
+
+  public boolean isFullRedraw() {
+    return fullRedraw;
+  }
+
+  public boolean isScoreChanged() {
+    return scoreChanged;
+  }
+
+  public int cellCount() {
+    return count;
+  }
+
+  public int cellX(int i) {
+    return xs[i];
+  }
+
+  public int cellY(int i) {
+    return ys[i];
+  }
+
+  /** Called by the renderer once it has drawn everything reported so far. */
+  public void clear() {
+    count = 0;
+    fullRedraw = false;
+    scoreChanged = false;
+  }
+}
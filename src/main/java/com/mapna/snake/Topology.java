@@ -0,0 +1,149 @@
+package com.mapna.snake;
+
+import java.util.Objects;
+
+/**
+ * How cells of a board connect: a torus that wraps at every edge, a walled box, and either of
+ * those with a mask of closed cells. Moves are looked up in a table of packed cell indices
+ * ({@code y * columns + x}) built once, four entries per cell in {@link Direction} ordinal order,
+ * so a step costs one array read instead of division and modulo. A move into a wall or a masked
+ * cell yields {@link #WALL}. Boards larger than {@link #TABLE_CELL_LIMIT} cells compute the same
+ * answers on the fly rather than hold a table four times the board's size.
+ *
+ * <p>Instances are immutable and safe to share between snakes, threads and solvers.
+ */
+public final class Topology {
+  /** Neighbour of a cell whose move leaves the board or enters a masked cell. */
+  public static final int WALL = -1;
+  /** Boards with more cells than this compute neighbours instead of storing them. */
+  public static final int TABLE_CELL_LIMIT = Occupancy.DENSE_CELL_LIMIT;
+  private static final int DOWN = Direction.DOWN.ordinal();
+  private static final int UP = Direction.UP.ordinal();
+  private static final int LEFT = Direction.LEFT.ordinal();
+  private final int columns;
+  private final int rows;
+  private final boolean wraps;
+  /** Closed cells, or null when every cell is open. */
+  private final Bitboard mask;
+  private final int maskedCount;
+  /** {@code neighbours[cell << 2 | direction]}, or null above {@link #TABLE_CELL_LIMIT}. */
+  private final int[] neighbours;
+
+  private Topology(int columns, int rows, boolean wraps, Bitboard mask) {
+    if (columns <= 0 || rows <= 0 || (long) columns * rows > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid board size: " + columns + "x" + rows);
+    }
+    this.columns = columns;
+    this.rows = rows;
+    this.wraps = wraps;
+    this.mask = mask;
+    this.maskedCount = mask == null ? 0 : mask.count();
+    this.neighbours = columns * rows <= TABLE_CELL_LIMIT ? buildTable() : null;
+  }
+
+  /** Every edge wraps to the opposite one; the classic board. */
+  public static Topology torus(int columns, int rows) {
+    return new Topology(columns, rows, true, null);
+  }
+
+  /** Every edge is a wall. */
+  public static Topology walled(int columns, int rows) {
+    return new Topology(columns, rows, false, null);
+  }
+
+  /**
+   * Same edges as this topology with the set cells of {@code closed} walled off as well. The
+   * mask is copied, so later changes to it have no effect.
+   *
+   * @throws IllegalArgumentException if the mask's size differs from the board's
+   */
+  public Topology withMask(Bitboard closed) {
+    Objects.requireNonNull(closed, "closed");
+    if (closed.columns() != columns || closed.rows() != rows) {
+      throw new IllegalArgumentException("Mask is " + closed.columns() + "x" + closed.rows()
+          + ", board is " + columns + "x" + rows);
+    }
+    Bitboard copy = new Bitboard(columns, rows);
+    for (int y = 0; y < rows; y++) {
+      for (int x = 0; x < columns; x++) {
+        if (closed.get(x, y) || (mask != null && mask.get(x, y))) {
+          copy.set(x, y);
+        }
+      }
+    }
+    return new Topology(columns, rows, wraps, copy);
+  }
+
+  public int columns() {
+    return columns;
+  }
+
+  public int rows() {
+    return rows;
+  }
+
+  public int cellCount() {
+    return columns * rows;
+  }
+
+  /** True if moving off an edge comes back on the opposite one. */
+  public boolean wraps() {
+    return wraps;
+  }
+
+  /** Number of masked cells. */
+  public int maskedCount() {
+    return maskedCount;
+  }
+
+  /** True unless the cell is masked. */
+  public boolean isOpen(int cell) {
+    return mask == null || !mask.get(cell % columns, cell / columns);
+  }
+
+  /** Packed cell reached from {@code cell} moving in {@code direction}, or {@link #WALL}. */
+  public int neighbour(int cell, Direction direction) {
+    return neighbour(cell, direction.ordinal());
+  }
+
+  /** As {@link #neighbour(int, Direction)}, with the direction given by its ordinal. */
+  public int neighbour(int cell, int direction) {
+    return neighbours != null ? neighbours[cell << 2 | direction] : compute(cell, direction);
+  }
+
+  /** Fewest moves between two cells ignoring masks; never overestimates, so A* can use it. */
+  public int distance(int a, int b) {
+    int dx = Math.abs(a % columns - b % columns);
+    int dy = Math.abs(a / columns - b / columns);
+    return wraps ? Math.min(dx, columns - dx) + Math.min(dy, rows - dy) : dx + dy;
+  }
+
+  private int[] buildTable() {
+    int cells = columns * rows;
+    int[] table = new int[cells << 2];
+    for (int cell = 0; cell < cells; cell++) {
+      for (int direction = 0; direction < 4; direction++) {
+        table[cell << 2 | direction] = compute(cell, direction);
+      }
+    }
+    return table;
+  }
+
+  private int compute(int cell, int direction) {
+    int x = cell % columns;
+    int y = cell / columns;
+    if (direction == DOWN) {
+      y = y + 1 < rows ? y + 1 : wraps ? 0 : WALL;
+    } else if (direction == UP) {
+      y = y > 0 ? y - 1 : wraps ? rows - 1 : WALL;
+    } else if (direction == LEFT) {
+      x = x > 0 ? x - 1 : wraps ? columns - 1 : WALL;
+    } else {
+      x = x + 1 < columns ? x + 1 : wraps ? 0 : WALL;
+    }
+    if (x == WALL || y == WALL || (mask != null && mask.get(x, y))) {
+      return WALL;
+    }
+    return y * columns + x;
+  }
+}
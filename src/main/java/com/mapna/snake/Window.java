@@ -7,11 +7,20 @@ import javax.swing.JFrame;
 
 public class Window extends JFrame {
   public Window() {
+    this(LoopMode.TIMER);
+  }
+
+  public Window(LoopMode loopMode) {
     super("JavaSnake");
     setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     setIcon();
 
-    add(new Board());
+    EventBus events = EventBus.openLogging();
+    if (loopMode == LoopMode.TIMER) {
+      add(new Board(BoardConfig.DEFAULT, RenderMode.INCREMENTAL, events));
+    } else {
+      add(new ActiveBoard(BoardConfig.DEFAULT, loopMode == LoopMode.THREADED, events));
+    }
     pack();
     setResizable(false);
     setLocationRelativeTo(null);
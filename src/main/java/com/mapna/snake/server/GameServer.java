@@ -0,0 +1,178 @@
+package com.mapna.snake.server;
+
+import com.mapna.snake.BoardConfig;
+import com.mapna.snake.GameEngine;
+import com.mapna.snake.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts one game per TCP connection over a line protocol.
+ *
+ * <p>Client to server, one command per line: {@code U}, {@code D}, {@code L}, {@code R} to turn,
+ * {@code P} to pause, {@code N} for a new game and {@code Q} to quit. The server greets with
+ * {@code HELLO <session> <columns> <rows> <tickMillis>} and then sends
+ * {@code S <tick> <mode> <score> <headX> <headY> <foodX> <foodY> <direction>} after every tick
+ * that changed the game.
+ *
+ * <p>Each connection is served by virtual threads, while all sessions are ticked by a small
+ * shared scheduler: sessions are split into one shard per scheduler thread and each shard is
+ * ticked at a fixed rate. {@link #tickLatency()} records, per session tick, how long after the
+ * scheduled instant its update was ready to send.
+ */
+public final class GameServer implements AutoCloseable {
+  private final BoardConfig config;
+  private final long tickNanos;
+  private final long seed;
+  private final ServerSocket serverSocket;
+  private final List<Map<Long, Session>> shards;
+  private final ScheduledExecutorService ticker;
+  private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+  private final LatencyHistogram tickLatency = new LatencyHistogram();
+  private final AtomicLong nextId = new AtomicLong();
+  private final AtomicInteger sessionCount = new AtomicInteger();
+
+  public GameServer(BoardConfig config, int port, long tickMillis, int tickThreads, long seed) throws IOException {
+    if (tickMillis <= 0 || tickThreads <= 0) {
+      throw new IllegalArgumentException("tickMillis and tickThreads must be positive");
+    }
+    this.config = config;
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    this.seed = seed;
+    this.shards = new ArrayList<>(tickThreads);
+    for (int i = 0; i < tickThreads; i++) {
+      shards.add(new ConcurrentHashMap<>());
+    }
+    this.ticker = Executors.newScheduledThreadPool(tickThreads, r -> {
+      Thread thread = new Thread(r, "snake-server-tick");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.serverSocket = new ServerSocket();
+    serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+  }
+
+  /** Starts accepting connections and ticking sessions; returns this server. */
+  public GameServer start() {
+    long first = System.nanoTime() + tickNanos;
+    for (int i = 0; i < shards.size(); i++) {
+      Map<Long, Session> shard = shards.get(i);
+      long[] due = {first};
+      ticker.scheduleAtFixedRate(() -> {
+        tickShard(shard, due[0]);
+        due[0] += tickNanos;
+      }, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+    connections.execute(this::acceptLoop);
+    return this;
+  }
+
+  public int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  public int sessionCount() {
+    return sessionCount.get();
+  }
+
+  public LatencyHistogram tickLatency() {
+    return tickLatency;
+  }
+
+  @Override
+  public void close() {
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      // Already closed.
+    }
+    ticker.shutdownNow();
+    for (Map<Long, Session> shard : shards) {
+      shard.values().forEach(Session::close);
+    }
+    connections.shutdownNow();
+  }
+
+  private void acceptLoop() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.execute(() -> handle(socket));
+      } catch (SocketException e) {
+        return;
+      } catch (IOException e) {
+        System.err.println("Failed to accept connection: " + e.getMessage());
+      }
+    }
+  }
+
+  private void handle(Socket socket) {
+    long id = nextId.getAndIncrement();
+    Session session = new Session(id, new GameEngine(config, new Random(seed + id)), socket);
+    Map<Long, Session> shard = shards.get((int) (id % shards.size()));
+    try {
+      socket.setTcpNoDelay(true);
+      session.greet("HELLO " + id + " " + config.columns() + " " + config.rows() + " "
+          + TimeUnit.NANOSECONDS.toMillis(tickNanos) + "\n");
+    } catch (IOException e) {
+      session.close();
+      return;
+    }
+    shard.put(id, session);
+    sessionCount.incrementAndGet();
+    try {
+      session.serve();
+    } finally {
+      shard.remove(id);
+      sessionCount.decrementAndGet();
+    }
+  }
+
+  private void tickShard(Map<Long, Session> shard, long due) {
+    for (Session session : shard.values()) {
+      if (!session.isClosed()) {
+        session.tick();
+        tickLatency.record(System.nanoTime() - due);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = 7777;
+    long tickMillis = BoardConfig.TICK_RATE_MS;
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (String arg : args) {
+      String[] kv = arg.split("=", 2);
+      String value = kv.length > 1 ? kv[1] : "";
+      switch (kv[0]) {
+        case "--port" -> port = Integer.parseInt(value);
+        case "--tick" -> tickMillis = Long.parseLong(value);
+        case "--threads" -> threads = Integer.parseInt(value);
+        default -> {
+          System.err.println("Usage: GameServer [--port=P] [--tick=MS] [--threads=K]");
+          System.exit(2);
+        }
+      }
+    }
+    GameServer server = new GameServer(BoardConfig.DEFAULT, port, tickMillis, threads, System.nanoTime()).start();
+    Runtime.getRuntime().addShutdownHook(new Thread(server::close, "snake-server-stop"));
+    System.out.printf("Snake server on port %d, %d tick threads, %d ms ticks%n", server.port(), threads, tickMillis);
+    Thread.currentThread().join();
+  }
+}
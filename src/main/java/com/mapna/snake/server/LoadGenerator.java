@@ -0,0 +1,212 @@
+package com.mapna.snake.server;
+
+import com.mapna.snake.BoardConfig;
+import com.mapna.snake.LatencyHistogram;
+import com.mapna.snake.LatencySnapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connects scripted bots to a {@link GameServer}, one virtual thread each. A bot steers toward
+ * the food along x, then along y, never reversing, and starts a new game whenever its game ends.
+ * It measures the gap between consecutive state lines, which on a healthy server stays close to
+ * the tick period. The run's clock starts once every bot has connected, so a slow ramp-up does
+ * not cut the last bots' games short.
+ */
+public final class LoadGenerator {
+  private static final int CONNECT_TIMEOUT_MS = 10_000;
+  private static final int READ_TIMEOUT_MS = 200;
+
+  private LoadGenerator() {
+  }
+
+  /** Connects {@code bots} bots to the server at {@code address}, then runs them all for {@code millis} milliseconds. */
+  public static Report run(InetSocketAddress address, int bots, long millis) throws InterruptedException {
+    LatencyHistogram gaps = new LatencyHistogram();
+    AtomicLong updates = new AtomicLong();
+    AtomicLong fewest = new AtomicLong(Long.MAX_VALUE);
+    AtomicInteger connected = new AtomicInteger();
+    AtomicInteger gamesOver = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    CountDownLatch ready = new CountDownLatch(bots);
+    long start;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < bots; i++) {
+        executor.execute(() -> {
+          long received = playBot(address, millis, ready, gaps, updates, connected, gamesOver);
+          if (received < 0) {
+            failed.incrementAndGet();
+          } else {
+            fewest.accumulateAndGet(received, Math::min);
+          }
+        });
+      }
+      // Each bot counts down once, connected or not, and connecting is bounded by its timeouts.
+      ready.await();
+      start = System.nanoTime();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    long fewestUpdates = fewest.get() == Long.MAX_VALUE ? 0 : fewest.get();
+    return new Report(connected.get(), failed.get(), updates.get(), fewestUpdates, gamesOver.get(), seconds, gaps.snapshot(1e6));
+  }
+
+  /**
+   * Connects, waits for the other bots to connect and plays for {@code millis}; returns the state
+   * lines received, or -1 if the bot could not connect or lost its connection.
+   */
+  private static long playBot(InetSocketAddress address, long millis, CountDownLatch ready, LatencyHistogram gaps,
+                              AtomicLong updates, AtomicInteger connected, AtomicInteger gamesOver) {
+    boolean joined = false;
+    try (Socket socket = new Socket()) {
+      socket.connect(address, CONNECT_TIMEOUT_MS);
+      socket.setTcpNoDelay(true);
+      socket.setSoTimeout(CONNECT_TIMEOUT_MS);
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      OutputStream out = socket.getOutputStream();
+      String hello = in.readLine();
+      if (hello == null || !hello.startsWith("HELLO ")) {
+        return -1;
+      }
+      connected.incrementAndGet();
+      ready.countDown();
+      joined = true;
+      ready.await();
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+      // Short reads from here on so an idle bot still notices the deadline.
+      socket.setSoTimeout(READ_TIMEOUT_MS);
+      long last = 0;
+      long received = 0;
+      while (System.nanoTime() < deadline) {
+        String line;
+        try {
+          line = in.readLine();
+        } catch (SocketTimeoutException e) {
+          continue;
+        }
+        if (line == null) {
+          return -1;
+        }
+        long now = System.nanoTime();
+        if (last != 0) {
+          gaps.record(now - last);
+        }
+        last = now;
+        updates.incrementAndGet();
+        received++;
+        char command = steer(line.split(" "));
+        if (command == 'N') {
+          gamesOver.incrementAndGet();
+          last = 0;
+        }
+        if (command != 0) {
+          out.write(new byte[] {(byte) command, '\n'});
+        }
+      }
+      out.write(new byte[] {'Q', '\n'});
+      return received;
+    } catch (IOException e) {
+      return -1;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return -1;
+    } finally {
+      if (!joined) {
+        ready.countDown();
+      }
+    }
+  }
+
+  /** Picks the next command for a state line, or 0 to keep going. */
+  static char steer(String[] state) {
+    String mode = state[2];
+    if (!mode.equals("RUNNING")) {
+      return mode.equals("PAUSED") ? 'P' : 'N';
+    }
+    int headX = Integer.parseInt(state[4]);
+    int headY = Integer.parseInt(state[5]);
+    int foodX = Integer.parseInt(state[6]);
+    int foodY = Integer.parseInt(state[7]);
+    String direction = state[8];
+    if (headX != foodX && !direction.equals("LEFT") && !direction.equals("RIGHT")) {
+      return headX < foodX ? 'R' : 'L';
+    }
+    if (headX == foodX && headY != foodY && !direction.equals("UP") && !direction.equals("DOWN")) {
+      return headY < foodY ? 'D' : 'U';
+    }
+    return 0;
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    String host = null;
+    int port = 7777;
+    int bots = 1_000;
+    long seconds = 10;
+    long tickMillis = BoardConfig.TICK_RATE_MS;
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (String arg : args) {
+      String[] kv = arg.split("=", 2);
+      String value = kv.length > 1 ? kv[1] : "";
+      switch (kv[0]) {
+        case "--host" -> host = value;
+        case "--port" -> port = Integer.parseInt(value);
+        case "--bots" -> bots = Integer.parseInt(value);
+        case "--seconds" -> seconds = Long.parseLong(value);
+        case "--tick" -> tickMillis = Long.parseLong(value);
+        case "--threads" -> threads = Integer.parseInt(value);
+        default -> {
+          System.err.println("Usage: LoadGenerator [--host=H --port=P | --tick=MS --threads=K] [--bots=N] [--seconds=S]");
+          System.exit(2);
+        }
+      }
+    }
+    if (host != null) {
+      System.out.println(run(new InetSocketAddress(host, port), bots, seconds * 1_000));
+      return;
+    }
+    // No host given: start an in-process server so its tick latency can be reported too.
+    try (GameServer server = new GameServer(BoardConfig.DEFAULT, 0, tickMillis, threads, 1L).start()) {
+      Report report = run(new InetSocketAddress("127.0.0.1", server.port()), bots, seconds * 1_000);
+      System.out.println(report);
+      LatencySnapshot tick = server.tickLatency().snapshot(1e6);
+      System.out.printf("server tick latency ms p50/p90/p99/max: %.2f/%.2f/%.2f/%.2f over %d session ticks%n",
+          tick.getP50(), tick.getP90(), tick.getP99(), tick.getMax(), tick.getCount());
+    }
+  }
+
+  /**
+   * Results of one run; gap percentiles are in milliseconds. {@code fewestUpdates} is the least
+   * any bot that finished the run received, so one starved session shows even when the total
+   * looks healthy.
+   */
+  public record Report(int sessions, int failed, long updates, long fewestUpdates, int gamesOver, double seconds,
+                       LatencySnapshot gaps) {
+    public double sessionsPerCore() {
+      return (double) sessions / Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public String toString() {
+      List<String> lines = new ArrayList<>();
+      lines.add(String.format("%d sessions (%.1f per core, %d failed), %d updates in %.1f s (%.0f/s, at least %d per bot), %d games ended",
+          sessions, sessionsPerCore(), failed, updates, seconds, updates / seconds, fewestUpdates, gamesOver));
+      lines.add(String.format("update gap ms p50/p90/p99/max: %.2f/%.2f/%.2f/%.2f",
+          gaps.getP50(), gaps.getP90(), gaps.getP99(), gaps.getMax()));
+      return String.join(System.lineSeparator(), lines);
+    }
+  }
+}
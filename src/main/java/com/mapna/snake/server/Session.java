@@ -0,0 +1,180 @@
+package com.mapna.snake.server;
+
+import com.mapna.snake.Direction;
+import com.mapna.snake.GameEngine;
+import com.mapna.snake.GameMode;
+import com.mapna.snake.GameState;
+import com.mapna.snake.Position;
+import com.mapna.snake.Snake;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One client's game. The connection's virtual thread only parses commands into a queue; the
+ * server's tick thread applies them, advances the engine and hands the resulting state line to
+ * a writer virtual thread through a queue of up to {@value #PENDING_LINES} lines. A writer that
+ * is briefly late catches up without losing lines; once a slow client falls further behind, the
+ * oldest unsent lines are dropped, so it skips updates instead of stalling the shared tick.
+ */
+final class Session {
+  static final int PENDING_LINES = 16;
+  private final long id;
+  private final GameEngine engine;
+  private final GameState state = new GameState();
+  private final Socket socket;
+  private final Queue<Character> commands = new ConcurrentLinkedQueue<>();
+  private final ArrayBlockingQueue<String> outgoing = new ArrayBlockingQueue<>(PENDING_LINES);
+  private final StringBuilder line = new StringBuilder(64);
+  private volatile Thread writer;
+  private volatile boolean closed;
+  private long ticks;
+  private GameMode sentMode;
+
+  Session(long id, GameEngine engine, Socket socket) {
+    this.id = id;
+    this.engine = engine;
+    this.socket = socket;
+    engine.reset(state);
+  }
+
+  long id() {
+    return id;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /** Sends the first line directly, before the session is ticked and the writer takes over. */
+  void greet(String greeting) throws IOException {
+    OutputStream out = socket.getOutputStream();
+    out.write(greeting.getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+  }
+
+  /** Reads commands until the client quits or disconnects; runs on the connection's thread. */
+  void serve() {
+    writer = Thread.ofVirtual().name("snake-session-writer-" + id).start(this::writeLoop);
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+      String command;
+      while (!closed && (command = in.readLine()) != null) {
+        if (command.isEmpty()) {
+          continue;
+        }
+        char c = Character.toUpperCase(command.charAt(0));
+        if (c == 'Q') {
+          break;
+        }
+        commands.add(c);
+      }
+    } catch (IOException e) {
+      // Client went away; fall through to close.
+    } finally {
+      close();
+    }
+  }
+
+  /** Applies queued commands and advances one tick; called only from this session's tick shard. */
+  void tick() {
+    Character command;
+    while ((command = commands.poll()) != null) {
+      apply(command);
+    }
+    engine.tick(state);
+    state.getChanges().clear();
+    GameMode mode = state.getMode();
+    if (mode == GameMode.RUNNING || mode != sentMode) {
+      ticks++;
+      sentMode = mode;
+      publish(stateLine());
+    }
+  }
+
+  void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // Nothing left to release.
+    }
+    Thread thread = writer;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private void apply(char command) {
+    switch (command) {
+      case 'U' -> engine.requestDirection(state, Direction.UP);
+      case 'D' -> engine.requestDirection(state, Direction.DOWN);
+      case 'L' -> engine.requestDirection(state, Direction.LEFT);
+      case 'R' -> engine.requestDirection(state, Direction.RIGHT);
+      case 'P' -> engine.togglePause(state);
+      case 'N' -> {
+        engine.reset(state);
+        sentMode = null;
+      }
+      default -> {
+        // Unknown commands are ignored so older servers tolerate newer clients.
+      }
+    }
+  }
+
+  private String stateLine() {
+    Snake snake = state.getSnake();
+    Position head = snake.getHead();
+    Position food = state.getFood();
+    line.setLength(0);
+    line.append("S ").append(ticks).append(' ').append(state.getMode()).append(' ').append(snake.growth())
+        .append(' ').append(head.x()).append(' ').append(head.y())
+        .append(' ').append(food.x()).append(' ').append(food.y())
+        .append(' ').append(state.getDirection()).append('\n');
+    return line.toString();
+  }
+
+  /** Queues a line for the writer, dropping the oldest unsent one when the queue is full. */
+  private void publish(String text) {
+    while (!outgoing.offer(text)) {
+      outgoing.poll();
+    }
+    Thread thread = writer;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /** Sends every queued line in one write, then parks until the tick thread queues more. */
+  private void writeLoop() {
+    StringBuilder batch = new StringBuilder(64 * PENDING_LINES);
+    try {
+      OutputStream out = socket.getOutputStream();
+      while (!closed) {
+        String text;
+        while ((text = outgoing.poll()) != null) {
+          batch.append(text);
+        }
+        if (batch.isEmpty()) {
+          LockSupport.park(this);
+          continue;
+        }
+        out.write(batch.toString().getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        batch.setLength(0);
+      }
+    } catch (IOException e) {
+      close();
+    }
+  }
+}
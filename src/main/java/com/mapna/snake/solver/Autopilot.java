@@ -0,0 +1,270 @@
+package com.mapna.snake.solver;
+
+import com.mapna.snake.BoardConfig;
+import com.mapna.snake.Direction;
+import com.mapna.snake.GameState;
+import com.mapna.snake.MovePolicy;
+import com.mapna.snake.Position;
+import com.mapna.snake.Simulator;
+import com.mapna.snake.Snake;
+import com.mapna.snake.Topology;
+import java.util.function.LongFunction;
+
+/**
+ * Plays a game on its own, one {@link #choose} call per tick, moving through the same
+ * {@link Topology} neighbour table as {@link Snake#nextHead(Direction)}.
+ *
+ * <p>Each decision tries, in order:
+ * <ol>
+ *   <li>the shortest path to the food (A*, treating body cells as free once the tail has left
+ *       them), accepted only if the snake could still reach its tail after eating,</li>
+ *   <li>the move that keeps the tail reachable by the longest route, to stall until food is safe
+ *       (after a board's worth of stalling, the next cycle cell first if the tail stays reachable),</li>
+ *   <li>the next cell on a {@link HamiltonianCycle}, then any free neighbour.</li>
+ * </ol>
+ * {@link #hamiltonian} puts the cycle first instead: once the body lies along the cycle the snake
+ * never dies and fills the board.
+ *
+ * <p>All working storage is sized for the board up front, and a decision allocates nothing,
+ * so it can run on every tick of a large board. Instances are not thread-safe; use one per game.
+ */
+public final class Autopilot implements MovePolicy {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private final int width;
+  private final int height;
+  private final int cells;
+  private final boolean cycleFirst;
+  private final HamiltonianCycle cycle;
+  private final GridSearch search;
+  private final int[] body;
+  private final int[] virtualBody;
+  private final int[] path;
+  private int lastLength;
+  private int stalledFor;
+
+  private Autopilot(Topology topology, boolean cycleFirst) {
+    this.width = topology.columns();
+    this.height = topology.rows();
+    this.cells = topology.cellCount();
+    this.cycleFirst = cycleFirst;
+    this.cycle = HamiltonianCycle.of(topology);
+    this.search = new GridSearch(topology);
+    this.body = new int[cells];
+    this.virtualBody = new int[cells];
+    this.path = new int[cells];
+  }
+
+  /** Chases food along safe shortest paths on a torus. */
+  public static Autopilot pathfinding(int columns, int rows) {
+    return pathfinding(Topology.torus(columns, rows));
+  }
+
+  /** Chases food along safe shortest paths on the given board. */
+  public static Autopilot pathfinding(Topology topology) {
+    return new Autopilot(topology, false);
+  }
+
+  /**
+   * Follows a Hamiltonian cycle, falling back to pathfinding only until the body lines up with
+   * it; wins every game that starts with room to line up. Every torus has a cycle.
+   *
+   * @throws IllegalArgumentException when a side is shorter than 2
+   */
+  public static Autopilot hamiltonian(int columns, int rows) {
+    return hamiltonian(Topology.torus(columns, rows));
+  }
+
+  /**
+   * As {@link #hamiltonian(int, int)} on the given board.
+   *
+   * @throws IllegalArgumentException when the board has no cycle (walled with both sides odd, or any cell masked)
+   */
+  public static Autopilot hamiltonian(Topology topology) {
+    if (HamiltonianCycle.of(topology) == null) {
+      throw new IllegalArgumentException("No Hamiltonian cycle on a " + topology.columns() + "x" + topology.rows() + " board");
+    }
+    return new Autopilot(topology, true);
+  }
+
+  @Override
+  public Direction choose(GameState state) {
+    Snake snake = state.getSnake();
+    if (snake.columns() != width || snake.rows() != height) {
+      throw new IllegalArgumentException("Autopilot built for " + width + "x" + height + " board");
+    }
+    int length = snake.length();
+    for (int i = 0; i < length; i++) {
+      body[i] = snake.cellAt(i);
+    }
+    int head = body[0];
+    Position food = state.getFood();
+    int foodCell = food.x() >= 0 && food.x() < width && food.y() >= 0 && food.y() < height
+        ? food.y() * width + food.x() : -1;
+    search.loadBody(body, length);
+    if (length != lastLength) {
+      lastLength = length;
+      stalledFor = 0;
+    }
+
+    int direction = cycleFirst ? cycleStep(head) : -1;
+    if (direction < 0 && foodCell >= 0) {
+      direction = safePathToFood(head, foodCell, length);
+    }
+    if (direction < 0 && ++stalledFor > cells) {
+      // Chasing the tail can circle forever; walking the cycle while it is safe breaks the loop.
+      direction = safeCycleStep(head, foodCell, length);
+    }
+    if (direction < 0) {
+      direction = followTail(head, foodCell, length);
+    }
+    if (direction < 0 && !cycleFirst) {
+      direction = cycleStep(head);
+    }
+    if (direction < 0) {
+      direction = anyFreeStep(head);
+    }
+    return direction < 0 ? state.getDirection() : DIRECTIONS[direction];
+  }
+
+  private int safePathToFood(int head, int foodCell, int length) {
+    if (search.search(head, foodCell) < 0) {
+      return -1;
+    }
+    int steps = search.tracePath(foodCell, path);
+    int firstStep = path[steps - 1];
+    int grownLength = Math.min(length + 1, cells);
+    if (grownLength == cells) {
+      return directionTo(head, firstStep);
+    }
+    // Body after the walk: the path (food first), then as much of the old body as still fits.
+    int k = 0;
+    for (int i = 0; i < steps && k < grownLength; i++) {
+      virtualBody[k++] = path[i];
+    }
+    for (int i = 0; k < grownLength; i++) {
+      virtualBody[k++] = body[i];
+    }
+    boolean safe = tailReachable(grownLength);
+    search.loadBody(body, length);
+    return safe ? directionTo(head, firstStep) : -1;
+  }
+
+  private int followTail(int head, int foodCell, int length) {
+    int best = -1;
+    int bestDistance = -1;
+    for (int direction = 0; direction < 4; direction++) {
+      int next = search.neighbour(head, direction);
+      if (search.blocked(next, 1)) {
+        continue;
+      }
+      int movedLength = next == foodCell ? Math.min(length + 1, cells) : length;
+      virtualBody[0] = next;
+      System.arraycopy(body, 0, virtualBody, 1, movedLength - 1);
+      search.loadBody(virtualBody, movedLength);
+      int distance = search.search(next, virtualBody[movedLength - 1]);
+      if (distance > bestDistance) {
+        bestDistance = distance;
+        best = direction;
+      }
+      search.loadBody(body, length);
+    }
+    return best;
+  }
+
+  private int safeCycleStep(int head, int foodCell, int length) {
+    int direction = cycleStep(head);
+    if (direction < 0) {
+      return -1;
+    }
+    int next = search.neighbour(head, direction);
+    int movedLength = next == foodCell ? Math.min(length + 1, cells) : length;
+    virtualBody[0] = next;
+    System.arraycopy(body, 0, virtualBody, 1, movedLength - 1);
+    boolean safe = tailReachable(movedLength);
+    search.loadBody(body, length);
+    return safe ? direction : -1;
+  }
+
+  private boolean tailReachable(int length) {
+    search.loadBody(virtualBody, length);
+    return search.search(virtualBody[0], virtualBody[length - 1]) >= 0;
+  }
+
+  private int cycleStep(int head) {
+    if (cycle == null) {
+      return -1;
+    }
+    int next = cycle.next(head);
+    return search.blocked(next, 1) ? -1 : directionTo(head, next);
+  }
+
+  private int anyFreeStep(int head) {
+    for (int direction = 0; direction < 4; direction++) {
+      if (!search.blocked(search.neighbour(head, direction), 1)) {
+        return direction;
+      }
+    }
+    return -1;
+  }
+
+  private int directionTo(int from, int to) {
+    for (int direction = 0; direction < 4; direction++) {
+      if (search.neighbour(from, direction) == to) {
+        return direction;
+      }
+    }
+    throw new IllegalStateException("Cells " + from + " and " + to + " are not adjacent");
+  }
+
+  /** Soak test: plays seeded games on every core with the autopilot and prints decisions/sec and outcomes. */
+  public static void main(String[] args) {
+    int games = 1_000;
+    long seed = 1L;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int columns = BoardConfig.PIXEL_WIDTH;
+    int rows = BoardConfig.PIXEL_HEIGHT;
+    int maxTicks = 0;
+    String mode = "pathfinding";
+    for (String arg : args) {
+      String[] kv = arg.split("=", 2);
+      String value = kv.length > 1 ? kv[1] : "";
+      switch (kv[0]) {
+        case "--games" -> games = Integer.parseInt(value);
+        case "--seed" -> seed = Long.parseLong(value);
+        case "--max-ticks" -> maxTicks = Integer.parseInt(value);
+        case "--threads" -> threads = Integer.parseInt(value);
+        case "--columns" -> columns = Integer.parseInt(value);
+        case "--rows" -> rows = Integer.parseInt(value);
+        case "--mode" -> mode = value;
+        default -> {
+          System.err.println("Usage: Autopilot [--games=N] [--seed=S] [--max-ticks=T] [--threads=K] [--columns=W] [--rows=H]"
+              + " [--mode=pathfinding|hamiltonian]");
+          System.exit(2);
+        }
+      }
+    }
+    if (maxTicks <= 0) {
+      // Following the cycle costs up to a lap per food, so a full board takes about cells^2 / 2 ticks.
+      maxTicks = (int) Math.min(Integer.MAX_VALUE, (long) columns * rows * columns * rows);
+    }
+    int w = columns;
+    int h = rows;
+    LongFunction<MovePolicy> policies = switch (mode) {
+      case "pathfinding" -> s -> pathfinding(w, h);
+      case "hamiltonian" -> s -> hamiltonian(w, h);
+      default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+    };
+
+    long start = System.nanoTime();
+    Simulator.Summary summary = Simulator.run(BoardConfig.of(columns, rows), games, seed, maxTicks, threads,
+        policies);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("%d games on %dx%d, %d threads in %.2f s%n", summary.games(), columns, rows, threads, seconds);
+    System.out.printf("decisions/sec: %.0f  (%.0f per thread)%n",
+        summary.ticks() / seconds, summary.ticks() / seconds / threads);
+    System.out.printf("won: %d  game over: %d  tick limit: %d%n", summary.won(), summary.lost(), summary.capped());
+    System.out.printf("score p50/p99/max: %d/%d/%d  mean: %.2f%n", summary.scorePercentile(50),
+        summary.scorePercentile(99), summary.scorePercentile(100), summary.meanScore());
+  }
+}
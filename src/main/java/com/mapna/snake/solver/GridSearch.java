@@ -0,0 +1,157 @@
+package com.mapna.snake.solver;
+
+import com.mapna.snake.Topology;
+
+/**
+ * A* over a {@link Topology} with a snake body as moving obstacles, on arrays sized once per board.
+ *
+ * <p>The body is loaded head first; the segment at index {@code i} of a body of length
+ * {@code n} vacates after {@code n - i} moves, so a path may enter that cell at step
+ * {@code n - i} or later. Per-cell arrays are tagged with a generation number instead of being
+ * cleared, so a search costs only the cells it touches. Walls and masked cells never appear as
+ * neighbours: {@link #neighbour} returns {@link Topology#WALL} for them and {@link #blocked}
+ * treats that as always covered.
+ */
+final class GridSearch {
+  static final int DOWN = 0;
+  static final int UP = 1;
+  static final int LEFT = 2;
+  static final int RIGHT = 3;
+
+  private final Topology topology;
+  private final int[] bodyStamp;
+  private final int[] freeAt;
+  private final int[] seenStamp;
+  private final int[] closedStamp;
+  private final int[] cost;
+  private final int[] parent;
+  private final int[] heap;
+  private final int[] heapKey;
+  private int bodyGeneration;
+  private int searchGeneration;
+  private int heapSize;
+
+  GridSearch(Topology topology) {
+    this.topology = topology;
+    int cells = topology.cellCount();
+    this.bodyStamp = new int[cells];
+    this.freeAt = new int[cells];
+    this.seenStamp = new int[cells];
+    this.closedStamp = new int[cells];
+    this.cost = new int[cells];
+    this.parent = new int[cells];
+    // A cell can be pushed once per improvement, at most once per incoming edge.
+    this.heap = new int[cells * 4 + 1];
+    this.heapKey = new int[cells * 4 + 1];
+  }
+
+  /** Sets the obstacles to {@code body[0..length)}, head first. */
+  void loadBody(int[] body, int length) {
+    bodyGeneration++;
+    for (int i = 0; i < length; i++) {
+      bodyStamp[body[i]] = bodyGeneration;
+      freeAt[body[i]] = length - i;
+    }
+  }
+
+  /** True if {@code cell} is a wall or the loaded body still covers it after {@code steps} moves. */
+  boolean blocked(int cell, int steps) {
+    return cell == Topology.WALL || (bodyStamp[cell] == bodyGeneration && freeAt[cell] > steps);
+  }
+
+  /** Length of the shortest path from {@code start} to {@code target}, or -1 if there is none. */
+  int search(int start, int target) {
+    searchGeneration++;
+    heapSize = 0;
+    seenStamp[start] = searchGeneration;
+    cost[start] = 0;
+    parent[start] = -1;
+    push(start, distance(start, target));
+    while (heapSize > 0) {
+      int cell = pop();
+      if (closedStamp[cell] == searchGeneration) {
+        continue;
+      }
+      closedStamp[cell] = searchGeneration;
+      if (cell == target) {
+        return cost[cell];
+      }
+      int steps = cost[cell] + 1;
+      for (int direction = 0; direction < 4; direction++) {
+        int next = neighbour(cell, direction);
+        if (blocked(next, steps) || closedStamp[next] == searchGeneration) {
+          continue;
+        }
+        if (seenStamp[next] != searchGeneration || steps < cost[next]) {
+          seenStamp[next] = searchGeneration;
+          cost[next] = steps;
+          parent[next] = cell;
+          push(next, steps + distance(next, target));
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Copies the path found by the last successful {@link #search} into {@code out}, target first
+   * and excluding the start, and returns its length.
+   */
+  int tracePath(int target, int[] out) {
+    int count = 0;
+    for (int cell = target; parent[cell] != -1; cell = parent[cell]) {
+      out[count++] = cell;
+    }
+    return count;
+  }
+
+  /** Cell reached from {@code cell} moving in {@code direction}, or {@link Topology#WALL}. */
+  int neighbour(int cell, int direction) {
+    return topology.neighbour(cell, direction);
+  }
+
+  /** Moves from {@code a} to {@code b} on an empty board; never overestimates. */
+  int distance(int a, int b) {
+    return topology.distance(a, b);
+  }
+
+  private void push(int cell, int key) {
+    int i = heapSize++;
+    while (i > 0) {
+      int up = (i - 1) >>> 1;
+      if (heapKey[up] <= key) {
+        break;
+      }
+      heap[i] = heap[up];
+      heapKey[i] = heapKey[up];
+      i = up;
+    }
+    heap[i] = cell;
+    heapKey[i] = key;
+  }
+
+  private int pop() {
+    int top = heap[0];
+    int cell = heap[--heapSize];
+    int key = heapKey[heapSize];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) {
+        child++;
+      }
+      if (heapKey[child] >= key) {
+        break;
+      }
+      heap[i] = heap[child];
+      heapKey[i] = heapKey[child];
+      i = child;
+    }
+    heap[i] = cell;
+    heapKey[i] = key;
+    return top;
+  }
+}
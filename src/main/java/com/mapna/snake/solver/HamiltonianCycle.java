@@ -0,0 +1,120 @@
+package com.mapna.snake.solver;
+
+import com.mapna.snake.Topology;
+
+/**
+ * A cycle through every cell of a board, stored as each cell's successor. Row 0 runs right, the
+ * remaining rows zigzag over columns 1..n-1 and column 0 climbs back to the start, which needs an
+ * even number of rows; boards with an even number of columns use the same walk transposed. That
+ * walk never crosses an edge, so it holds on walled boards as well as on the torus. A walled
+ * board with both sides odd has no cycle, but a torus always has one: column 0 runs down, the
+ * rows zigzag back up over columns 1..n-1 and the end of row 0 wraps to the start. A snake whose
+ * body lies along the cycle and keeps following it can never collide, so it eventually fills the
+ * board.
+ */
+public final class HamiltonianCycle {
+  private final int[] next;
+
+  private HamiltonianCycle(int[] next) {
+    this.next = next;
+  }
+
+  /**
+   * Builds a cycle through the topology's neighbours, or returns null when a cell is masked, a
+   * side is shorter than 2, or the board is walled with both sides odd.
+   */
+  public static HamiltonianCycle of(Topology topology) {
+    if (topology.maskedCount() > 0) {
+      return null;
+    }
+    int columns = topology.columns();
+    int rows = topology.rows();
+    if (topology.wraps() && columns >= 2 && rows >= 2 && (columns & 1) == 1 && (rows & 1) == 1) {
+      return new HamiltonianCycle(wrapped(columns, rows));
+    }
+    return of(columns, rows);
+  }
+
+  /**
+   * Builds a cycle that never crosses an edge, or returns null when both sides are odd or
+   * shorter than 2.
+   */
+  public static HamiltonianCycle of(int columns, int rows) {
+    if (columns < 2 || rows < 2) {
+      return null;
+    }
+    if (rows % 2 == 0) {
+      return new HamiltonianCycle(zigzag(columns, rows, false));
+    }
+    if (columns % 2 == 0) {
+      return new HamiltonianCycle(zigzag(rows, columns, true));
+    }
+    return null;
+  }
+
+  /** Cell that follows {@code cell} on the cycle. */
+  public int next(int cell) {
+    return next[cell];
+  }
+
+  /**
+   * Successor table of the zigzag walk on a {@code w x h} grid with {@code h} even. When
+   * {@code transposed}, the walk's x runs down the board's rows, so the board is {@code h x w}.
+   */
+  private static int[] zigzag(int w, int h, boolean transposed) {
+    int[] next = new int[w * h];
+    for (int x = 0; x < w - 1; x++) {
+      link(next, x, 0, x + 1, 0, w, transposed);
+    }
+    link(next, w - 1, 0, w - 1, 1, w, transposed);
+    for (int y = 1; y < h; y++) {
+      boolean leftward = (y & 1) == 1;
+      for (int x = 1; x < w; x++) {
+        boolean rowEnd = leftward ? x == 1 : x == w - 1;
+        if (!rowEnd) {
+          link(next, x, y, leftward ? x - 1 : x + 1, y, w, transposed);
+        } else if (y == h - 1) {
+          link(next, x, y, 0, y, w, transposed);
+        } else {
+          link(next, x, y, x, y + 1, w, transposed);
+        }
+      }
+      link(next, 0, y, 0, y - 1, w, transposed);
+    }
+    return next;
+  }
+
+  /**
+   * Successor table of a cycle on a {@code w x h} torus with both sides odd. Column 0 runs down,
+   * then the rows zigzag up over columns 1..w-1, starting rightward on row h-1; with h odd, row 0
+   * also runs rightward and its last cell wraps to the start.
+   */
+  private static int[] wrapped(int w, int h) {
+    int[] next = new int[w * h];
+    for (int y = 0; y < h - 1; y++) {
+      link(next, 0, y, 0, y + 1, w, false);
+    }
+    link(next, 0, h - 1, 1, h - 1, w, false);
+    for (int y = h - 1; y >= 0; y--) {
+      boolean rightward = ((h - 1 - y) & 1) == 0;
+      for (int x = 1; x < w; x++) {
+        boolean rowEnd = rightward ? x == w - 1 : x == 1;
+        if (!rowEnd) {
+          link(next, x, y, rightward ? x + 1 : x - 1, y, w, false);
+        } else if (y == 0) {
+          link(next, x, y, 0, 0, w, false);
+        } else {
+          link(next, x, y, x, y - 1, w, false);
+        }
+      }
+    }
+    return next;
+  }
+
+  private static void link(int[] next, int x, int y, int toX, int toY, int w, boolean transposed) {
+    int h = next.length / w;
+    int from = transposed ? x * h + y : y * w + x;
+    int to = transposed ? toX * h + toY : toY * w + toX;
+    next[from] = to;
+  }
+}
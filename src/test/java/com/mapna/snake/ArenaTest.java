@@ -0,0 +1,151 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArenaTest {
+  private static final BoardConfig SMALL = BoardConfig.of(10, 10);
+
+  private static int cell(int x, int y) {
+    return y * SMALL.columns() + x;
+  }
+
+  private static Arena twoSnakes() {
+    return new Arena(SMALL, 2, 0, 1L, 1);
+  }
+
+  @Test
+  void headToHeadKillsBoth() {
+    try (Arena arena = twoSnakes()) {
+      arena.place(0, Direction.RIGHT, cell(2, 5), cell(1, 5), cell(0, 5));
+      arena.place(1, Direction.LEFT, cell(4, 5), cell(5, 5), cell(6, 5));
+
+      arena.tick(null);
+
+      assertFalse(arena.isAlive(0));
+      assertFalse(arena.isAlive(1));
+      assertEquals(0, arena.aliveCount());
+      assertEquals(2, arena.deaths());
+      assertFalse(arena.isOccupied(cell(2, 5)));
+      assertFalse(arena.isOccupied(cell(4, 5)));
+    }
+  }
+
+  @Test
+  void headIntoBodyKillsOnlyTheMover() {
+    try (Arena arena = twoSnakes()) {
+      arena.place(0, Direction.RIGHT, cell(2, 5), cell(1, 5), cell(0, 5));
+      arena.place(1, Direction.UP, cell(3, 4), cell(3, 5), cell(3, 6));
+
+      arena.tick(null);
+
+      assertFalse(arena.isAlive(0));
+      assertTrue(arena.isAlive(1));
+      assertEquals(cell(3, 3), arena.head(1));
+      assertEquals(1, arena.ownerAt(cell(3, 5)));
+    }
+  }
+
+  @Test
+  void movingIntoAVacatingTailIsAllowed() {
+    try (Arena arena = twoSnakes()) {
+      arena.place(0, Direction.RIGHT, cell(3, 6), cell(2, 6), cell(1, 6));
+      arena.place(1, Direction.UP, cell(4, 4), cell(4, 5), cell(4, 6));
+
+      arena.tick(null);
+
+      assertTrue(arena.isAlive(0));
+      assertTrue(arena.isAlive(1));
+      assertEquals(0, arena.ownerAt(cell(4, 6)));
+    }
+  }
+
+  @Test
+  void tailOfAGrowingSnakeStillBlocks() {
+    try (Arena arena = twoSnakes()) {
+      arena.place(0, Direction.RIGHT, cell(3, 6), cell(2, 6), cell(1, 6));
+      arena.place(1, Direction.UP, cell(4, 4), cell(4, 5), cell(4, 6));
+      arena.putFood(cell(4, 3));
+
+      arena.tick(null);
+
+      assertFalse(arena.isAlive(0));
+      assertTrue(arena.isAlive(1));
+      assertEquals(4, arena.length(1));
+      assertEquals(1, arena.ownerAt(cell(4, 6)));
+    }
+  }
+
+  @Test
+  void eatenFoodIsReplaced() {
+    try (Arena arena = new Arena(SMALL, 1, 3, 1L, 1)) {
+      arena.place(0, Direction.RIGHT, cell(2, 2), cell(1, 2), cell(0, 2));
+      arena.putFood(cell(3, 2));
+
+      arena.tick(null);
+
+      assertEquals(4, arena.length(0));
+      assertFalse(arena.hasFood(cell(3, 2)));
+      assertEquals(3, arena.foodCount());
+    }
+  }
+
+  @Test
+  void spawnedSnakesGrowToInitialLength() {
+    try (Arena arena = new Arena(SMALL, 1, 0, 5L, 1)) {
+      assertEquals(1, arena.length(0));
+      arena.tick(null);
+      arena.tick(null);
+
+      assertEquals(3, arena.length(0));
+    }
+  }
+
+  @Test
+  void outcomeDoesNotDependOnThreadCount() {
+    BoardConfig board = BoardConfig.of(120, 120);
+    try (Arena sequential = new Arena(board, 300, 200, 42L, 1);
+         Arena parallel = new Arena(board, 300, 200, 42L, 4)) {
+      sequential.setRespawn(true);
+      parallel.setRespawn(true);
+      ArenaPolicy policy = ArenaPolicy.avoiding();
+      for (int t = 0; t < 300; t++) {
+        sequential.tick(policy);
+        parallel.tick(policy);
+      }
+
+      assertTrue(sequential.deaths() > 0);
+      assertEquals(sequential.deaths(), parallel.deaths());
+      for (int cell = 0; cell < board.cellCount(); cell++) {
+        assertEquals(sequential.ownerAt(cell), parallel.ownerAt(cell));
+        assertEquals(sequential.hasFood(cell), parallel.hasFood(cell));
+      }
+    }
+  }
+
+  @Test
+  void gridMatchesSnakeLengthsAfterManyTicks() {
+    BoardConfig board = BoardConfig.of(100, 100);
+    try (Arena arena = new Arena(board, 200, 300, 7L, 4)) {
+      arena.setRespawn(true);
+      for (int t = 0; t < 200; t++) {
+        arena.tick(ArenaPolicy.avoiding());
+      }
+      int[] covered = new int[arena.snakeCount()];
+      for (int cell = 0; cell < board.cellCount(); cell++) {
+        int owner = arena.ownerAt(cell);
+        if (owner >= 0) {
+          covered[owner]++;
+          assertFalse(arena.hasFood(cell));
+        }
+      }
+      for (int snake = 0; snake < arena.snakeCount(); snake++) {
+        assertEquals(arena.isAlive(snake) ? arena.length(snake) : 0, covered[snake]);
+      }
+      assertEquals(300, arena.foodCount());
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncHighScoreStoreTest {
+
+  @TempDir
+  Path tempDir;
+
+  private AsyncHighScoreStore storeAt(String filename) {
+    return new AsyncHighScoreStore(tempDir.resolve(filename).toString());
+  }
+
+  @Test
+  void loadReadsExistingFileOnce() throws IOException {
+    Files.writeString(tempDir.resolve("hs.txt"), "42");
+    try (AsyncHighScoreStore store = storeAt("hs.txt")) {
+      Files.writeString(tempDir.resolve("hs.txt"), "99");
+
+      assertEquals(42, store.load());
+    }
+  }
+
+  @Test
+  void saveAnswersFromMemoryBeforeDiskWrite() {
+    try (AsyncHighScoreStore store = storeAt("new.txt")) {
+      assertEquals(10, store.saveIfHigher(10));
+      assertEquals(10, store.saveIfHigher(3));
+      assertEquals(10, store.load());
+    }
+  }
+
+  @Test
+  void flushWritesLatestValueAtomically() throws IOException {
+    Path file = tempDir.resolve("hs.txt");
+    try (AsyncHighScoreStore store = storeAt("hs.txt")) {
+      store.saveIfHigher(5);
+      store.saveIfHigher(20);
+      store.flush();
+
+      assertEquals("20", Files.readString(file));
+      assertFalse(Files.exists(tempDir.resolve("hs.txt.tmp")));
+      assertEquals(20, new FileHighScoreStore(file.toString()).load());
+    }
+  }
+
+  @Test
+  void burstOfSavesIsCoalesced() {
+    try (AsyncHighScoreStore store = storeAt("burst.txt")) {
+      for (int score = 1; score <= 10_000; score++) {
+        store.saveIfHigher(score);
+      }
+      store.flush();
+
+      assertTrue(store.writeCount() < 10_000, "writes: " + store.writeCount());
+      assertEquals(10_000, new FileHighScoreStore(tempDir.resolve("burst.txt").toString()).load());
+    }
+  }
+
+  @Test
+  void closeFlushesPendingWrite() {
+    AsyncHighScoreStore store = storeAt("closing.txt");
+    store.saveIfHigher(77);
+
+    store.close();
+
+    assertEquals(77, new FileHighScoreStore(tempDir.resolve("closing.txt").toString()).load());
+  }
+
+  @Test
+  void lowerScoreDoesNotWrite() throws IOException {
+    Files.writeString(tempDir.resolve("hs.txt"), "50");
+    try (AsyncHighScoreStore store = storeAt("hs.txt")) {
+      assertEquals(50, store.saveIfHigher(10));
+      store.flush();
+
+      assertEquals(0, store.writeCount());
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitboardTest {
+
+  @Test
+  void setAndClearReportChanges() {
+    Bitboard board = new Bitboard(70, 3);
+
+    assertTrue(board.set(69, 2));
+    assertFalse(board.set(69, 2));
+    assertTrue(board.get(69, 2));
+    assertFalse(board.get(5, 1));
+    assertTrue(board.clear(69, 2));
+    assertFalse(board.clear(69, 2));
+    assertEquals(0, board.count());
+  }
+
+  @Test
+  void countsWholeBoardAndRows() {
+    Bitboard board = new Bitboard(130, 4);
+    for (int x = 0; x < 130; x += 3) {
+      board.set(x, 1);
+    }
+    board.set(129, 3);
+
+    assertEquals(44, board.countRow(1));
+    assertEquals(1, board.countRow(3));
+    assertEquals(45, board.count());
+  }
+
+  @Test
+  void nextScansRowMajorAndWraps() {
+    Bitboard board = new Bitboard(70, 3);
+    board.set(65, 0);
+    board.set(2, 2);
+
+    assertEquals(65, board.nextSet(0, 0));
+    assertEquals(2 * 70 + 2, board.nextSet(66, 0));
+    assertEquals(65, board.nextSet(3, 2));
+    assertEquals(0, board.nextClear(0, 0));
+    assertEquals(66, board.nextClear(65, 0));
+  }
+
+  @Test
+  void fullBoardHasNoClearCellAndPaddingNeverCounts() {
+    Bitboard board = new Bitboard(65, 2);
+    for (int y = 0; y < 2; y++) {
+      for (int x = 0; x < 65; x++) {
+        board.set(x, y);
+      }
+    }
+
+    assertEquals(130, board.count());
+    assertEquals(-1, board.nextClear(10, 1));
+    board.clearAll();
+    assertEquals(-1, board.nextSet(10, 1));
+  }
+
+  @Test
+  void matchesCellByCellScanOnRandomBoards() {
+    Random random = new Random(4L);
+    for (int round = 0; round < 50; round++) {
+      int columns = 1 + random.nextInt(150);
+      int rows = 1 + random.nextInt(6);
+      Bitboard board = new Bitboard(columns, rows);
+      boolean[] expected = new boolean[columns * rows];
+      double density = random.nextDouble();
+      for (int cell = 0; cell < expected.length; cell++) {
+        if (random.nextDouble() < density) {
+          expected[cell] = true;
+          board.set(cell % columns, cell / columns);
+        }
+      }
+
+      int from = random.nextInt(expected.length);
+      assertEquals(scan(expected, from, true), board.nextSet(from % columns, from / columns));
+      assertEquals(scan(expected, from, false), board.nextClear(from % columns, from / columns));
+    }
+  }
+
+  private static int scan(boolean[] cells, int from, boolean wanted) {
+    for (int i = 0; i < cells.length; i++) {
+      int cell = (from + i) % cells.length;
+      if (cells[cell] == wanted) {
+        return cell;
+      }
+    }
+    return -1;
+  }
+}
@@ -3,6 +3,7 @@ package com.mapna.snake;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class BoardConfigTest {
 
@@ -23,4 +24,50 @@ class BoardConfigTest {
   void tickRateFloorsAtMinimum() {
     assertEquals(BoardConfig.MIN_TICK_RATE_MS, BoardConfig.tickRateMs(1000));
   }
+
+  @Test
+  void defaultMatchesStaticConstants() {
+    BoardConfig config = BoardConfig.DEFAULT;
+
+    assertEquals(BoardConfig.PIXEL_WIDTH, config.columns());
+    assertEquals(BoardConfig.PIXEL_HEIGHT, config.rows());
+    assertEquals(BoardConfig.BOARD_WIDTH, config.boardWidth());
+    assertEquals(BoardConfig.COMPONENT_HEIGHT, config.componentHeight());
+    assertEquals(BoardConfig.BORDERED_PIXEL_SIZE, config.borderedPixelSize());
+  }
+
+  @Test
+  void customTickRatesDriveDelay() {
+    BoardConfig config = BoardConfig.of(30, 30).withTickRates(100, 50, 0, 10);
+
+    assertEquals(100, config.delayMs(0));
+    assertEquals(70, config.delayMs(3));
+    assertEquals(50, config.delayMs(100));
+  }
+
+  @Test
+  void delayShiftStopsAtTheMinimum() {
+    BoardConfig config = BoardConfig.of(30, 30).withTickRates(100, 50, 0, 10);
+
+    assertEquals(120, config.delayMs(0, 20));
+    assertEquals(80, config.delayMs(0, -20));
+    assertEquals(50, config.delayMs(4, -20));
+  }
+
+  @Test
+  void largeBoardsAreAccepted() {
+    BoardConfig config = BoardConfig.of(10_000, 10_000);
+
+    assertEquals(100_000_000, config.cellCount());
+  }
+
+  @Test
+  void rejectsBoardsWhoseCellsOverflowAnInt() {
+    assertThrows(IllegalArgumentException.class, () -> BoardConfig.of(100_000, 100_000));
+  }
+
+  @Test
+  void rejectsBoardsTooShortForTheStartingSnake() {
+    assertThrows(IllegalArgumentException.class, () -> BoardConfig.of(20, 3));
+  }
 }
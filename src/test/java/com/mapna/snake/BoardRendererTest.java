@@ -0,0 +1,243 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardRendererTest {
+
+  private static BufferedImage newImage(BoardConfig config) {
+    return new BufferedImage(config.boardWidth(), config.componentHeight(), BufferedImage.TYPE_INT_RGB);
+  }
+
+  private static void paintFull(BoardRenderer renderer, BufferedImage image, GameState state) {
+    Graphics2D g = image.createGraphics();
+    g.setPaint(Color.black);
+    g.fillRect(0, 0, image.getWidth(), image.getHeight());
+    renderer.paint(g, state);
+    g.dispose();
+  }
+
+  private static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+    for (int y = 0; y < expected.getHeight(); y++) {
+      for (int x = 0; x < expected.getWidth(); x++) {
+        assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + "," + y);
+      }
+    }
+  }
+
+  @Test
+  void framePaintMatchesStatePaintInEveryMode() {
+    BoardConfig config = BoardConfig.DEFAULT;
+    BoardRenderer renderer = new BoardRenderer(config);
+    GameEngine engine = new GameEngine(config, new Random(8L));
+    GameState state = new GameState();
+    FrameBuffer frames = new FrameBuffer();
+    engine.reset(state);
+    state.setHighScore(12);
+    for (int tick = 0; tick < 20; tick++) {
+      engine.requestDirection(state, MovePolicy.greedy().choose(state));
+      engine.tick(state);
+    }
+
+    for (GameMode mode : GameMode.values()) {
+      state.setMode(mode);
+      frames.publish(state);
+      BufferedImage fromState = newImage(config);
+      BufferedImage fromFrame = newImage(config);
+      paintFull(renderer, fromState, state);
+      Graphics2D g = fromFrame.createGraphics();
+      g.setPaint(Color.black);
+      g.fillRect(0, 0, fromFrame.getWidth(), fromFrame.getHeight());
+      renderer.paint(g, frames.latest());
+      g.dispose();
+
+      assertSameImage(fromState, fromFrame);
+    }
+  }
+
+  @Test
+  void paintsLevelObstaclesFromStateFramesAndChanges(@TempDir Path dir) throws IOException {
+    BoardConfig config = BoardConfig.of(70, 5);
+    BoardRenderer renderer = new BoardRenderer(config);
+    GameEngine engine = new GameEngine(config, LevelTest.sampleLevel(dir.resolve("sample.level")), new Random(2L));
+    GameState state = new GameState();
+    FrameBuffer frames = new FrameBuffer();
+    engine.reset(state);
+    frames.publish(state);
+    BufferedImage fromState = newImage(config);
+    BufferedImage fromFrame = newImage(config);
+    BufferedImage fromChanges = newImage(config);
+
+    paintFull(renderer, fromState, state);
+    Graphics2D g = fromFrame.createGraphics();
+    renderer.paint(g, frames.latest());
+    g.dispose();
+    state.getChanges().clear();
+    state.getChanges().addCell(new Position(10, 1));
+    g = fromChanges.createGraphics();
+    renderer.paintChanges(g, state);
+    g.dispose();
+
+    int px = 10 * config.pixelSize() + 1;
+    int py = config.pixelSize() + 1;
+    assertEquals(Color.gray.getRGB(), fromState.getRGB(px, py));
+    assertEquals(Color.gray.getRGB(), fromChanges.getRGB(px, py));
+    assertSameImage(fromState, fromFrame);
+  }
+
+  @Test
+  void paintsEachItemTypeFromStateFramesAndChanges() {
+    BoardConfig config = BoardConfig.DEFAULT;
+    BoardRenderer renderer = new BoardRenderer(config);
+    GameState state = new GameState();
+    state.setSnake(Snake.createFixed(config, 10, 10));
+    state.setFood(new Position(0, 0));
+    ItemType[] types = ItemType.values();
+    for (int i = 0; i < types.length; i++) {
+      state.getItems().put(new Position(2 + i, 3).index(config.columns()), types[i]);
+      state.getItems().put(new Position(2 + i, 5).index(config.columns()), types[i]);
+    }
+    FrameBuffer frames = new FrameBuffer();
+    frames.publish(state);
+    BufferedImage fromState = newImage(config);
+    BufferedImage fromFrame = newImage(config);
+    BufferedImage fromChanges = newImage(config);
+
+    paintFull(renderer, fromState, state);
+    Graphics2D g = fromFrame.createGraphics();
+    renderer.paint(g, frames.latest());
+    g.dispose();
+    state.getChanges().clear();
+    state.getChanges().addCell(new Position(3, 5));
+    g = fromChanges.createGraphics();
+    renderer.paintChanges(g, state);
+    g.dispose();
+
+    int py = 3 * config.pixelSize() + 1;
+    assertEquals(Color.yellow.getRGB(), fromState.getRGB(2 * config.pixelSize() + 1, py));
+    assertEquals(Color.orange.getRGB(), fromState.getRGB(3 * config.pixelSize() + 1, py));
+    assertEquals(Color.magenta.getRGB(), fromState.getRGB(6 * config.pixelSize() + 1, py));
+    assertEquals(Color.orange.getRGB(), fromChanges.getRGB(3 * config.pixelSize() + 1, 5 * config.pixelSize() + 1));
+    assertSameImage(fromState, fromFrame);
+  }
+
+  @Test
+  void incrementalPaintMatchesFullPaint() {
+    BoardConfig config = BoardConfig.DEFAULT;
+    BoardRenderer renderer = new BoardRenderer(config);
+    GameEngine engine = new GameEngine(config, new Random(3L));
+    GameState state = new GameState();
+    MovePolicy policy = MovePolicy.greedy();
+    BufferedImage incremental = newImage(config);
+    BufferedImage full = newImage(config);
+
+    engine.reset(state);
+    paintFull(renderer, incremental, state);
+    state.getChanges().clear();
+
+    int grown = 0;
+    for (int tick = 0; tick < 300 && state.getMode() == GameMode.RUNNING; tick++) {
+      engine.requestDirection(state, policy.choose(state));
+      engine.tick(state);
+      if (state.getChanges().isFullRedraw()) {
+        break;
+      }
+      grown += state.getChanges().isScoreChanged() ? 1 : 0;
+      Graphics2D g = incremental.createGraphics();
+      renderer.paintChanges(g, state);
+      g.dispose();
+      state.getChanges().clear();
+    }
+
+    paintFull(renderer, full, state);
+    assertTrue(grown > 0);
+    assertSameImage(full, incremental);
+  }
+
+  @Test
+  void tickReportsVacatedTailNewHeadAndRespawnedFood() {
+    GameEngine engine = new GameEngine(new Random(42L));
+    GameState state = new GameState();
+    state.setSnake(Snake.createFixed(10, 10));
+    state.setDirection(Direction.UP);
+    state.setFood(new Position(0, 0));
+    state.getChanges().clear();
+
+    engine.tick(state);
+
+    TickChanges changes = state.getChanges();
+    assertEquals(2, changes.cellCount());
+    assertEquals(10, changes.cellX(0));
+    assertEquals(12, changes.cellY(0));
+    assertEquals(9, changes.cellY(1));
+
+    changes.clear();
+    state.setFood(new Position(10, 8));
+    engine.tick(state);
+
+    assertTrue(changes.isScoreChanged());
+    assertEquals(2, changes.cellCount());
+    assertEquals(state.getFood().x(), changes.cellX(1));
+    assertEquals(state.getFood().y(), changes.cellY(1));
+  }
+
+  @Test
+  void pauseRequestsFullRedraw() {
+    GameEngine engine = new GameEngine(new Random(1L));
+    GameState state = new GameState();
+    engine.reset(state);
+    state.getChanges().clear();
+
+    engine.togglePause(state);
+
+    assertTrue(state.getChanges().isFullRedraw());
+  }
+
+  @Test
+  void cachedHudFollowsScoreChanges() {
+    BoardConfig config = BoardConfig.DEFAULT;
+    BoardRenderer cached = new BoardRenderer(config);
+    GameState state = new GameState();
+    state.setSnake(Snake.createFixed(10, 10));
+    state.setFood(new Position(0, 0));
+    BufferedImage image = newImage(config);
+    paintFull(cached, image, state);
+
+    for (int y = 9; y > 0; y--) {
+      state.getSnake().move(new Position(10, y), true);
+    }
+    paintFull(cached, image, state);
+
+    BufferedImage expected = newImage(config);
+    paintFull(new BoardRenderer(config), expected, state);
+    assertSameImage(expected, image);
+  }
+
+  @Test
+  void overlaysRepaintIdenticallyFromCache() {
+    BoardConfig config = BoardConfig.DEFAULT;
+    BoardRenderer renderer = new BoardRenderer(config);
+    GameState state = new GameState();
+    state.setSnake(Snake.createFixed(10, 10));
+    state.setFood(new Position(0, 0));
+
+    for (GameMode mode : GameMode.values()) {
+      state.setMode(mode);
+      BufferedImage first = newImage(config);
+      BufferedImage second = newImage(config);
+      paintFull(renderer, first, state);
+      paintFull(renderer, second, state);
+      assertSameImage(first, second);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventBusTest {
+
+  /** Copies every event it is handed as {@code "type tick first second"}. */
+  static final class Recorder implements EventSubscriber {
+    final List<String> events = new ArrayList<>();
+    int batches;
+
+    @Override
+    public void onEvents(EventBus bus, long from, long to) {
+      batches++;
+      for (long s = from; s < to; s++) {
+        events.add(bus.type(s) + " " + bus.tick(s) + " " + bus.first(s) + " " + bus.second(s));
+      }
+    }
+  }
+
+  @Test
+  void dispatchesBufferedEventsAsOneBatch() {
+    EventBus bus = new EventBus(8);
+    Recorder recorder = new Recorder();
+    bus.subscribe(recorder);
+
+    bus.publish(GameEventType.MOVE, 1, 45, 2);
+    bus.publish(GameEventType.FOOD_EATEN, 1, 45, 4);
+    bus.dispatch();
+    bus.dispatch();
+
+    assertEquals(List.of("MOVE 1 45 2", "FOOD_EATEN 1 45 4"), recorder.events);
+    assertEquals(1, recorder.batches);
+  }
+
+  @Test
+  void dispatchesEarlyInsteadOfOverrunningTheRing() {
+    EventBus bus = new EventBus(3);
+    Recorder recorder = new Recorder();
+    bus.subscribe(recorder);
+
+    for (int i = 0; i < 10; i++) {
+      bus.publish(GameEventType.MOVE, i, i, 0);
+    }
+    bus.dispatch();
+
+    assertEquals(4, bus.capacity());
+    assertEquals(10, recorder.events.size());
+    assertEquals("MOVE 9 9 0", recorder.events.get(9));
+    assertEquals(3, recorder.batches);
+  }
+
+  @Test
+  void dropsEventsWithoutSubscribers() {
+    EventBus bus = new EventBus();
+
+    bus.publish(GameEventType.MOVE, 1, 2, 3);
+    bus.dispatch();
+
+    assertFalse(bus.hasSubscribers());
+    assertEquals(0, bus.sequence());
+    bus.subscribe((b, from, to) -> { });
+    assertTrue(bus.hasSubscribers());
+  }
+}
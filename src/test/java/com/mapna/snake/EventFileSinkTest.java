@@ -0,0 +1,104 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventFileSinkTest {
+  @TempDir
+  Path dir;
+
+  private static void publishSample(EventBus bus) {
+    bus.publish(GameEventType.MODE_CHANGED, 0, GameMode.RUNNING.ordinal(), GameMode.GAME_OVER.ordinal());
+    bus.publish(GameEventType.FOOD_SPAWNED, 0, 120, 0);
+    bus.publish(GameEventType.MOVE, 1, 101, Direction.UP.ordinal());
+    bus.publish(GameEventType.FOOD_EATEN, 12, 120, 4);
+    bus.publish(GameEventType.DEATH, 40, -1, DeathCause.WALL.ordinal());
+    bus.dispatch();
+  }
+
+  @Test
+  void writesNdjsonLines() throws IOException {
+    Path file = dir.resolve("events.ndjson");
+    EventBus bus = new EventBus();
+    try (EventFileSink sink = EventFileSink.open(file, EventFileSink.Format.forPath(file))) {
+      bus.subscribe(sink);
+      publishSample(bus);
+    }
+
+    assertEquals(List.of(
+        "{\"tick\":0,\"type\":\"MODE_CHANGED\",\"mode\":\"RUNNING\",\"from\":\"GAME_OVER\"}",
+        "{\"tick\":0,\"type\":\"FOOD_SPAWNED\",\"cell\":120}",
+        "{\"tick\":1,\"type\":\"MOVE\",\"cell\":101,\"direction\":\"UP\"}",
+        "{\"tick\":12,\"type\":\"FOOD_EATEN\",\"cell\":120,\"length\":4}",
+        "{\"tick\":40,\"type\":\"DEATH\",\"cell\":-1,\"cause\":\"WALL\"}"), Files.readAllLines(file));
+  }
+
+  @Test
+  void writesFixedBinaryRecordsAcrossSegments() throws IOException {
+    Path file = dir.resolve("events.bin");
+    EventBus bus = new EventBus();
+    int count = 3 * EventFileSink.SEGMENT_BYTES / EventFileSink.BINARY_RECORD_BYTES;
+    EventFileSink sink = EventFileSink.open(file, EventFileSink.Format.BINARY);
+    bus.subscribe(sink);
+    for (int i = 0; i < count; i++) {
+      bus.publish(GameEventType.MOVE, i, i * 3, i & 3);
+      if (i % 100 == 0) {
+        bus.dispatch();
+      }
+    }
+    bus.dispatch();
+    sink.close();
+
+    ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+    assertEquals(5 + (long) (count - sink.droppedEvents()) * EventFileSink.BINARY_RECORD_BYTES, in.limit());
+    assertEquals(EventFileSink.MAGIC, in.getInt());
+    assertEquals(EventFileSink.VERSION, in.get());
+    long tick = -1;
+    while (in.hasRemaining()) {
+      assertEquals(GameEventType.MOVE.ordinal(), in.get());
+      long next = in.getLong();
+      assertEquals(true, next > tick);
+      tick = next;
+      assertEquals((int) tick * 3, in.getInt());
+      assertEquals((int) tick & 3, in.getInt());
+    }
+  }
+
+  @Test
+  void timerFlushesEventsWithoutFurtherTraffic() throws IOException, InterruptedException {
+    Path file = dir.resolve("events.ndjson");
+    EventBus bus = new EventBus();
+    try (EventFileSink sink = EventFileSink.open(file, EventFileSink.Format.NDJSON, TimeUnit.MILLISECONDS.toNanos(20))) {
+      bus.subscribe(sink);
+      publishSample(bus);
+
+      for (int i = 0; i < 500 && Files.readAllLines(file).size() < 5; i++) {
+        Thread.sleep(10);
+      }
+
+      assertEquals(5, Files.readAllLines(file).size());
+    }
+  }
+
+  @Test
+  void countsEventsSentAfterClose() throws IOException {
+    EventBus bus = new EventBus();
+    EventFileSink sink = EventFileSink.open(dir.resolve("events.bin"), EventFileSink.Format.BINARY);
+    bus.subscribe(sink);
+    sink.close();
+
+    publishSample(bus);
+
+    assertEquals(5, sink.droppedEvents());
+    assertEquals(5, Files.size(dir.resolve("events.bin")));
+  }
+}
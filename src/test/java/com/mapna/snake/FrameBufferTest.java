@@ -0,0 +1,103 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameBufferTest {
+
+  private static GameState runningState(Snake snake) {
+    GameState state = new GameState();
+    state.setSnake(snake);
+    state.setDirection(Direction.UP);
+    state.setMode(GameMode.RUNNING);
+    state.setFood(new Position(1, 2));
+    state.setHighScore(7);
+    return state;
+  }
+
+  @Test
+  void latestIsEmptyUntilFirstPublish() {
+    assertEquals(0, new FrameBuffer().latest().sequence());
+  }
+
+  @Test
+  void latestCopiesTheStateAtPublish() {
+    FrameBuffer frames = new FrameBuffer();
+    GameState state = runningState(Snake.createFixed(5, 5));
+
+    frames.publish(state);
+    state.getSnake().move(new Position(5, 4), true);
+    Frame frame = frames.latest();
+
+    assertEquals(1, frame.sequence());
+    assertEquals(GameMode.RUNNING, frame.mode());
+    assertEquals(3, frame.length());
+    assertEquals(5, frame.cellX(0));
+    assertEquals(5, frame.cellY(0));
+    assertEquals(0, frame.score());
+    assertEquals(7, frame.highScore());
+    assertEquals(1, frame.foodX());
+    assertEquals(2, frame.foodY());
+  }
+
+  @Test
+  void readerKeepsItsFrameUntilSomethingNewIsPublished() {
+    FrameBuffer frames = new FrameBuffer();
+    GameState state = runningState(Snake.createFixed(5, 5));
+    frames.publish(state);
+    Frame first = frames.latest();
+
+    assertSame(first, frames.latest());
+
+    frames.publish(state);
+    frames.publish(state);
+    Frame newest = frames.latest();
+    assertEquals(3, newest.sequence());
+    assertEquals(3, frames.latest().sequence());
+  }
+
+  @Test
+  void readerOnAnotherThreadOnlySeesWholeFrames() throws InterruptedException {
+    FrameBuffer frames = new FrameBuffer();
+    BoardConfig config = BoardConfig.of(1_000, 1_000);
+    Snake snake = Snake.createFixed(config, 0, 0);
+    GameState state = runningState(snake);
+    AtomicBoolean done = new AtomicBoolean();
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < 200_000; i++) {
+        // A diagonal staircase that grows for a while, so frames differ in size and content.
+        snake.move(snake.nextHead(i % 2 == 0 ? Direction.RIGHT : Direction.DOWN), snake.length() < 300);
+        frames.publish(state);
+      }
+      done.set(true);
+    });
+    writer.start();
+
+    long last = 0;
+    int seen = 0;
+    while (!done.get() || seen == 0) {
+      Frame frame = frames.latest();
+      if (frame.sequence() == last) {
+        Thread.yield();
+        continue;
+      }
+      assertTrue(frame.sequence() > last);
+      assertEquals(frame.length() - 3, frame.score());
+      for (int i = 1; i < frame.length(); i++) {
+        int dx = Math.floorMod(frame.cellX(i) - frame.cellX(i - 1), config.columns());
+        int dy = Math.floorMod(frame.cellY(i) - frame.cellY(i - 1), config.rows());
+        assertTrue(dx + dy == 1 || dx == config.columns() - 1 && dy == 0 || dy == config.rows() - 1 && dx == 0,
+            "torn frame " + frame.sequence());
+      }
+      last = frame.sequence();
+      seen++;
+    }
+    writer.join();
+    assertEquals(200_000, frames.latest().sequence());
+  }
+}
@@ -0,0 +1,68 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FreeCellIndexTest {
+
+  @Test
+  void startsWithEveryCellFree() {
+    FreeCellIndex index = new FreeCellIndex(12);
+
+    assertEquals(12, index.size());
+    for (int cell = 0; cell < 12; cell++) {
+      assertTrue(index.isFree(cell));
+    }
+  }
+
+  @Test
+  void removeAndAddTrackMembership() {
+    FreeCellIndex index = new FreeCellIndex(5);
+
+    index.remove(0);
+    index.remove(3);
+    index.remove(3);
+
+    assertEquals(3, index.size());
+    assertFalse(index.isFree(0));
+    assertFalse(index.isFree(3));
+
+    index.add(3);
+    index.add(3);
+
+    assertEquals(4, index.size());
+    assertTrue(index.isFree(3));
+  }
+
+  @Test
+  void randomOnlyReturnsFreeCells() {
+    FreeCellIndex index = new FreeCellIndex(10);
+    for (int cell = 0; cell < 10; cell += 2) {
+      index.remove(cell);
+    }
+
+    Random random = new Random(7L);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(1, index.random(random) % 2);
+    }
+  }
+
+  @Test
+  void randomIsReproducibleForSameSeed() {
+    FreeCellIndex a = new FreeCellIndex(50);
+    FreeCellIndex b = new FreeCellIndex(50);
+    a.remove(10);
+    b.remove(10);
+
+    Random first = new Random(3L);
+    Random second = new Random(3L);
+    for (int i = 0; i < 20; i++) {
+      assertEquals(a.random(first), b.random(second));
+    }
+  }
+}
@@ -1,11 +1,18 @@
 package com.mapna.snake;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GameEngineTest {
 
@@ -102,6 +109,71 @@ class GameEngineTest {
     assertFalse(state.getSnake().contains(state.getFood()));
   }
 
+  @Test
+  void twoPressesWithinOneTickTurnOnConsecutiveTicks() {
+    GameEngine engine = new GameEngine(new Random(1L));
+    GameState state = runningState(Snake.createFixed(5, 5));
+    state.setFood(new Position(0, 0));
+
+    engine.requestDirection(state, Direction.LEFT);
+    engine.requestDirection(state, Direction.DOWN);
+    engine.tick(state);
+    assertEquals(Direction.LEFT, state.getDirection());
+    assertEquals(new Position(4, 5), state.getSnake().getHead());
+
+    engine.tick(state);
+    assertEquals(Direction.DOWN, state.getDirection());
+    assertEquals(new Position(4, 6), state.getSnake().getHead());
+  }
+
+  @Test
+  void reversalIsCheckedAgainstTheQueuedTurn() {
+    GameEngine engine = new GameEngine(new Random(1L));
+    GameState state = runningState(Snake.createFixed(5, 5));
+    state.setFood(new Position(0, 0));
+
+    engine.requestDirection(state, Direction.LEFT);
+    engine.requestDirection(state, Direction.RIGHT);
+    engine.requestDirection(state, Direction.LEFT);
+    engine.tick(state);
+    engine.tick(state);
+
+    assertEquals(Direction.LEFT, engine.getNextDirection());
+    assertEquals(new Position(3, 5), state.getSnake().getHead());
+  }
+
+  @Test
+  void turnsBeyondCapacityAreDroppedAndResetClearsTheQueue() {
+    GameEngine engine = new GameEngine(new Random(1L));
+    GameState state = runningState(Snake.createFixed(10, 10));
+    state.setFood(new Position(0, 0));
+    Direction[] turns = {Direction.LEFT, Direction.DOWN, Direction.RIGHT, Direction.UP, Direction.LEFT};
+    for (Direction turn : turns) {
+      engine.requestDirection(state, turn);
+    }
+    assertEquals(Direction.UP, engine.getNextDirection());
+
+    engine.reset(state);
+    engine.tick(state);
+
+    assertEquals(Direction.UP, state.getDirection());
+  }
+
+  @Test
+  void recordsLatencyFromRequestToTheTickThatTurns() {
+    GameEngine engine = new GameEngine(new Random(1L));
+    LatencyHistogram latency = new LatencyHistogram();
+    engine.setInputLatency(latency);
+    GameState state = runningState(Snake.createFixed(5, 5));
+    state.setFood(new Position(0, 0));
+
+    engine.requestDirection(state, Direction.LEFT, System.nanoTime());
+    engine.tick(state);
+    engine.tick(state);
+
+    assertEquals(1, latency.count());
+  }
+
   @Test
   void tickDetectsSelfCollision() {
     GameEngine engine = new GameEngine(new Random(1L));
@@ -115,6 +187,40 @@ class GameEngineTest {
     assertEquals(GameMode.GAME_OVER, state.getMode());
   }
 
+  @Test
+  void runningIntoAnObstacleEndsTheGame() {
+    GameEngine engine = new GameEngine(new Random(1L));
+    GameState state = runningState(Snake.createFixed(5, 5));
+    state.setFood(new Position(0, 0));
+
+    assertFalse(engine.placeObstacle(state, new Position(5, 6)));
+    assertFalse(engine.placeObstacle(state, new Position(0, 0)));
+    assertTrue(engine.placeObstacle(state, new Position(5, 3)));
+    engine.tick(state);
+    assertEquals(GameMode.RUNNING, state.getMode());
+    engine.tick(state);
+
+    assertEquals(GameMode.GAME_OVER, state.getMode());
+  }
+
+  @Test
+  void foodNeverLandsOnObstaclesAndTheyDoNotCountAsFreeCells() {
+    BoardConfig config = BoardConfig.of(4, 4);
+    GameEngine engine = new GameEngine(config, new Random(2L));
+    GameState state = runningState(Snake.createFixed(config, 0, 0));
+    for (int y = 0; y < 4; y++) {
+      engine.placeObstacle(state, new Position(3, y));
+    }
+
+    assertEquals(16 - 3 - 4, state.getSnake().freeCellCount());
+    for (int i = 0; i < 200; i++) {
+      engine.spawnFood(state);
+      assertFalse(state.getSnake().isObstacle(state.getFood()));
+      assertFalse(state.getSnake().contains(state.getFood()));
+    }
+    assertEquals(1, state.getSnake().nextFreeCell(3 * 4 + 3));
+  }
+
   @Test
   void tickAllowsMovingToVacatedTailPosition() {
     GameEngine engine = new GameEngine(new Random(42L));
@@ -230,4 +336,295 @@ class GameEngineTest {
     assertEquals(3, state.getSnake().getBody().size());
     assertFalse(state.getSnake().contains(state.getFood()));
   }
+
+  @Test
+  void playsOnLargeBoardWithSparseOccupancy() {
+    BoardConfig config = BoardConfig.of(10_000, 10_000);
+    GameEngine engine = new GameEngine(config, new Random(5L));
+    GameState state = new GameState();
+
+    engine.reset(state);
+    state.setFood(new Position(0, 0));
+    for (int i = 0; i < 1_000; i++) {
+      engine.requestDirection(state, i % 2 == 0 ? Direction.LEFT : Direction.UP);
+      engine.tick(state);
+    }
+
+    assertEquals(GameMode.RUNNING, state.getMode());
+    assertEquals(config.cellCount() - 3, state.getSnake().freeCellCount());
+  }
+
+  @Test
+  void tickWrapsOnCustomBoardSize() {
+    BoardConfig config = BoardConfig.of(7, 5);
+    GameEngine engine = new GameEngine(config, new Random(1L));
+    GameState state = runningState(Snake.createFixed(config, 6, 0));
+    state.setFood(new Position(0, 0));
+
+    engine.tick(state);
+
+    assertEquals(new Position(6, 4), state.getSnake().getHead());
+  }
+
+  @Test
+  void walledBoardEndsTheGameAtTheEdge() {
+    BoardConfig config = BoardConfig.of(6, 8);
+    GameEngine engine = new GameEngine(config, Topology.walled(6, 8), new Random(4L));
+    GameState state = new GameState();
+    engine.reset(state);
+    state.setFood(new Position(-1, -1));
+
+    for (int i = 0; i < 8 && state.getMode() == GameMode.RUNNING; i++) {
+      engine.tick(state);
+    }
+
+    assertEquals(GameMode.GAME_OVER, state.getMode());
+    assertEquals(0, state.getSnake().getHead().y());
+    assertNull(state.getSnake().nextHead(Direction.UP));
+  }
+
+  @Test
+  void maskedCellsHoldNeitherSnakeNorFood() {
+    Bitboard closed = new Bitboard(5, 5);
+    for (int y = 0; y < 5; y++) {
+      closed.set(2, y);
+    }
+    Topology topology = Topology.torus(5, 5).withMask(closed);
+    GameEngine engine = new GameEngine(BoardConfig.of(5, 5), topology, new Random(8L));
+    GameState state = new GameState();
+
+    for (int i = 0; i < 50; i++) {
+      engine.reset(state);
+      Snake snake = state.getSnake();
+      assertEquals(5, snake.obstacleCount());
+      assertEquals(25 - 5 - 3, snake.freeCellCount());
+      assertFalse(snake.isObstacle(state.getFood()));
+      for (Position p : snake.getBody()) {
+        assertTrue(p.x() != 2);
+      }
+    }
+  }
+
+  @Test
+  void rejectsTopologyOfAnotherSize() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new GameEngine(BoardConfig.of(5, 5), Topology.torus(5, 6), new Random()));
+  }
+
+  @Test
+  void levelObstaclesEndTheGameAndFoodStaysInItsZones(@TempDir Path dir) throws IOException {
+    Level level = LevelTest.sampleLevel(dir.resolve("sample.level"));
+    GameEngine engine = new GameEngine(BoardConfig.of(70, 5), level, new Random(6L));
+    GameState state = new GameState();
+
+    for (int i = 0; i < 100; i++) {
+      engine.reset(state);
+      assertTrue(level.canSpawnFood(state.getFood().index(70)), "food at " + state.getFood());
+      for (int s = 0; s < 3; s++) {
+        assertFalse(level.isObstacle(state.getSnake().cellAt(s)));
+      }
+    }
+
+    GameState blocked = runningState(Snake.createFixed(BoardConfig.of(70, 5), 10, 2));
+    blocked.setFood(new Position(65, 3));
+    engine.tick(blocked);
+
+    assertEquals(GameMode.GAME_OVER, blocked.getMode());
+  }
+
+  @Test
+  void foodFindsTheOneFreeCellOfASmallZone(@TempDir Path dir) throws IOException {
+    Bitboard zones = new Bitboard(300, 300);
+    zones.set(120, 200);
+    zones.set(121, 200);
+    Path file = dir.resolve("narrow.level");
+    Level.write(file, new Bitboard(300, 300), zones, false);
+    Level level = Level.open(file);
+    BoardConfig config = BoardConfig.of(300, 300);
+    GameEngine engine = new GameEngine(config, level, new Random(3L));
+    GameState state = runningState(Snake.createFixed(config, 120, 200));
+
+    for (int i = 0; i < 20; i++) {
+      assertTrue(engine.spawnFood(state));
+      assertEquals(new Position(121, 200), state.getFood());
+    }
+    state.getSnake().move(new Position(121, 200), true);
+    assertFalse(engine.spawnFood(state));
+  }
+
+  @Test
+  void publishesEventsForEachTick() {
+    BoardConfig config = BoardConfig.of(6, 8);
+    GameEngine engine = new GameEngine(config, Topology.walled(6, 8), new Random(4L));
+    EventBus bus = new EventBus();
+    EventBusTest.Recorder recorder = new EventBusTest.Recorder();
+    bus.subscribe(recorder);
+    engine.setEvents(bus);
+    GameState state = new GameState();
+
+    engine.reset(state);
+    int deathTick = state.getSnake().getHead().y() + 1;
+    int food = state.getFood().index(6);
+    state.setFood(state.getSnake().nextHead(Direction.UP));
+    engine.tick(state);
+    int eaten = state.getSnake().cellAt(0);
+    engine.togglePause(state);
+    engine.togglePause(state);
+    while (state.getMode() == GameMode.RUNNING) {
+      engine.tick(state);
+    }
+
+    List<String> events = recorder.events;
+    assertEquals("MODE_CHANGED 0 0 0", events.get(0));
+    assertEquals("FOOD_SPAWNED 0 " + food + " 0", events.get(1));
+    assertEquals("MOVE 1 " + eaten + " 1", events.get(2));
+    assertEquals("FOOD_EATEN 1 " + eaten + " 4", events.get(3));
+    assertTrue(events.get(4).startsWith("FOOD_SPAWNED 1 "));
+    assertEquals("MODE_CHANGED 1 1 0", events.get(5));
+    assertEquals("MODE_CHANGED 1 0 1", events.get(6));
+    assertEquals("DEATH " + deathTick + " -1 2", events.get(events.size() - 2));
+    assertEquals("MODE_CHANGED " + deathTick + " 2 0", events.get(events.size() - 1));
+    assertEquals(7 + deathTick - 2 + 2, events.size());
+  }
+
+  @Test
+  void bonusFoodGrowsOneSegmentPerTick() {
+    GameEngine engine = new GameEngine(new Random(42L));
+    GameState state = runningState(Snake.createFixed(10, 10));
+    state.getItems().put(new Position(10, 9).index(BoardConfig.PIXEL_WIDTH), ItemType.BONUS_FOOD);
+
+    for (int tick = 0; tick < 5; tick++) {
+      engine.tick(state);
+    }
+
+    assertEquals(GameEngine.BONUS_GROWTH, state.getSnake().growth());
+    assertEquals(0, state.getItems().size());
+  }
+
+  @Test
+  void extraFoodLeavesTheMainFoodInPlace() {
+    GameEngine engine = new GameEngine(new Random(42L));
+    GameState state = runningState(Snake.createFixed(10, 10));
+    state.setFood(new Position(0, 0));
+    state.getItems().put(new Position(10, 9).index(BoardConfig.PIXEL_WIDTH), ItemType.FOOD);
+
+    engine.tick(state);
+
+    assertEquals(1, state.getSnake().growth());
+    assertEquals(new Position(0, 0), state.getFood());
+  }
+
+  @Test
+  void shrinkPillDropsTailSegmentsDownToTheStartingLength() {
+    GameEngine engine = new GameEngine(new Random(42L));
+    GameState state = runningState(Snake.createFixed(10, 10));
+    state.getItems().put(new Position(10, 9).index(BoardConfig.PIXEL_WIDTH), ItemType.BONUS_FOOD);
+    state.getItems().put(new Position(10, 8).index(BoardConfig.PIXEL_WIDTH), ItemType.FOOD);
+    state.getItems().put(new Position(10, 5).index(BoardConfig.PIXEL_WIDTH), ItemType.SHRINK);
+    for (int tick = 0; tick < 4; tick++) {
+      engine.tick(state);
+    }
+    assertEquals(4, state.getSnake().growth());
+    Position head = state.getSnake().getHead();
+
+    engine.tick(state);
+
+    assertEquals(1, state.getSnake().growth());
+    assertEquals(head.y() - 1, state.getSnake().getHead().y());
+    assertEquals(state.getSnake().length(), state.getSnake().getBody().size());
+    assertTrue(state.getChanges().isScoreChanged());
+  }
+
+  @Test
+  void speedItemsShiftTheDelayUntilTheyWearOff() {
+    BoardConfig config = BoardConfig.DEFAULT;
+    GameEngine engine = new GameEngine(config, new Random(42L));
+    GameState state = runningState(Snake.createFixed(10, 10));
+    state.getItems().put(new Position(10, 9).index(config.columns()), ItemType.SLOW_DOWN);
+
+    engine.tick(state);
+    assertEquals(config.tickRateMs() + GameEngine.SPEED_SHIFT_MS, state.tickDelayMs(config));
+
+    for (int tick = 1; tick < GameEngine.SPEED_EFFECT_TICKS; tick++) {
+      engine.tick(state);
+    }
+    assertEquals(GameEngine.SPEED_SHIFT_MS, state.getSpeedShiftMs());
+    engine.tick(state);
+    assertEquals(config.tickRateMs(), state.tickDelayMs(config));
+  }
+
+  @Test
+  void itemsSpawnOnFreeCellsUpToTheCap() {
+    BoardConfig config = BoardConfig.of(40, 40);
+    GameEngine engine = new GameEngine(config, new Random(6L));
+    for (ItemType type : ItemType.values()) {
+      engine.setItemSpawnRate(type, 1);
+    }
+    engine.setMaxItems(20);
+    GameState state = new GameState();
+    engine.reset(state);
+
+    engine.tick(state);
+    assertEquals(ItemType.values().length, state.getItems().size());
+    for (int tick = 0; tick < 10; tick++) {
+      engine.tick(state);
+    }
+
+    ItemMap items = state.getItems();
+    assertEquals(20, items.size());
+    for (ItemType type : ItemType.values()) {
+      for (int i = 0; i < items.count(type); i++) {
+        int cell = items.cellAt(type, i);
+        assertTrue(state.getSnake().isFreeCell(cell) || state.getMode() != GameMode.RUNNING);
+        assertFalse(Position.ofIndex(cell, 40).equals(state.getFood()));
+      }
+    }
+    engine.reset(state);
+    assertEquals(0, state.getItems().size());
+  }
+
+  @Test
+  void zeroSpawnRatesLeaveTheGameUnchanged() {
+    BoardConfig config = BoardConfig.DEFAULT;
+    GameEngine plain = new GameEngine(config, new Random(9L));
+    GameEngine tuned = new GameEngine(config, new Random(9L));
+    tuned.setItemSpawnRate(ItemType.SHRINK, 0.5);
+    tuned.setItemSpawnRate(ItemType.SHRINK, 0);
+    GameState a = new GameState();
+    GameState b = new GameState();
+    plain.reset(a);
+    tuned.reset(b);
+
+    for (int tick = 0; tick < 200 && a.getMode() == GameMode.RUNNING; tick++) {
+      plain.requestDirection(a, MovePolicy.greedy().choose(a));
+      tuned.requestDirection(b, MovePolicy.greedy().choose(b));
+      plain.tick(a);
+      tuned.tick(b);
+      assertEquals(a.getFood(), b.getFood());
+    }
+    assertEquals(a.getSnake().getBody(), b.getSnake().getBody());
+    assertEquals(0, b.getItems().size());
+    assertThrows(IllegalArgumentException.class, () -> tuned.setItemSpawnRate(ItemType.FOOD, 1.5));
+  }
+
+  @Test
+  void publishesItemEvents() {
+    GameEngine engine = new GameEngine(new Random(42L));
+    EventBus bus = new EventBus();
+    EventBusTest.Recorder recorder = new EventBusTest.Recorder();
+    bus.subscribe(recorder);
+    engine.setEvents(bus);
+    GameState state = runningState(Snake.createFixed(10, 10));
+    int cell = new Position(10, 9).index(BoardConfig.PIXEL_WIDTH);
+    state.getItems().put(cell, ItemType.SPEED_UP);
+    engine.setItemSpawnRate(ItemType.SHRINK, 1);
+
+    engine.tick(state);
+
+    List<String> events = recorder.events;
+    assertEquals("MOVE 1 " + cell + " 1", events.get(0));
+    assertEquals("ITEM_TAKEN 1 " + cell + " " + ItemType.SPEED_UP.ordinal(), events.get(1));
+    assertTrue(events.get(2).startsWith("ITEM_SPAWNED 1 "));
+    assertTrue(events.get(2).endsWith(" " + ItemType.SHRINK.ordinal()));
+  }
 }
@@ -0,0 +1,109 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.event.KeyEvent;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GameLoopTest {
+  private static final long TICK = TimeUnit.MILLISECONDS.toNanos(BoardConfig.TICK_RATE_MS);
+
+  private final GameState state = new GameState();
+  private final GameMetrics metrics = new GameMetrics();
+  private int saves;
+  private GameLoop loop;
+
+  @BeforeEach
+  void setUp() {
+    HighScoreStore store = new HighScoreStore() {
+      @Override
+      public int load() {
+        return 0;
+      }
+
+      @Override
+      public int saveIfHigher(int score) {
+        saves++;
+        return score;
+      }
+    };
+    loop = new GameLoop(BoardConfig.DEFAULT, new GameEngine(new Random(1L)), state, store, () -> { }, () -> { }, metrics);
+    loop.restart(0);
+    state.setFood(new Position(-1, -1));
+  }
+
+  @Test
+  void runsOneTickPerElapsedStep() {
+    assertEquals(0, loop.update(TICK - 1));
+    assertEquals(1, loop.update(TICK));
+    assertEquals(2, loop.update(3 * TICK));
+    assertEquals(3, metrics.getTickLatenessMicros().getCount());
+    assertEquals(3, metrics.getTickMicros().getCount());
+  }
+
+  @Test
+  void stallCatchesUpAtMostTheCapThenResetsSchedule() {
+    assertEquals(GameLoop.MAX_CATCH_UP_TICKS, loop.update(100 * TICK));
+    assertEquals(0, loop.update(100 * TICK));
+    assertEquals(1, loop.update(101 * TICK));
+    assertEquals(100 - GameLoop.MAX_CATCH_UP_TICKS, metrics.getMissedTicks());
+  }
+
+  @Test
+  void postedKeysApplyBeforeTheNextTick() {
+    Position head = state.getSnake().getHead();
+    loop.post(KeyEvent.VK_LEFT);
+
+    loop.update(TICK);
+
+    assertEquals(Direction.LEFT, state.getDirection());
+    assertEquals(head.y(), state.getSnake().getHead().y());
+  }
+
+  @Test
+  void publishesAFrameOnlyWhenSomethingChanged() {
+    FrameBuffer frames = new FrameBuffer();
+    loop.publishTo(frames);
+
+    loop.update(TICK - 1);
+    assertEquals(1, frames.latest().sequence());
+    loop.update(TICK - 1);
+    assertEquals(1, frames.latest().sequence());
+
+    loop.update(TICK);
+    Frame frame = frames.latest();
+    assertEquals(2, frame.sequence());
+    assertEquals(state.getSnake().getHead().x(), frame.cellX(0));
+    assertEquals(state.getSnake().getHead().y(), frame.cellY(0));
+
+    loop.post(KeyEvent.VK_P);
+    loop.update(TICK + 1);
+    assertEquals(GameMode.PAUSED, frames.latest().mode());
+  }
+
+  @Test
+  void pauseStopsTicksAndResumeReschedulesFromNow() {
+    loop.post(KeyEvent.VK_P);
+    assertEquals(0, loop.update(10 * TICK));
+    assertEquals(GameMode.PAUSED, state.getMode());
+
+    loop.post(KeyEvent.VK_P);
+    assertEquals(0, loop.update(20 * TICK));
+    assertEquals(1, loop.update(21 * TICK));
+  }
+
+  @Test
+  void savesHighScoreOnceWhenTheGameEnds() {
+    state.setDirection(Direction.DOWN);
+    loop.post(KeyEvent.VK_DOWN);
+    loop.update(TICK);
+    loop.update(2 * TICK);
+
+    assertEquals(GameMode.GAME_OVER, state.getMode());
+    assertEquals(1, saves);
+  }
+}
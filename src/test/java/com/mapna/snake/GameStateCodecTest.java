@@ -0,0 +1,247 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameStateCodecTest {
+
+  private static GameState roundTrip(GameState state) {
+    ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.encodedSize(state));
+    GameStateCodec.encode(state, buffer);
+    assertEquals(buffer.capacity(), buffer.position());
+    buffer.flip();
+    return GameStateCodec.decode(buffer);
+  }
+
+  private static void assertSameState(GameState expected, GameState actual) {
+    assertEquals(expected.getSnake().getBody(), actual.getSnake().getBody());
+    assertEquals(expected.getSnake().columns(), actual.getSnake().columns());
+    assertEquals(expected.getSnake().rows(), actual.getSnake().rows());
+    assertEquals(expected.getSnake().topology().wraps(), actual.getSnake().topology().wraps());
+    assertEquals(expected.getSnake().topology().maskedCount(), actual.getSnake().topology().maskedCount());
+    assertEquals(expected.getLevel(), actual.getLevel());
+    assertEquals(expected.getSnake().freeCellCount(), actual.getSnake().freeCellCount());
+    assertEquals(expected.getSnake().eatingSelf(), actual.getSnake().eatingSelf());
+    assertEquals(expected.getFood(), actual.getFood());
+    assertEquals(expected.getDirection(), actual.getDirection());
+    assertEquals(expected.getMode(), actual.getMode());
+    assertEquals(expected.getHighScore(), actual.getHighScore());
+    assertEquals(expected.getSpeedShiftMs(), actual.getSpeedShiftMs());
+    assertEquals(expected.getSpeedTicks(), actual.getSpeedTicks());
+    assertEquals(expected.getPendingGrowth(), actual.getPendingGrowth());
+    assertEquals(expected.getItems().size(), actual.getItems().size());
+    for (ItemType type : ItemType.values()) {
+      assertEquals(expected.getItems().count(type), actual.getItems().count(type));
+      for (int i = 0; i < expected.getItems().count(type); i++) {
+        assertEquals(expected.getItems().cellAt(type, i), actual.getItems().cellAt(type, i));
+      }
+    }
+  }
+
+  @Test
+  void playedGamesRoundTripExactly() {
+    for (long seed = 0; seed < 50; seed++) {
+      GameEngine engine = new GameEngine(new Random(seed));
+      GameState state = new GameState();
+      state.setHighScore((int) seed * 3);
+      engine.reset(state);
+      MovePolicy policy = MovePolicy.greedy();
+      while (state.getMode() == GameMode.RUNNING) {
+        engine.requestDirection(state, policy.choose(state));
+        engine.tick(state);
+      }
+
+      assertSameState(state, roundTrip(state));
+    }
+  }
+
+  @Test
+  void wrappedBodyRoundTrips() {
+    GameState state = new GameState();
+    state.setSnake(Snake.createFixed(5, 19));
+    state.setDirection(Direction.LEFT);
+    state.setMode(GameMode.PAUSED);
+    state.setFood(new Position(0, 0));
+
+    GameState restored = roundTrip(state);
+
+    assertSameState(state, restored);
+    assertEquals(new Position(5, 1), restored.getSnake().getTail());
+  }
+
+  @Test
+  void bodyUsesTwoBitsPerSegment() {
+    assertEquals(GameStateCodec.HEADER_BYTES + 1, GameStateCodec.encodedSize(3));
+    assertEquals(GameStateCodec.HEADER_BYTES + 1, GameStateCodec.encodedSize(5));
+    assertEquals(GameStateCodec.HEADER_BYTES + 2, GameStateCodec.encodedSize(6));
+    assertEquals(158, GameStateCodec.encodedSize(BoardConfig.DEFAULT.cellCount()));
+  }
+
+  @Test
+  void restoredGameKeepsPlayingLikeTheOriginal() {
+    GameEngine original = new GameEngine(new Random(9));
+    GameState state = new GameState();
+    original.reset(state);
+    for (int i = 0; i < 5; i++) {
+      original.tick(state);
+    }
+    GameState restored = roundTrip(state);
+    GameEngine copy = new GameEngine(new Random(1));
+
+    for (Direction direction : new Direction[] {Direction.LEFT, Direction.LEFT, Direction.DOWN, Direction.DOWN}) {
+      original.requestDirection(state, direction);
+      copy.requestDirection(restored, direction);
+      original.tick(state);
+      copy.tick(restored);
+    }
+
+    assertEquals(state.getSnake().getBody(), restored.getSnake().getBody());
+  }
+
+  @Test
+  void obstaclesRoundTripInPlacementOrder() {
+    GameEngine engine = new GameEngine(new Random(4L));
+    GameState state = new GameState();
+    engine.reset(state);
+    for (int x = 0; x < 20; x += 3) {
+      engine.placeObstacle(state, new Position(x, 0));
+    }
+
+    GameState restored = roundTrip(state);
+
+    assertSameState(state, restored);
+    assertTrue(state.getSnake().obstacleCount() > 0);
+    assertEquals(state.getSnake().obstacleCount(), restored.getSnake().obstacleCount());
+    for (int i = 0; i < state.getSnake().obstacleCount(); i++) {
+      assertEquals(state.getSnake().obstacleCellAt(i), restored.getSnake().obstacleCellAt(i));
+    }
+  }
+
+  @Test
+  void walledAndMaskedTopologiesRoundTrip() {
+    Bitboard closed = new Bitboard(10, 10);
+    closed.set(4, 4);
+    closed.set(5, 4);
+    Topology topology = Topology.walled(10, 10).withMask(closed);
+    GameEngine engine = new GameEngine(BoardConfig.of(10, 10), topology, new Random(5L));
+    GameState state = new GameState();
+    engine.reset(state);
+    engine.placeObstacle(state, new Position(0, 9));
+
+    GameState restored = roundTrip(state);
+
+    assertSameState(state, restored);
+    assertEquals(Topology.WALL, restored.getSnake().topology().neighbour(0, Direction.UP));
+    assertFalse(restored.getSnake().topology().isOpen(4 * 10 + 5));
+    assertTrue(restored.getSnake().isObstacle(new Position(0, 9)));
+    assertEquals(1, restored.getSnake().obstacleCount() - topology.maskedCount());
+  }
+
+  @Test
+  void levelSnapshotsNeedTheirLevel(@TempDir Path dir) throws IOException {
+    Level level = LevelTest.sampleLevel(dir.resolve("sample.level"));
+    GameEngine engine = new GameEngine(BoardConfig.of(70, 5), level, new Random(6L));
+    GameState state = new GameState();
+    engine.reset(state);
+    ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.encodedSize(state));
+    GameStateCodec.encode(state, buffer);
+
+    buffer.flip();
+    assertThrows(IllegalArgumentException.class, () -> GameStateCodec.decode(buffer));
+    buffer.rewind();
+    GameState restored = new GameState();
+    GameStateCodec.decodeInto(buffer, restored, level);
+
+    assertSameState(state, restored);
+    assertSame(level, restored.getLevel());
+  }
+
+  @Test
+  void gamesWithItemsRoundTripAndKeepPlayingAlike() {
+    BoardConfig config = BoardConfig.of(30, 30);
+    GameEngine original = new GameEngine(config, new Random(12L));
+    GameEngine copy = new GameEngine(config, new Random(12L));
+    for (ItemType type : ItemType.values()) {
+      original.setItemSpawnRate(type, 0.3);
+      copy.setItemSpawnRate(type, 0.3);
+    }
+    GameState state = new GameState();
+    original.reset(state);
+    copy.reset(new GameState());
+    MovePolicy policy = MovePolicy.greedy();
+    for (int tick = 0; tick < 40 && state.getMode() == GameMode.RUNNING; tick++) {
+      original.requestDirection(state, policy.choose(state));
+      original.tick(state);
+    }
+    state.setPendingGrowth(2);
+    state.setSpeedShiftMs(-GameEngine.SPEED_SHIFT_MS);
+    state.setSpeedTicks(7);
+    GameState target = new GameState();
+    target.getItems().put(0, ItemType.SHRINK);
+    ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.encodedSize(state));
+    GameStateCodec.encode(state, buffer);
+    buffer.flip();
+
+    GameStateCodec.decodeInto(buffer, target);
+
+    assertTrue(state.getItems().size() > 1);
+    assertSameState(state, target);
+    original.requestDirection(state, policy.choose(state));
+    copy.requestDirection(target, policy.choose(target));
+    original.tick(state);
+    copy.tick(target);
+    assertEquals(state.getSnake().getBody(), target.getSnake().getBody());
+    assertEquals(state.getPendingGrowth(), target.getPendingGrowth());
+    assertEquals(state.getSpeedTicks(), target.getSpeedTicks());
+  }
+
+  @Test
+  void encodeFailsWhenBufferIsTooSmall() {
+    GameState state = new GameState();
+    state.setSnake(Snake.createFixed(5, 5));
+    ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.encodedSize(state) - 1);
+
+    assertThrows(BufferOverflowException.class, () -> GameStateCodec.encode(state, buffer));
+    assertEquals(0, buffer.position());
+  }
+
+  @Test
+  void rejectsForeignOrTruncatedBytes() {
+    GameState state = new GameState();
+    state.setSnake(Snake.createFixed(5, 5));
+    ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.encodedSize(state));
+    GameStateCodec.encode(state, buffer);
+
+    ByteBuffer truncated = ByteBuffer.wrap(buffer.array(), 0, GameStateCodec.HEADER_BYTES - 4);
+    assertThrows(IllegalArgumentException.class, () -> GameStateCodec.decode(truncated));
+    ByteBuffer foreign = ByteBuffer.wrap(new byte[GameStateCodec.HEADER_BYTES + 4]);
+    assertThrows(IllegalArgumentException.class, () -> GameStateCodec.decode(foreign));
+  }
+
+  @Test
+  void decodeIntoMarksFullRedraw() {
+    GameState state = new GameState();
+    state.setSnake(Snake.createFixed(5, 5));
+    ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.encodedSize(state));
+    GameStateCodec.encode(state, buffer);
+    buffer.flip();
+    GameState target = new GameState();
+    target.getChanges().clear();
+
+    GameStateCodec.decodeInto(buffer, target);
+
+    assertTrue(target.getChanges().isFullRedraw());
+  }
+}
@@ -0,0 +1,20 @@
+package com.mapna.snake;
+
+/**
+ * Child process for {@link LockingHighScoreStoreTest}: saves the scores
+ * {@code offset, offset + stride, ...} below {@code limit} in increasing order.
+ */
+public final class HighScoreStressWorker {
+  private HighScoreStressWorker() {
+  }
+
+  public static void main(String[] args) {
+    HighScoreStore store = new LockingHighScoreStore(args[0]);
+    int offset = Integer.parseInt(args[1]);
+    int stride = Integer.parseInt(args[2]);
+    int limit = Integer.parseInt(args[3]);
+    for (int score = offset; score < limit; score += stride) {
+      store.saveIfHigher(score);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputQueueTest {
+
+  @Test
+  void capacityRoundsUpToPowerOfTwo() {
+    assertEquals(1, new InputQueue(1).capacity());
+    assertEquals(4, new InputQueue(3).capacity());
+    assertEquals(4, new InputQueue(4).capacity());
+    assertEquals(8, new InputQueue(5).capacity());
+  }
+
+  @Test
+  void pollsInOrderWithStampsAndRejectsWhenFull() {
+    InputQueue queue = new InputQueue(2);
+    assertTrue(queue.offer(Direction.LEFT, 10));
+    assertTrue(queue.offer(Direction.DOWN, 20));
+    assertFalse(queue.offer(Direction.RIGHT, 30));
+    assertEquals(Direction.DOWN, queue.lastOffered());
+
+    assertEquals(Direction.LEFT, queue.poll());
+    assertEquals(10, queue.lastStamp());
+    assertTrue(queue.offer(Direction.RIGHT, 30));
+    assertEquals(Direction.DOWN, queue.poll());
+    assertEquals(Direction.RIGHT, queue.poll());
+    assertEquals(30, queue.lastStamp());
+    assertNull(queue.poll());
+    assertNull(queue.lastOffered());
+  }
+
+  @Test
+  void clearDropsQueuedInputs() {
+    InputQueue queue = new InputQueue(4);
+    queue.offer(Direction.UP, 1);
+    queue.offer(Direction.LEFT, 2);
+
+    queue.clear();
+
+    assertTrue(queue.isEmpty());
+    assertNull(queue.poll());
+    assertTrue(queue.offer(Direction.RIGHT, 3));
+    assertEquals(Direction.RIGHT, queue.poll());
+  }
+
+  @Test
+  void producerAndConsumerThreadsSeeEveryInputInOrder() throws InterruptedException {
+    InputQueue queue = new InputQueue(4);
+    int count = 100_000;
+    Direction[] directions = Direction.values();
+    Thread producer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        while (!queue.offer(directions[i & 3], i)) {
+          Thread.yield();
+        }
+      }
+    });
+    producer.start();
+
+    for (int i = 0; i < count; i++) {
+      Direction direction;
+      while ((direction = queue.poll()) == null) {
+        Thread.yield();
+      }
+      assertEquals(directions[i & 3], direction);
+      assertEquals(i, queue.lastStamp());
+    }
+    producer.join();
+    assertTrue(queue.isEmpty());
+  }
+}
@@ -0,0 +1,80 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemMapTest {
+
+  @Test
+  void putLookupAndRemove() {
+    ItemMap items = new ItemMap();
+
+    assertTrue(items.put(42, ItemType.SHRINK));
+    assertFalse(items.put(42, ItemType.FOOD));
+    assertEquals(ItemType.SHRINK, items.typeAt(42));
+    assertNull(items.typeAt(43));
+    assertEquals(1, items.count(ItemType.SHRINK));
+    assertEquals(42, items.cellAt(ItemType.SHRINK, 0));
+
+    assertEquals(ItemType.SHRINK, items.remove(42));
+    assertNull(items.remove(42));
+    assertNull(items.typeAt(42));
+    assertEquals(0, items.size());
+    assertThrows(IndexOutOfBoundsException.class, () -> items.cellAt(ItemType.SHRINK, 0));
+  }
+
+  @Test
+  void matchesHashMapUnderRandomChurn() {
+    ItemMap items = new ItemMap();
+    Map<Integer, ItemType> expected = new HashMap<>();
+    Random random = new Random(25L);
+    ItemType[] types = ItemType.values();
+
+    for (int i = 0; i < 100_000; i++) {
+      int cell = random.nextInt(20_000);
+      if (random.nextInt(3) > 0) {
+        ItemType type = types[random.nextInt(types.length)];
+        assertEquals(expected.putIfAbsent(cell, type) == null, items.put(cell, type));
+      } else {
+        assertEquals(expected.remove(cell), items.remove(cell));
+      }
+    }
+
+    assertEquals(expected.size(), items.size());
+    for (int cell = 0; cell < 20_000; cell++) {
+      assertEquals(expected.get(cell), items.typeAt(cell));
+    }
+    int listed = 0;
+    for (ItemType type : types) {
+      for (int i = 0; i < items.count(type); i++) {
+        assertEquals(type, expected.get(items.cellAt(type, i)));
+        listed++;
+      }
+    }
+    assertEquals(expected.size(), listed);
+  }
+
+  @Test
+  void clearEmptiesEveryType() {
+    ItemMap items = new ItemMap();
+    for (int cell = 0; cell < 1_000; cell++) {
+      items.put(cell, ItemType.values()[cell % ItemType.values().length]);
+    }
+
+    items.clear();
+
+    assertEquals(0, items.size());
+    assertEquals(0, items.count(ItemType.FOOD));
+    assertNull(items.typeAt(7));
+    assertTrue(items.put(7, ItemType.BONUS_FOOD));
+  }
+}
@@ -0,0 +1,79 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+  @Test
+  void smallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int v = 1; v <= 10; v++) {
+      histogram.record(v);
+    }
+
+    assertEquals(5, histogram.percentile(50));
+    assertEquals(10, histogram.percentile(100));
+    assertEquals(5.5, histogram.mean(), 1e-9);
+  }
+
+  @Test
+  void percentilesStayWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int v = 1; v <= 100_000; v++) {
+      histogram.record(v * 1_000L);
+    }
+
+    assertWithin(50_000_000, histogram.percentile(50));
+    assertWithin(99_000_000, histogram.percentile(99));
+    assertEquals(100_000_000, histogram.max());
+  }
+
+  @Test
+  void everyBucketBoundContainsItsValues() {
+    for (long v : new long[]{0, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE}) {
+      int bucket = LatencyHistogram.bucket(v);
+      assertTrue(LatencyHistogram.upperBound(bucket) >= v, "value " + v);
+      assertTrue(bucket == 0 || LatencyHistogram.upperBound(bucket - 1) < v, "value " + v);
+    }
+  }
+
+  @Test
+  void resetClearsEverything() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(500);
+
+    histogram.reset();
+
+    assertEquals(0, histogram.count());
+    assertEquals(0, histogram.percentile(99));
+    assertEquals(0, histogram.max());
+  }
+
+  @Test
+  void globalMetricsArePublishedOverJmx() throws Exception {
+    GameMetrics metrics = GameMetrics.global();
+    long start = metrics.tickStarted();
+    metrics.tickFinished(start);
+    metrics.paintFinished(System.nanoTime());
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    CompositeData tick = (CompositeData) server.getAttribute(new ObjectName(GameMetrics.OBJECT_NAME), "TickMicros");
+    CompositeData tickToPaint = (CompositeData) server.getAttribute(new ObjectName(GameMetrics.OBJECT_NAME), "TickToPaintMicros");
+
+    assertTrue((Long) tick.get("count") >= 1);
+    assertTrue((Long) tickToPaint.get("count") >= 1);
+    assertTrue(server.isRegistered(new ObjectName(GameMetrics.OBJECT_NAME)));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(Math.abs(actual - expected) <= expected / 16, "expected ~" + expected + " but was " + actual);
+  }
+}
@@ -0,0 +1,103 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LevelTest {
+  @TempDir
+  Path dir;
+
+  /** A 70x5 walled level with obstacles on row 1 and food allowed only in row 3. */
+  static Level sampleLevel(Path file) throws IOException {
+    Bitboard obstacles = new Bitboard(70, 5);
+    for (int x = 10; x < 70; x += 10) {
+      obstacles.set(x, 1);
+    }
+    obstacles.set(66, 3);
+    Bitboard zones = new Bitboard(70, 5);
+    for (int x = 60; x < 70; x++) {
+      zones.set(x, 3);
+    }
+    Level.write(file, obstacles, zones, true);
+    return Level.open(file);
+  }
+
+  @Test
+  void roundTripsHeaderAndLayers() throws IOException {
+    Level level = sampleLevel(dir.resolve("sample.level"));
+
+    assertEquals(70, level.columns());
+    assertEquals(5, level.rows());
+    assertTrue(level.hasSpawnZones());
+    assertFalse(level.topology().wraps());
+    assertTrue(level.isObstacle(70 + 60));
+    assertFalse(level.isObstacle(70 + 61));
+    assertTrue(level.canSpawnFood(3 * 70 + 65));
+    assertFalse(level.canSpawnFood(3 * 70 + 66));
+    assertFalse(level.canSpawnFood(3 * 70 + 59));
+    assertEquals(Level.HEADER_BYTES + 2 * 5 * 2 * Long.BYTES, Files.size(dir.resolve("sample.level")));
+  }
+
+  @Test
+  void scansWordsForObstaclesAndWrapsForSpawnCells() throws IOException {
+    Level level = sampleLevel(dir.resolve("sample.level"));
+
+    assertEquals(70 + 10, level.nextObstacle(0));
+    assertEquals(70 + 60, level.nextObstacle(70 + 51));
+    assertEquals(3 * 70 + 66, level.nextObstacle(70 + 61));
+    assertEquals(-1, level.nextObstacle(3 * 70 + 67));
+    assertEquals(3 * 70 + 67, level.nextSpawnCell(3 * 70 + 66));
+    assertEquals(3 * 70 + 60, level.nextSpawnCell(4 * 70));
+  }
+
+  @Test
+  void levelWithoutZonesSpawnsOnEveryOpenCell() throws IOException {
+    Path file = dir.resolve("open.level");
+    Bitboard obstacles = new Bitboard(4, 4);
+    obstacles.set(0, 0);
+    Level.write(file, obstacles, null, false);
+    Level level = Level.open(file);
+
+    assertFalse(level.hasSpawnZones());
+    assertTrue(level.topology().wraps());
+    assertFalse(level.canSpawnFood(0));
+    assertEquals(1, level.nextSpawnCell(0));
+  }
+
+  @Test
+  void rejectsForeignAndTruncatedFiles() throws IOException {
+    Path foreign = dir.resolve("foreign.level");
+    Files.write(foreign, new byte[64]);
+    Path file = dir.resolve("sample.level");
+    sampleLevel(file);
+    Path truncated = dir.resolve("truncated.level");
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+
+    assertThrows(IOException.class, () -> Level.open(foreign));
+    assertThrows(IOException.class, () -> Level.open(truncated));
+  }
+
+  @Test
+  void opensLargeMapWithoutReadingIt() throws IOException {
+    Path file = dir.resolve("large.level");
+    Bitboard obstacles = new Bitboard(4_000, 4_000);
+    obstacles.set(3_999, 3_999);
+    Level.write(file, obstacles, null, true);
+
+    Level level = Level.open(file);
+
+    assertTrue(level.isObstacle(4_000 * 4_000 - 1));
+    assertEquals(4_000 * 4_000 - 1, level.nextObstacle(4_000 * 3_999));
+  }
+}
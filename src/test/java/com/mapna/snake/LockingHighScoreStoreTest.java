@@ -0,0 +1,105 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockingHighScoreStoreTest {
+  private static final int SAVES_PER_PROCESS = 150;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void savesOnlyHigherScores() throws IOException {
+    Path file = tempDir.resolve("hs.txt");
+    LockingHighScoreStore store = new LockingHighScoreStore(file.toString());
+
+    assertEquals(-1, store.load());
+    assertEquals(10, store.saveIfHigher(10));
+    assertEquals(10, store.saveIfHigher(4));
+    assertEquals("10", Files.readString(file));
+    try (var files = Files.list(tempDir)) {
+      assertFalse(files.anyMatch(p -> p.toString().endsWith(".tmp")));
+    }
+  }
+
+  @Test
+  void threadsSharingAFileLoseNoUpdates() throws Exception {
+    String file = tempDir.resolve("threads.txt").toString();
+    int threads = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int offset = t;
+        futures.add(pool.submit(() -> {
+          LockingHighScoreStore store = new LockingHighScoreStore(file);
+          for (int score = offset; score < 400; score += threads) {
+            store.saveIfHigher(score);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    assertEquals(399, new LockingHighScoreStore(file).load());
+  }
+
+  @Test
+  void processesSharingAFileLoseNoUpdates() throws Exception {
+    for (int processes : new int[] {1, 2, 4}) {
+      Path file = tempDir.resolve("procs-" + processes + ".txt");
+      int limit = processes * SAVES_PER_PROCESS;
+      LockingHighScoreStore observer = new LockingHighScoreStore(file.toString());
+
+      long start = System.nanoTime();
+      List<Process> children = new ArrayList<>();
+      for (int i = 0; i < processes; i++) {
+        children.add(startWorker(file, i, processes, limit));
+      }
+      // Every save replaces the file atomically, so a concurrent reader must never see the
+      // score go backwards or the file half-written.
+      int last = -1;
+      while (children.stream().anyMatch(Process::isAlive)) {
+        int seen = observer.load();
+        assertTrue(seen >= last, "score went from " + last + " to " + seen);
+        last = seen;
+      }
+      for (Process child : children) {
+        assertTrue(child.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, child.exitValue());
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      assertEquals(limit - 1, observer.load(), () -> String.format("%d process(es): %d saves in %.2fs (%.0f saves/s)",
+          processes, limit, seconds, limit / seconds));
+    }
+  }
+
+  private static Process startWorker(Path file, int offset, int stride, int limit) throws IOException {
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        HighScoreStressWorker.class.getName(), file.toString(),
+        Integer.toString(offset), Integer.toString(stride), Integer.toString(limit))
+        .inheritIO()
+        .start();
+  }
+}
@@ -0,0 +1,237 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogLeaderboardStoreTest {
+
+  @TempDir
+  Path tempDir;
+
+  private LogLeaderboardStore storeAt(String filename, int capacity, long compactEvery) {
+    return new LogLeaderboardStore(tempDir.resolve(filename).toString(), capacity, compactEvery);
+  }
+
+  private static LeaderboardEntry entry(String player, int score) {
+    return new LeaderboardEntry(player, 1_000L + score, score, 20, 20);
+  }
+
+  @Test
+  void emptyStoreLoadsMinusOne() {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      assertEquals(-1, store.load());
+      assertEquals(0, store.size());
+      assertTrue(store.top(5).isEmpty());
+    }
+  }
+
+  @Test
+  void topKeepsBestResultPerPlayerInScoreOrder() {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      store.record(entry("ann", 5));
+      store.record(entry("bob", 9));
+      store.record(entry("ann", 12));
+      store.record(entry("bob", 3));
+      store.record(entry("cy", 7));
+
+      assertEquals(List.of(entry("ann", 12), entry("bob", 9), entry("cy", 7)), store.top(10));
+      assertEquals(12, store.load());
+      assertEquals(5, store.size());
+    }
+  }
+
+  @Test
+  void indexDropsLowestWhenFull() {
+    try (LogLeaderboardStore store = storeAt("lb.log", 3, 1_000)) {
+      for (int i = 0; i < 10; i++) {
+        store.record(entry("p" + i, i));
+      }
+
+      assertEquals(List.of(entry("p9", 9), entry("p8", 8), entry("p7", 7)), store.top(5));
+    }
+  }
+
+  @Test
+  void droppedPlayersCanReturnAndTiesKeepTheirOwnSlots() {
+    try (LogLeaderboardStore store = storeAt("lb.log", 3, 1_000)) {
+      store.record(entry("ann", 5));
+      store.record(entry("bob", 5));
+      store.record(entry("cy", 5));
+      store.record(entry("dee", 6));
+      store.record(entry("bob", 7));
+      store.record(entry("ann", 4));
+      store.record(entry("cy", 8));
+
+      assertEquals(List.of(entry("cy", 8), entry("bob", 7), entry("dee", 6)), store.top(5));
+    }
+    try (LogLeaderboardStore store = storeAt("lb.log", 3, 1_000)) {
+      store.record(entry("dee", 9));
+      store.record(entry("bob", 6));
+
+      assertEquals(List.of(entry("dee", 9), entry("cy", 8), entry("bob", 7)), store.top(5));
+    }
+  }
+
+  @Test
+  void saveIfHigherReturnsBestScore() {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      assertEquals(10, store.saveIfHigher(10));
+      assertEquals(10, store.saveIfHigher(4));
+      assertEquals(15, store.saveIfHigher(15));
+    }
+  }
+
+  @Test
+  void reopenRestoresIndexAndCount() {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      store.record(entry("ann", 5));
+      store.record(entry("bob", 8));
+    }
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      assertEquals(8, store.load());
+      assertEquals(2, store.size());
+      assertEquals(List.of(entry("bob", 8), entry("ann", 5)), store.top(10));
+    }
+  }
+
+  @Test
+  void missingIndexIsRebuiltFromLog() throws IOException {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      store.record(entry("ann", 5));
+      store.record(entry("bob", 8));
+    }
+    Files.delete(tempDir.resolve("lb.log.idx"));
+
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      assertEquals(List.of(entry("bob", 8), entry("ann", 5)), store.top(10));
+      assertEquals(2, store.size());
+    }
+  }
+
+  @Test
+  void tornTailRecordIsTruncatedOnOpen() throws IOException {
+    Path log = tempDir.resolve("lb.log");
+    long intact;
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      store.record(entry("ann", 5));
+      intact = store.logBytes();
+      store.record(entry("bob", 8));
+    }
+    // Simulate a crash part way through the last append: log cut short, index never updated.
+    try (var channel = Files.newByteChannel(log, StandardOpenOption.WRITE)) {
+      channel.truncate(intact + 6);
+    }
+    Files.delete(tempDir.resolve("lb.log.idx"));
+
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      assertEquals(intact, store.logBytes());
+      assertEquals(List.of(entry("ann", 5)), store.top(10));
+      store.record(entry("cy", 3));
+    }
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      assertEquals(List.of(entry("ann", 5), entry("cy", 3)), store.top(10));
+    }
+  }
+
+  @Test
+  void corruptRecordEndsTheLog() throws IOException {
+    Path log = tempDir.resolve("lb.log");
+    long intact;
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      store.record(entry("ann", 5));
+      intact = store.logBytes();
+      store.record(entry("bob", 8));
+    }
+    byte[] bytes = Files.readAllBytes(log);
+    bytes[bytes.length - 1] ^= 0x7F;
+    Files.write(log, bytes);
+    Files.delete(tempDir.resolve("lb.log.idx"));
+
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      assertEquals(intact, store.logBytes());
+      assertEquals(1, store.size());
+    }
+  }
+
+  @Test
+  void longNamesAreTruncated() {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 1_000)) {
+      store.record(entry("x".repeat(50), 5));
+
+      assertEquals("x".repeat(LogLeaderboardStore.MAX_NAME_BYTES), store.top(1).get(0).player());
+    }
+  }
+
+  @Test
+  void compactionKeepsBestPerPlayerAndShrinksLog() throws IOException {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, Long.MAX_VALUE)) {
+      for (int i = 0; i < 1_000; i++) {
+        store.record(entry("p" + (i % 4), i));
+      }
+      long before = store.logBytes();
+      List<LeaderboardEntry> top = store.top(10);
+
+      store.compact();
+
+      assertTrue(store.logBytes() < before / 100);
+      assertEquals(4, store.size());
+      assertEquals(top, store.top(10));
+      store.record(entry("p5", 2_000));
+    }
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, Long.MAX_VALUE)) {
+      assertEquals(5, store.size());
+      assertEquals(2_000, store.load());
+    }
+  }
+
+  @Test
+  void concurrentCompactionsTakeTurns() throws Exception {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, Long.MAX_VALUE)) {
+      for (int i = 0; i < 10_000; i++) {
+        store.record(entry("p" + (i % 4), i));
+      }
+      List<LeaderboardEntry> top = store.top(10);
+      Thread other = new Thread(() -> {
+        try {
+          store.compact();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      other.start();
+
+      store.compact();
+      other.join();
+
+      assertEquals(4, store.size());
+      assertEquals(top, store.top(10));
+    }
+  }
+
+  @Test
+  void backgroundCompactionRunsAfterThreshold() {
+    try (LogLeaderboardStore store = storeAt("lb.log", 10, 500)) {
+      for (int i = 0; i < 50_000; i++) {
+        store.record(entry("p" + (i % 8), i % 1_000));
+      }
+      List<LeaderboardEntry> top = store.top(10);
+      store.close();
+
+      try (LogLeaderboardStore reopened = storeAt("lb.log", 10, 500)) {
+        assertTrue(reopened.size() < 50_000);
+        assertEquals(top, reopened.top(10));
+        assertEquals(999, reopened.load());
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PositionTest {
+  private static final long ALLOCATION_TOLERANCE_BYTES = 4096;
+
+  @Test
+  void ofReturnsOneInstancePerCachedCell() {
+    assertTrue(Position.reserve(300, 300));
+    assertSame(Position.of(3, 7), Position.of(3, 7));
+    assertSame(Position.of(255, 255), Position.ofIndex(255 * 300 + 255, 300));
+    assertEquals(new Position(3, 7), Position.of(3, 7));
+  }
+
+  @Test
+  void outsideTheTableFallsBackToEqualRecords() {
+    assertNotSame(Position.of(-1, -1), Position.of(-1, -1));
+    assertEquals(Position.of(300, 2), Position.of(300, 2));
+    assertEquals(new Position(1_000, 999), Position.ofIndex(999 * 5_000 + 1_000, 5_000));
+  }
+
+  @Test
+  void reserveGrowsTheTableToTheBoardAndKeepsInstances() {
+    Position kept = Position.of(5, 5);
+    new GameEngine(BoardConfig.of(400, 500), new Random(1L)).reset(new GameState());
+
+    assertTrue(Position.isCached(400, 500));
+    assertSame(Position.of(399, 499), Position.of(399, 499));
+    assertSame(kept, Position.of(5, 5));
+  }
+
+  @Test
+  void boardsBeyondTheCapAreNotCached() {
+    assertFalse(Position.reserve(Position.MAX_CACHED_CELLS + 1, 1));
+    assertFalse(Position.isCached(Position.MAX_CACHED_CELLS + 1, 1));
+    assertEquals(Position.of(Position.MAX_CACHED_CELLS, 0), Position.of(Position.MAX_CACHED_CELLS, 0));
+  }
+
+  @Test
+  void indexRoundTrips() {
+    Position p = Position.of(13, 4);
+
+    assertEquals(4 * 20 + 13, p.index(20));
+    assertSame(p, Position.ofIndex(p.index(20), 20));
+  }
+
+  @Test
+  void snakeAndFoodPositionsAreCanonical() {
+    GameEngine engine = new GameEngine(new Random(3L));
+    GameState state = new GameState();
+    engine.reset(state);
+
+    Snake snake = state.getSnake();
+    assertSame(Position.of(snake.getHead().x(), snake.getHead().y()), snake.getHead());
+    assertSame(snake.getHead(), snake.getBody().get(0));
+    assertSame(Position.of(state.getFood().x(), state.getFood().y()), state.getFood());
+    assertSame(snake.nextHead(Direction.UP), snake.nextHead(Direction.UP));
+  }
+
+  @Test
+  void steadyStateTicksDoNotAllocatePerTick() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    GameEngine engine = new GameEngine(new Random(9L));
+    GameState state = new GameState();
+    engine.reset(state);
+    // Off the board, so the snake keeps its length and never needs to grow its ring.
+    state.setFood(new Position(-1, -1));
+    // A staircase never crosses the length-3 body.
+    Direction[] turns = {Direction.LEFT, Direction.UP, Direction.RIGHT, Direction.UP};
+    for (int i = 0; i < 50_000; i++) {
+      playTick(engine, state, turns[i & 3]);
+    }
+
+    long before = threads.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < 10_000; i++) {
+      playTick(engine, state, turns[i & 3]);
+    }
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+    // JIT and class loading for other tests can charge a few bytes to this thread; a position
+    // or event per tick would be at least 160 KB.
+    assertTrue(allocated < ALLOCATION_TOLERANCE_BYTES, "bytes allocated in 10000 ticks: " + allocated);
+    assertEquals(GameMode.RUNNING, state.getMode());
+  }
+
+  private static void playTick(GameEngine engine, GameState state, Direction turn) {
+    engine.requestDirection(state, turn);
+    engine.tick(state);
+    state.getChanges().clear();
+  }
+}
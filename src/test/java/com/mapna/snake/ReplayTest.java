@@ -0,0 +1,115 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayTest {
+
+  @TempDir
+  Path tempDir;
+
+  private static GameState playRecorded(ReplayRecorder recorder, long policySeed, int maxTicks) {
+    GameState state = new GameState();
+    MovePolicy policy = MovePolicy.random(new Random(policySeed));
+    recorder.reset(state);
+    for (int t = 0; t < maxTicks && state.getMode() == GameMode.RUNNING; t++) {
+      if (t % 3 == 0) {
+        recorder.requestDirection(state, policy.choose(state));
+      }
+      recorder.tick(state);
+    }
+    return state;
+  }
+
+  @Test
+  void replayReproducesFinalState() {
+    ReplayRecorder recorder = new ReplayRecorder(BoardConfig.DEFAULT, 1234L);
+    GameState recorded = playRecorded(recorder, 9L, 5_000);
+
+    ReplayPlayer.Result result = ReplayPlayer.play(recorder.finish(recorded));
+
+    assertTrue(result.matches(), result.mismatch());
+    assertEquals(recorder.ticks(), result.ticks());
+    assertEquals(recorded.getSnake().getBody(), result.state().getSnake().getBody());
+    assertEquals(recorded.getFood(), result.state().getFood());
+  }
+
+  @Test
+  void replayHandlesPauseAndRestart() throws IOException {
+    ReplayRecorder recorder = new ReplayRecorder(BoardConfig.of(12, 9), 77L);
+    GameState state = playRecorded(recorder, 3L, 400);
+    recorder.togglePause(state);
+    recorder.tick(state);
+    recorder.togglePause(state);
+    recorder.reset(state);
+    for (int t = 0; t < 25; t++) {
+      recorder.tick(state);
+    }
+    Path file = tempDir.resolve("game.snkr");
+    recorder.writeTo(file, state);
+
+    ReplayPlayer.Result result = ReplayPlayer.play(file);
+
+    assertTrue(result.matches(), result.mismatch());
+  }
+
+  @Test
+  void tamperedInputIsReportedAsMismatch() {
+    ReplayRecorder recorder = new ReplayRecorder(BoardConfig.DEFAULT, 5L);
+    GameState state = new GameState();
+    recorder.reset(state);
+    recorder.requestDirection(state, Direction.LEFT);
+    for (int t = 0; t < 7; t++) {
+      recorder.tick(state);
+    }
+    byte[] recording = recorder.finish(state);
+    // The first input is the reset; the LEFT that follows is the second event's code byte.
+    int leftCode = indexOfEvent(recording, Direction.LEFT.ordinal());
+    recording[leftCode] = (byte) Direction.RIGHT.ordinal();
+
+    ReplayPlayer.Result result = ReplayPlayer.play(recording);
+
+    assertFalse(result.matches());
+  }
+
+  @Test
+  void recordingIsCompact() {
+    ReplayRecorder recorder = new ReplayRecorder(BoardConfig.DEFAULT, 42L);
+    GameState state = playRecorded(recorder, 1L, 3_000);
+
+    byte[] recording = recorder.finish(state);
+
+    // Header plus roughly two bytes per input, one input every third tick.
+    assertTrue(recording.length < 32 + 2 * (recorder.ticks() / 3 + 1) + 16, "size " + recording.length);
+  }
+
+  @Test
+  void rejectsForeignData() {
+    byte[] junk = new byte[32];
+    Arrays.fill(junk, (byte) 7);
+
+    assertThrows(IllegalArgumentException.class, () -> ReplayPlayer.play(junk));
+  }
+
+  private static int indexOfEvent(byte[] recording, int code) {
+    // Header: magic(4) + version(1) + seed(8) + columns(1) + rows(1), then (delta, code) pairs.
+    int pos = 15;
+    while (true) {
+      pos++;
+      if (recording[pos] == code) {
+        return pos;
+      }
+      pos++;
+    }
+  }
+}
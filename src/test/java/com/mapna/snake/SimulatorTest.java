@@ -0,0 +1,49 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulatorTest {
+
+  @Test
+  void resultsDoNotDependOnThreadCount() {
+    Simulator.Summary single = Simulator.run(200, 7L, 2_000, 1, s -> MovePolicy.random(new Random(s)));
+    Simulator.Summary parallel = Simulator.run(200, 7L, 2_000, 4, s -> MovePolicy.random(new Random(s)));
+
+    assertEquals(single.games(), parallel.games());
+    assertEquals(single.ticks(), parallel.ticks());
+    assertEquals(single.lost(), parallel.lost());
+    for (int score = 0; score < 20; score++) {
+      assertEquals(single.countWithScore(score), parallel.countWithScore(score));
+    }
+  }
+
+  @Test
+  void everyGameIsCountedOnce() {
+    Simulator.Summary summary = Simulator.run(37, 1L, 500, 3, s -> MovePolicy.greedy());
+
+    assertEquals(37, summary.games());
+    assertEquals(37, summary.won() + summary.lost() + summary.capped());
+    assertTrue(summary.ticks() > 0);
+  }
+
+  @Test
+  void tickLimitStopsRunningGames() {
+    Simulator.Summary summary = Simulator.run(5, 1L, 1, 1, s -> MovePolicy.straight());
+
+    assertEquals(5, summary.ticks());
+    assertEquals(0, summary.scorePercentile(100));
+  }
+
+  @Test
+  void greedyPolicyOutscoresRandom() {
+    Simulator.Summary greedy = Simulator.run(100, 3L, 5_000, 2, s -> MovePolicy.greedy());
+    Simulator.Summary random = Simulator.run(100, 3L, 5_000, 2, s -> MovePolicy.random(new Random(s)));
+
+    assertTrue(greedy.meanScore() > random.meanScore());
+  }
+}
@@ -147,4 +147,21 @@ class SnakeTest {
     Snake snake = Snake.createFixed(5, 5);
     assertThrows(UnsupportedOperationException.class, () -> snake.getBody().add(new Position(0, 0)));
   }
+
+  @Test
+  void bodyKeepsHeadFirstOrderWhenGrowingPastInitialCapacity() {
+    Snake snake = Snake.createFixed(5, 19);
+    for (int x = 6; x < 20; x++) {
+      snake.move(new Position(x, 19), true);
+    }
+    for (int y = 18; y > 10; y--) {
+      snake.move(new Position(19, y), true);
+    }
+
+    assertEquals(25, snake.getBody().size());
+    assertEquals(new Position(19, 11), snake.getHead());
+    assertEquals(new Position(5, 1), snake.getBody().getLast());
+    assertFalse(snake.eatingSelf());
+    assertTrue(snake.contains(new Position(12, 19)));
+  }
 }
@@ -0,0 +1,101 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SparseOccupancyTest {
+
+  @Test
+  void occupyAndVacateReportChanges() {
+    SparseOccupancy occupancy = new SparseOccupancy(1_000_000);
+
+    assertTrue(occupancy.occupy(42));
+    assertFalse(occupancy.occupy(42));
+    assertTrue(occupancy.isOccupied(42));
+    assertTrue(occupancy.vacate(42));
+    assertFalse(occupancy.vacate(42));
+    assertFalse(occupancy.isOccupied(42));
+  }
+
+  @Test
+  void matchesHashSetUnderRandomChurn() {
+    SparseOccupancy occupancy = new SparseOccupancy(5_000);
+    Set<Integer> expected = new HashSet<>();
+    Random random = new Random(11L);
+
+    for (int i = 0; i < 50_000; i++) {
+      int cell = random.nextInt(5_000);
+      if (random.nextBoolean()) {
+        assertEquals(expected.add(cell), occupancy.occupy(cell));
+      } else {
+        assertEquals(expected.remove(cell), occupancy.vacate(cell));
+      }
+    }
+
+    assertEquals(expected.size(), occupancy.occupiedCount());
+    assertEquals(5_000 - expected.size(), occupancy.freeCount());
+    for (int cell = 0; cell < 5_000; cell++) {
+      assertEquals(expected.contains(cell), occupancy.isOccupied(cell));
+    }
+  }
+
+  @Test
+  void randomFreeSkipsOccupiedCellsOnCrowdedBoard() {
+    SparseOccupancy occupancy = new SparseOccupancy(100);
+    for (int cell = 0; cell < 100; cell++) {
+      if (cell != 37) {
+        occupancy.occupy(cell);
+      }
+    }
+
+    assertEquals(37, occupancy.randomFree(new Random(1L)));
+  }
+
+  @Test
+  void obstaclesBlockCellsWithoutCountingAsBody() {
+    for (Occupancy occupancy : new Occupancy[] {new SparseOccupancy(100), new DenseOccupancy(10, 10)}) {
+      assertTrue(occupancy.occupy(5));
+      assertFalse(occupancy.block(5));
+      assertTrue(occupancy.block(6));
+      assertFalse(occupancy.block(6));
+
+      assertTrue(occupancy.isOccupied(6));
+      assertTrue(occupancy.isBlocked(6));
+      assertFalse(occupancy.isBlocked(5));
+      assertFalse(occupancy.occupy(6));
+      assertFalse(occupancy.vacate(6));
+      assertEquals(1, occupancy.occupiedCount());
+      assertEquals(98, occupancy.freeCount());
+      assertEquals(1, occupancy.blockedCount());
+      assertEquals(6, occupancy.blockedCell(0));
+      assertEquals(7, occupancy.nextFree(5));
+    }
+  }
+
+  @Test
+  void randomFreeAvoidsObstacles() {
+    for (Occupancy occupancy : new Occupancy[] {new SparseOccupancy(100), new DenseOccupancy(10, 10)}) {
+      for (int cell = 0; cell < 100; cell++) {
+        if (cell != 37) {
+          occupancy.block(cell);
+        }
+      }
+
+      assertEquals(37, occupancy.randomFree(new Random(1L)));
+      assertEquals(37, occupancy.nextFree(80));
+    }
+  }
+
+  @Test
+  void forBoardPicksSparseAboveDenseLimit() {
+    assertTrue(Occupancy.forBoard(512, Occupancy.DENSE_CELL_LIMIT / 512) instanceof DenseOccupancy);
+    assertTrue(Occupancy.forBoard(513, Occupancy.DENSE_CELL_LIMIT / 512) instanceof SparseOccupancy);
+  }
+}
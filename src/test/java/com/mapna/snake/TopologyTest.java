@@ -0,0 +1,69 @@
+package com.mapna.snake;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopologyTest {
+
+  @Test
+  void torusWrapsAtEveryEdge() {
+    Topology torus = Topology.torus(7, 5);
+
+    assertEquals(4 * 7 + 3, torus.neighbour(3, Direction.UP));
+    assertEquals(3, torus.neighbour(4 * 7 + 3, Direction.DOWN));
+    assertEquals(2 * 7 + 6, torus.neighbour(2 * 7, Direction.LEFT));
+    assertEquals(2 * 7, torus.neighbour(2 * 7 + 6, Direction.RIGHT));
+    assertEquals(1 + 1, torus.distance(0, 4 * 7 + 6));
+  }
+
+  @Test
+  void walledBoxStopsAtEveryEdge() {
+    Topology walled = Topology.walled(7, 5);
+
+    assertEquals(Topology.WALL, walled.neighbour(3, Direction.UP));
+    assertEquals(Topology.WALL, walled.neighbour(4 * 7 + 3, Direction.DOWN));
+    assertEquals(Topology.WALL, walled.neighbour(2 * 7, Direction.LEFT));
+    assertEquals(Topology.WALL, walled.neighbour(2 * 7 + 6, Direction.RIGHT));
+    assertEquals(7 + 3, walled.neighbour(3, Direction.DOWN));
+    assertEquals(4 + 6, walled.distance(0, 4 * 7 + 6));
+  }
+
+  @Test
+  void maskedCellsCannotBeEntered() {
+    Bitboard closed = new Bitboard(7, 5);
+    closed.set(3, 2);
+    Topology masked = Topology.torus(7, 5).withMask(closed);
+    closed.set(0, 0);
+
+    assertEquals(1, masked.maskedCount());
+    assertFalse(masked.isOpen(2 * 7 + 3));
+    assertTrue(masked.isOpen(0));
+    assertEquals(Topology.WALL, masked.neighbour(2 * 7 + 2, Direction.RIGHT));
+    assertEquals(Topology.WALL, masked.neighbour(7 + 3, Direction.DOWN));
+    assertEquals(4 * 7, masked.neighbour(0, Direction.UP));
+    assertThrows(IllegalArgumentException.class, () -> masked.withMask(new Bitboard(5, 7)));
+  }
+
+  @Test
+  void largeBoardsComputeTheSameNeighbours() {
+    int columns = 1_000;
+    int rows = Topology.TABLE_CELL_LIMIT / columns + 1;
+    Topology large = Topology.walled(columns, rows);
+    int corner = columns * rows - 1;
+
+    assertEquals(Topology.WALL, large.neighbour(corner, Direction.RIGHT));
+    assertEquals(corner - columns, large.neighbour(corner, Direction.UP));
+    assertEquals(Topology.WALL, Topology.torus(columns, rows).withMask(closedCorner(columns, rows))
+        .neighbour(corner - 1, Direction.RIGHT));
+  }
+
+  private static Bitboard closedCorner(int columns, int rows) {
+    Bitboard closed = new Bitboard(columns, rows);
+    closed.set(columns - 1, rows - 1);
+    return closed;
+  }
+}
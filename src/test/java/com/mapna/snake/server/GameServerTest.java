@@ -0,0 +1,104 @@
+package com.mapna.snake.server;
+
+import com.mapna.snake.BoardConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GameServerTest {
+
+  private static GameServer startServer(long tickMillis) throws IOException {
+    return new GameServer(BoardConfig.DEFAULT, 0, tickMillis, 2, 7L).start();
+  }
+
+  @Test
+  void clientReceivesGreetingAndStateUpdates() throws IOException {
+    try (GameServer server = startServer(10);
+         Socket socket = new Socket("127.0.0.1", server.port())) {
+      socket.setSoTimeout(5_000);
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+
+      assertTrue(in.readLine().matches("HELLO \\d+ 20 20 10"));
+      String[] first = in.readLine().split(" ");
+      String[] second = in.readLine().split(" ");
+      assertEquals("S", first[0]);
+      assertEquals("RUNNING", first[2]);
+      assertEquals("UP", first[8]);
+      assertEquals(first[4], second[4]);
+      assertEquals((Integer.parseInt(first[5]) - 1 + 20) % 20, Integer.parseInt(second[5]));
+    }
+  }
+
+  @Test
+  void commandsSteerTheSessionsGame() throws IOException {
+    try (GameServer server = startServer(10);
+         Socket socket = new Socket("127.0.0.1", server.port())) {
+      socket.setSoTimeout(5_000);
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      OutputStream out = socket.getOutputStream();
+      in.readLine();
+
+      out.write("L\n".getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      String direction = "";
+      for (int i = 0; i < 100 && !direction.equals("LEFT"); i++) {
+        direction = in.readLine().split(" ")[8];
+      }
+      assertEquals("LEFT", direction);
+
+      out.write("P\n".getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      String mode = "";
+      for (int i = 0; i < 100 && !mode.equals("PAUSED"); i++) {
+        mode = in.readLine().split(" ")[2];
+      }
+      assertEquals("PAUSED", mode);
+    }
+  }
+
+  @Test
+  void hostsManyConcurrentBots() throws Exception {
+    int bots = 200;
+    long millis = 1_000;
+    long tickMillis = 10;
+    try (GameServer server = startServer(tickMillis)) {
+      LoadGenerator.Report report = LoadGenerator.run(new InetSocketAddress("127.0.0.1", server.port()), bots, millis);
+
+      assertEquals(bots, report.sessions());
+      assertEquals(0, report.failed());
+      // Each session should tick and send a line about every tick; a quarter of that leaves room
+      // for a slow machine while still catching a server that falls behind its tick rate.
+      long expectedPerBot = millis / tickMillis;
+      long ticks = server.tickLatency().count();
+      assertTrue(ticks >= bots * expectedPerBot / 4, "ticks: " + ticks + " of about " + bots * expectedPerBot);
+      for (int i = 0; i < 100 && server.sessionCount() > 0; i++) {
+        Thread.sleep(20);
+      }
+      assertEquals(0, server.sessionCount());
+      // The bots share the CPU with the server, and on a single core they cannot read every line
+      // as it is sent, so delivery per bot is only checked where they have a core of their own.
+      assumeTrue(Runtime.getRuntime().availableProcessors() >= 2, "per-bot delivery needs more than one core");
+      assertTrue(report.fewestUpdates() >= expectedPerBot / 4, "fewest updates for one bot: " + report.fewestUpdates()
+          + " of about " + expectedPerBot + ", " + report.updates() + " in total for " + ticks + " ticks");
+    }
+  }
+
+  @Test
+  void botSteersTowardFoodWithoutReversing() {
+    assertEquals('R', LoadGenerator.steer("S 1 RUNNING 0 3 5 9 5 UP".split(" ")));
+    assertEquals(0, LoadGenerator.steer("S 1 RUNNING 0 3 5 9 5 LEFT".split(" ")));
+    assertEquals('D', LoadGenerator.steer("S 1 RUNNING 0 9 2 9 5 RIGHT".split(" ")));
+    assertEquals('N', LoadGenerator.steer("S 1 GAME_OVER 4 9 2 9 5 RIGHT".split(" ")));
+    assertEquals('P', LoadGenerator.steer("S 1 PAUSED 4 9 2 9 5 RIGHT".split(" ")));
+  }
+}
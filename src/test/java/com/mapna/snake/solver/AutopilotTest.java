@@ -0,0 +1,156 @@
+package com.mapna.snake.solver;
+
+import com.mapna.snake.BoardConfig;
+import com.mapna.snake.Direction;
+import com.mapna.snake.GameEngine;
+import com.mapna.snake.GameMode;
+import com.mapna.snake.GameState;
+import com.mapna.snake.MovePolicy;
+import com.mapna.snake.Simulator;
+import com.mapna.snake.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AutopilotTest {
+
+  private static void assertVisitsEveryCellOnce(HamiltonianCycle cycle, Topology topology) {
+    String board = topology.columns() + "x" + topology.rows();
+    assertNotNull(cycle, board);
+    boolean[] seen = new boolean[topology.cellCount()];
+    int cell = 0;
+    for (int step = 0; step < seen.length; step++) {
+      assertTrue(!seen[cell], "revisited " + cell + " on " + board);
+      seen[cell] = true;
+      int next = cycle.next(cell);
+      assertTrue(neighbours(topology, cell, next), cell + " -> " + next + " on " + board);
+      cell = next;
+    }
+    assertEquals(0, cell);
+  }
+
+  private static boolean neighbours(Topology topology, int cell, int next) {
+    for (Direction direction : Direction.values()) {
+      if (topology.neighbour(cell, direction) == next) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Test
+  void cycleVisitsEveryCellOnceThroughNeighbours() {
+    int[][] boards = {{2, 2}, {4, 5}, {5, 4}, {20, 20}, {7, 10}};
+    for (int[] board : boards) {
+      assertVisitsEveryCellOnce(HamiltonianCycle.of(board[0], board[1]), Topology.walled(board[0], board[1]));
+      Topology torus = Topology.torus(board[0], board[1]);
+      assertVisitsEveryCellOnce(HamiltonianCycle.of(torus), torus);
+    }
+  }
+
+  @Test
+  void oddByOddTorusHasACycleThroughTheWrap() {
+    int[][] boards = {{3, 3}, {5, 5}, {5, 7}, {9, 3}, {21, 21}};
+    for (int[] board : boards) {
+      Topology torus = Topology.torus(board[0], board[1]);
+      assertVisitsEveryCellOnce(HamiltonianCycle.of(torus), torus);
+    }
+  }
+
+  @Test
+  void oddByOddWalledBoardHasNoCycle() {
+    assertNull(HamiltonianCycle.of(5, 5));
+    assertNull(HamiltonianCycle.of(Topology.walled(5, 5)));
+    assertThrows(IllegalArgumentException.class, () -> Autopilot.hamiltonian(Topology.walled(5, 5)));
+  }
+
+  @Test
+  void hamiltonianModeWinsOddByOddTori() {
+    for (int[] board : new int[][] {{5, 5}, {21, 21}}) {
+      int cells = board[0] * board[1];
+      Simulator.Summary summary = Simulator.run(BoardConfig.of(board[0], board[1]), 3, 7L, cells * cells, 1,
+          seed -> Autopilot.hamiltonian(board[0], board[1]));
+
+      assertEquals(3, summary.won(), board[0] + "x" + board[1]);
+    }
+  }
+
+  @Test
+  void hamiltonianModeWinsEveryGame() {
+    for (int[] board : new int[][] {{10, 10}, {9, 10}, {10, 9}}) {
+      BoardConfig config = BoardConfig.of(board[0], board[1]);
+      Simulator.Summary summary = Simulator.run(config, 20, 3L, 100_000, 2,
+          seed -> Autopilot.hamiltonian(board[0], board[1]));
+
+      assertEquals(20, summary.won(), board[0] + "x" + board[1]);
+    }
+  }
+
+  @Test
+  void pathfindingOutscoresGreedy() {
+    BoardConfig config = BoardConfig.DEFAULT;
+    Simulator.Summary greedy = Simulator.run(config, 100, 11L, 20_000, 2, seed -> MovePolicy.greedy());
+    Simulator.Summary autopilot = Simulator.run(config, 100, 11L, 20_000, 2,
+        seed -> Autopilot.pathfinding(config.columns(), config.rows()));
+
+    assertTrue(autopilot.meanScore() > 2 * greedy.meanScore(),
+        "autopilot " + autopilot.meanScore() + " vs greedy " + greedy.meanScore());
+  }
+
+  @Test
+  void hamiltonianModeWinsInsideWalls() {
+    Topology walled = Topology.walled(8, 8);
+    for (long seed = 0; seed < 10; seed++) {
+      GameEngine engine = new GameEngine(BoardConfig.of(8, 8), walled, new Random(seed));
+      GameState state = new GameState();
+      engine.reset(state);
+      Autopilot autopilot = Autopilot.hamiltonian(walled);
+      for (int tick = 0; tick < 100_000 && state.getMode() == GameMode.RUNNING; tick++) {
+        engine.requestDirection(state, autopilot.choose(state));
+        engine.tick(state);
+      }
+
+      assertEquals(GameMode.WON, state.getMode(), "seed " + seed);
+    }
+  }
+
+  @Test
+  void pathfindingWinsOnSmallBoards() {
+    Simulator.Summary summary = Simulator.run(BoardConfig.of(6, 6), 50, 5L, 50_000, 2,
+        seed -> Autopilot.pathfinding(6, 6));
+
+    assertTrue(summary.won() > 0, "won " + summary.won());
+  }
+
+  @Test
+  void decisionsDoNotAllocate() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    BoardConfig config = BoardConfig.of(64, 64);
+    GameEngine engine = new GameEngine(config, new Random(1));
+    GameState state = new GameState();
+    engine.reset(state);
+    Autopilot autopilot = Autopilot.pathfinding(config.columns(), config.rows());
+    for (int i = 0; i < 20_000; i++) {
+      autopilot.choose(state);
+    }
+
+    long before = threads.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < 1_000; i++) {
+      autopilot.choose(state);
+    }
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+    assertTrue(allocated < 1_000, "allocated " + allocated + " bytes in 1000 decisions");
+    assertEquals(GameMode.RUNNING, state.getMode());
+  }
+}